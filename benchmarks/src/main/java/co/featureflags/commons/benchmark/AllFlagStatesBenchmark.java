@@ -0,0 +1,79 @@
+package co.featureflags.commons.benchmark;
+
+import co.featureflags.commons.model.AllFlagStates;
+import co.featureflags.commons.model.BooleanEvalDetail;
+import co.featureflags.commons.model.PrimitiveAllFlagStates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * measures the json codec of {@link AllFlagStates} from 1 flag up to 10k flags
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AllFlagStatesBenchmark {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    public int flagCount;
+
+    private AllFlagStates<Boolean> allFlagStates;
+
+    private String json;
+
+    private StringBuilder buffer;
+
+    private ByteArrayOutputStream out;
+
+    @Setup
+    public void setup() {
+        allFlagStates = Fixtures.allFlagStates(flagCount);
+        json = allFlagStates.jsonfy();
+        buffer = new StringBuilder(json.length());
+        out = new ByteArrayOutputStream(json.length());
+    }
+
+    @Benchmark
+    public AllFlagStates<Boolean> fromJson() {
+        return AllFlagStates.fromJson(json, Boolean.class);
+    }
+
+    @Benchmark
+    public PrimitiveAllFlagStates<BooleanEvalDetail> primitiveFromJson() {
+        return PrimitiveAllFlagStates.fromJson(json, BooleanEvalDetail.class);
+    }
+
+    @Benchmark
+    public String jsonfy() {
+        return allFlagStates.jsonfy();
+    }
+
+    @Benchmark
+    public StringBuilder jsonfyToBuffer() {
+        buffer.setLength(0);
+        allFlagStates.jsonfy(buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream jsonfyToOutputStream() {
+        out.reset();
+        allFlagStates.jsonfy(out);
+        return out;
+    }
+}
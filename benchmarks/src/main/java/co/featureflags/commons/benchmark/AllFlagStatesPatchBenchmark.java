@@ -0,0 +1,69 @@
+package co.featureflags.commons.benchmark;
+
+import co.featureflags.commons.model.AllFlagStates;
+import co.featureflags.commons.model.EvalDetail;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * compares a delta update of an {@link AllFlagStates} snapshot with a rebuild of the whole snapshot
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AllFlagStatesPatchBenchmark {
+
+    @Param({"100", "1000", "5000"})
+    public int flagCount;
+
+    @Param({"1", "10"})
+    public int changeCount;
+
+    private AllFlagStates<Boolean> allFlagStates;
+
+    private List<EvalDetail<Boolean>> details;
+
+    private List<EvalDetail<Boolean>> changes;
+
+    @Setup
+    public void setup() {
+        allFlagStates = Fixtures.allFlagStates(flagCount);
+        details = Fixtures.details(flagCount);
+        changes = new ArrayList<>(changeCount);
+        for (int i = 0; i < changeCount; i++) {
+            EvalDetail<Boolean> detail = details.get(i * (flagCount / changeCount));
+            changes.add(EvalDetail.of(!detail.getVariation(), detail.getId(), detail.getReason(), detail.getKeyName(), detail.getName()));
+        }
+    }
+
+    @Benchmark
+    public AllFlagStates<Boolean> patch() {
+        return allFlagStates.patch(changes, Collections.emptyList());
+    }
+
+    @Benchmark
+    public AllFlagStates<Boolean> rebuild() {
+        List<EvalDetail<Boolean>> data = new ArrayList<>(details);
+        for (int i = 0; i < changeCount; i++) {
+            data.set(i * (flagCount / changeCount), changes.get(i));
+        }
+        return AllFlagStates.of(true, null, data);
+    }
+}
@@ -0,0 +1,75 @@
+package co.featureflags.commons.benchmark;
+
+import co.featureflags.commons.json.AsyncJsonHelper;
+import co.featureflags.commons.model.AllFlagStates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * measures the time a calling thread is blocked by the decoding of {@link AllFlagStates}:
+ * decoded on the calling thread, or only submitted to an {@link AsyncJsonHelper}, and the cost of the hand-off
+ * when the caller waits for the result
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AsyncJsonHelperBenchmark {
+
+    @Param({"100", "10000"})
+    public int flagCount;
+
+    private String json;
+
+    private ExecutorService executor;
+
+    private AsyncJsonHelper async;
+
+    @Setup
+    public void setup() {
+        json = Fixtures.allFlagStates(flagCount).jsonfy();
+        executor = Executors.newSingleThreadExecutor();
+        async = new AsyncJsonHelper.Builder().executor(executor).maxConcurrentTasks(1).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public AllFlagStates<Boolean> decodeOnCaller() {
+        return AllFlagStates.fromJson(json, Boolean.class);
+    }
+
+    @Benchmark
+    public AllFlagStates<Boolean> decodeAsyncAndJoin() {
+        return AllFlagStates.fromJsonAsync(json, Boolean.class, async).join();
+    }
+
+    /**
+     * the time spent by the caller, the tasks over the limit are rejected without waiting
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public CompletableFuture<AllFlagStates<Boolean>> submitOnly() {
+        return AllFlagStates.fromJsonAsync(json, Boolean.class, async);
+    }
+}
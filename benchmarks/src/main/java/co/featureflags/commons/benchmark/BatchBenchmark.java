@@ -0,0 +1,134 @@
+package co.featureflags.commons.benchmark;
+
+import co.featureflags.commons.json.JsonArrayReader;
+import co.featureflags.commons.json.JsonArrayWriter;
+import co.featureflags.commons.model.AllFlagStates;
+import co.featureflags.commons.model.BatchFlagStates;
+import co.featureflags.commons.model.BatchVariationParams;
+import co.featureflags.commons.model.FFCUser;
+import co.featureflags.commons.model.VariationParams;
+import com.google.common.io.ByteStreams;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * measures a batch of users streamed as one json array, against one json document per user
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchBenchmark {
+
+    @Param({"1000", "10000"})
+    public int entryCount;
+
+    private FFCUser[] users;
+
+    private List<String> flagKeyNames;
+
+    private AllFlagStates<Boolean> states;
+
+    private byte[] requestJson;
+
+    private byte[] responseJson;
+
+    @Setup
+    public void setup() {
+        users = new FFCUser[entryCount];
+        for (int i = 0; i < entryCount; i++) {
+            users[i] = new FFCUser.Builder(String.format("user-key-%06d", i))
+                    .country("FR")
+                    .custom("plan", i % 2 == 0 ? "free" : "pro")
+                    .build();
+        }
+        flagKeyNames = Arrays.asList("flag-key-00001", "flag-key-00002", "flag-key-00003");
+        states = Fixtures.allFlagStates(3);
+        ByteArrayOutputStream request = new ByteArrayOutputStream();
+        writeRequest(request);
+        requestJson = request.toByteArray();
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        writeResponse(response);
+        responseJson = response.toByteArray();
+    }
+
+    private void writeRequest(OutputStream out) {
+        try (JsonArrayWriter<BatchVariationParams> writer = BatchVariationParams.writer(out)) {
+            for (FFCUser user : users) {
+                writer.write(BatchVariationParams.of(user, flagKeyNames));
+            }
+        }
+    }
+
+    private void writeResponse(OutputStream out) {
+        try (JsonArrayWriter<BatchFlagStates<Boolean>> writer = BatchFlagStates.writer(out, Boolean.class)) {
+            for (FFCUser user : users) {
+                writer.write(BatchFlagStates.of(user.getKey(), states));
+            }
+        }
+    }
+
+    @Benchmark
+    public void writeBatchRequest() {
+        writeRequest(ByteStreams.nullOutputStream());
+    }
+
+    /**
+     * the same users sent without batch: one document for each flag of each user
+     */
+    @Benchmark
+    public void writeSeparateRequests() {
+        OutputStream out = ByteStreams.nullOutputStream();
+        for (FFCUser user : users) {
+            for (String flagKeyName : flagKeyNames) {
+                VariationParams.of(flagKeyName, user).jsonfy(out);
+            }
+        }
+    }
+
+    @Benchmark
+    public void readBatchRequest(Blackhole bh) throws Exception {
+        try (JsonArrayReader<BatchVariationParams> reader = BatchVariationParams.reader(
+                new InputStreamReader(new ByteArrayInputStream(requestJson), StandardCharsets.UTF_8))) {
+            while (reader.hasNext()) {
+                bh.consume(reader.next());
+            }
+        }
+    }
+
+    @Benchmark
+    public void writeBatchResponse() {
+        writeResponse(ByteStreams.nullOutputStream());
+    }
+
+    @Benchmark
+    public void readBatchResponse(Blackhole bh) throws Exception {
+        try (JsonArrayReader<BatchFlagStates<Boolean>> reader = BatchFlagStates.reader(
+                new InputStreamReader(new ByteArrayInputStream(responseJson), StandardCharsets.UTF_8), Boolean.class)) {
+            while (reader.hasNext()) {
+                bh.consume(reader.next());
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package co.featureflags.commons.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * entry point of the benchmark jar
+ * <p>
+ * accepts the usual JMH command line, always attaches the GC profiler to report the allocation rate
+ * and writes the results as JSON, by default into jmh-result.json, so that releases can be compared
+ */
+public final class BenchmarkRunner {
+
+    private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    private BenchmarkRunner() {
+        super();
+    }
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        Options options = new OptionsBuilder()
+                .parent(cmd)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(cmd.getResultFormat().orElse(ResultFormatType.JSON))
+                .result(cmd.getResult().orElse(DEFAULT_RESULT_FILE))
+                .build();
+        new Runner(options).run();
+    }
+}
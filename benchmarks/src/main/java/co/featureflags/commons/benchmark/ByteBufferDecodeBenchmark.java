@@ -0,0 +1,64 @@
+package co.featureflags.commons.benchmark;
+
+import co.featureflags.commons.model.AllFlagStates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * measures the decoding of {@link AllFlagStates} from a UTF-8 response body: decoded into a string first,
+ * or parsed directly from a heap or a direct {@link ByteBuffer}
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ByteBufferDecodeBenchmark {
+
+    @Param({"100", "10000"})
+    public int flagCount;
+
+    private byte[] bytes;
+
+    private ByteBuffer heap;
+
+    private ByteBuffer direct;
+
+    @Setup
+    public void setup() {
+        bytes = Fixtures.allFlagStates(flagCount).jsonfy().getBytes(StandardCharsets.UTF_8);
+        heap = ByteBuffer.wrap(bytes);
+        direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes);
+        direct.flip();
+    }
+
+    @Benchmark
+    public AllFlagStates<Boolean> viaString() {
+        return AllFlagStates.fromJson(new String(bytes, StandardCharsets.UTF_8), Boolean.class);
+    }
+
+    @Benchmark
+    public AllFlagStates<Boolean> heapBuffer() {
+        return AllFlagStates.fromJson(heap, Boolean.class);
+    }
+
+    @Benchmark
+    public AllFlagStates<Boolean> directBuffer() {
+        return AllFlagStates.fromJson(direct, Boolean.class);
+    }
+}
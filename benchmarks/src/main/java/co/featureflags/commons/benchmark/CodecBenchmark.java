@@ -0,0 +1,65 @@
+package co.featureflags.commons.benchmark;
+
+import co.featureflags.commons.codec.Codec;
+import co.featureflags.commons.codec.Codecs;
+import co.featureflags.commons.model.AllFlagStates;
+import com.google.gson.reflect.TypeToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * compares the json and the binary codecs of {@link AllFlagStates}, the encoded sizes are printed at setup
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CodecBenchmark {
+
+    private static final Type TYPE = new TypeToken<AllFlagStates<Boolean>>() {
+    }.getType();
+
+    @Param({"10", "1000", "10000"})
+    public int flagCount;
+
+    @Param({"json", "binary"})
+    public String codecName;
+
+    private Codec codec;
+
+    private AllFlagStates<Boolean> allFlagStates;
+
+    private byte[] encoded;
+
+    @Setup
+    public void setup() {
+        codec = "binary".equals(codecName) ? Codecs.BINARY : Codecs.JSON;
+        allFlagStates = Fixtures.allFlagStates(flagCount);
+        encoded = codec.encode(allFlagStates);
+        System.out.printf("%n%s: %d flags encoded in %d bytes%n", codecName, flagCount, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return codec.encode(allFlagStates);
+    }
+
+    @Benchmark
+    public AllFlagStates<Boolean> decode() {
+        return codec.decode(encoded, TYPE);
+    }
+}
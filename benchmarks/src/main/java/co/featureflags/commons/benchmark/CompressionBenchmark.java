@@ -0,0 +1,95 @@
+package co.featureflags.commons.benchmark;
+
+import co.featureflags.commons.json.Compression;
+import co.featureflags.commons.json.JsonHelper;
+import co.featureflags.commons.model.AllFlagStates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * compares the streamed json of {@link AllFlagStates} without compression, with gzip and with deflate,
+ * the sizes are printed at setup
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompressionBenchmark {
+
+    @Param({"1000"})
+    public int flagCount;
+
+    @Param({"NONE", "GZIP", "DEFLATE"})
+    public Compression compression;
+
+    private AllFlagStates<Boolean> allFlagStates;
+
+    private ByteArrayOutputStream out;
+
+    private byte[] encoded;
+
+    @Setup
+    public void setup() {
+        allFlagStates = Fixtures.allFlagStates(flagCount);
+        out = new ByteArrayOutputStream(256 * 1024);
+        JsonHelper.serialize(allFlagStates, out, compression);
+        encoded = out.toByteArray();
+        System.out.printf("%n%s: %d flags written in %d bytes%n", compression, flagCount, encoded.length);
+    }
+
+    @Benchmark
+    public int serialize() {
+        out.reset();
+        JsonHelper.serialize(allFlagStates, out, compression);
+        return out.size();
+    }
+
+    /**
+     * the compression done by the callers before: the json string is built, encoded, then compressed
+     */
+    @Benchmark
+    public int serializeToStringThenCompress() throws IOException {
+        out.reset();
+        byte[] json = JsonHelper.serialize(allFlagStates).getBytes(StandardCharsets.UTF_8);
+        switch (compression) {
+            case GZIP:
+                try (OutputStream gzip = new GZIPOutputStream(out)) {
+                    gzip.write(json);
+                }
+                break;
+            case DEFLATE:
+                try (OutputStream deflate = new DeflaterOutputStream(out)) {
+                    deflate.write(json);
+                }
+                break;
+            default:
+                out.write(json);
+        }
+        return out.size();
+    }
+
+    @Benchmark
+    public AllFlagStates<Boolean> deserialize() {
+        return AllFlagStates.fromJson(new ByteArrayInputStream(encoded), Boolean.class, compression);
+    }
+}
@@ -0,0 +1,47 @@
+package co.featureflags.commons.benchmark;
+
+import co.featureflags.commons.model.EvalDetail;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * measures the json codec of {@link EvalDetail}
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EvalDetailBenchmark {
+
+    private EvalDetail<Boolean> detail;
+
+    private String json;
+
+    @Setup
+    public void setup() {
+        detail = Fixtures.detail(1);
+        json = detail.jsonfy();
+    }
+
+    @Benchmark
+    public EvalDetail<Boolean> fromJson() {
+        return EvalDetail.fromJson(json, Boolean.class);
+    }
+
+    @Benchmark
+    public String jsonfy() {
+        return detail.jsonfy();
+    }
+}
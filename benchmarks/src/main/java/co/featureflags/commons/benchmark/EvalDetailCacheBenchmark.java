@@ -0,0 +1,65 @@
+package co.featureflags.commons.benchmark;
+
+import co.featureflags.commons.cache.EvalDetailCache;
+import co.featureflags.commons.model.EvalDetail;
+import co.featureflags.commons.model.FFCUser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * measures the concurrent reads of an {@link EvalDetailCache} holding the results of 100 flags for 1000 users
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class EvalDetailCacheBenchmark {
+
+    private static final int FLAG_COUNT = 100;
+
+    private static final int USER_COUNT = 1000;
+
+    private EvalDetailCache<Boolean> cache;
+
+    private String[] flagKeyNames;
+
+    private FFCUser[] users;
+
+    @Setup
+    public void setup() {
+        cache = new EvalDetailCache.Builder().maximumSize(FLAG_COUNT * USER_COUNT).build();
+        flagKeyNames = new String[FLAG_COUNT];
+        users = new FFCUser[USER_COUNT];
+        for (int i = 0; i < USER_COUNT; i++) {
+            users[i] = new FFCUser.Builder(String.format("user-key-%04d", i)).country("FR").build();
+        }
+        for (int f = 0; f < FLAG_COUNT; f++) {
+            EvalDetail<Boolean> detail = Fixtures.detail(f);
+            flagKeyNames[f] = detail.getKeyName();
+            for (FFCUser user : users) {
+                cache.put(flagKeyNames[f], user, detail);
+            }
+        }
+    }
+
+    @Benchmark
+    public EvalDetail<Boolean> get() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return cache.get(flagKeyNames[random.nextInt(FLAG_COUNT)], users[random.nextInt(USER_COUNT)]);
+    }
+}
@@ -0,0 +1,123 @@
+package co.featureflags.commons.benchmark;
+
+import co.featureflags.commons.model.AttributeRef;
+import co.featureflags.commons.model.FFCUser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * measures the reads of the user attributes done by the rule evaluation, by name or by {@link AttributeRef},
+ * and the hash and fingerprint used when a user is a cache key
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FFCUserBenchmark {
+
+    @Param({"0", "20", "200"})
+    public int customAttributes;
+
+    private FFCUser user;
+
+    private String[] names;
+
+    private AttributeRef[] refs;
+
+    // users of 4 different custom attribute sets, read alternately
+    private FFCUser[] mixedUsers;
+
+    private FFCUser typedUser;
+
+    private AttributeRef typedRef;
+
+    @Setup
+    public void setup() {
+        user = Fixtures.user(customAttributes);
+        // the attributes of a typical rule: 2 built-in ones, a custom one and a missing one
+        names = new String[]{"Country", "Email", String.format("attribute-%03d", customAttributes / 2), "missing"};
+        refs = new AttributeRef[names.length];
+        for (int i = 0; i < names.length; i++) {
+            refs[i] = AttributeRef.of(names[i]);
+        }
+        mixedUsers = new FFCUser[4];
+        for (int i = 0; i < mixedUsers.length; i++) {
+            FFCUser.Builder mixed = new FFCUser.Builder(user.getKey());
+            user.getCustom().forEach(mixed::custom);
+            mixedUsers[i] = mixed.custom("segment-" + i, "value").build();
+        }
+        FFCUser.Builder typed = new FFCUser.Builder(user.getKey());
+        user.getCustom().forEach(typed::custom);
+        typedUser = typed.custom("age", 42L).build();
+        typedRef = AttributeRef.of("age");
+    }
+
+    @Benchmark
+    public void getPropertyByName(Blackhole bh) {
+        for (String name : names) {
+            bh.consume(user.getProperty(name));
+        }
+    }
+
+    @Benchmark
+    public void getPropertyByRef(Blackhole bh) {
+        for (AttributeRef ref : refs) {
+            bh.consume(user.getProperty(ref));
+        }
+    }
+
+    /**
+     * a number read from the string form of a custom attribute, as done before the typed attributes
+     */
+    @Benchmark
+    public long getNumberParsed() {
+        return Long.parseLong(typedUser.getProperty(typedRef));
+    }
+
+    @Benchmark
+    public long getNumberTyped() {
+        return typedUser.getCustomLong(typedRef, 0L);
+    }
+
+    @Benchmark
+    public void getPropertyByRefMixedLayouts(Blackhole bh) {
+        for (FFCUser mixed : mixedUsers) {
+            for (AttributeRef ref : refs) {
+                bh.consume(mixed.getProperty(ref));
+            }
+        }
+    }
+
+    @Benchmark
+    public int hashCodeCached() {
+        return user.hashCode();
+    }
+
+    /**
+     * the cost of {@link FFCUser#hashCode()} when it was computed at each call
+     */
+    @Benchmark
+    public int hashCodeUncached() {
+        return Objects.hash(user.getUserName(), user.getEmail(), user.getKey(), user.getCountry(), user.getCustom());
+    }
+
+    @Benchmark
+    public long fingerprintCached() {
+        return user.fingerprint();
+    }
+}
@@ -0,0 +1,86 @@
+package co.featureflags.commons.benchmark;
+
+import co.featureflags.commons.model.AllFlagStates;
+import co.featureflags.commons.model.EvalDetail;
+import co.featureflags.commons.model.FFCUser;
+import co.featureflags.commons.model.VariationParams;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * deterministic payloads shared by all the benchmarks
+ */
+final class Fixtures {
+
+    private static final String[] REASONS = {"target match", "match rule", "fall through all rules", "flag off"};
+
+    private Fixtures() {
+        super();
+    }
+
+    /**
+     * build a flag evaluation result
+     *
+     * @param index flag index
+     * @return an EvalDetail
+     */
+    static EvalDetail<Boolean> detail(int index) {
+        return EvalDetail.of(index % 2 == 0,
+                index % 3,
+                REASONS[index % REASONS.length],
+                String.format("flag-key-%05d", index),
+                String.format("Flag %05d", index));
+    }
+
+    /**
+     * build a list of flag evaluation results
+     *
+     * @param flagCount number of flags
+     * @return a list of EvalDetail
+     */
+    static List<EvalDetail<Boolean>> details(int flagCount) {
+        List<EvalDetail<Boolean>> details = new ArrayList<>(flagCount);
+        for (int i = 0; i < flagCount; i++) {
+            details.add(detail(i));
+        }
+        return details;
+    }
+
+    /**
+     * build a successful AllFlagStates
+     *
+     * @param flagCount number of flags
+     * @return an AllFlagStates
+     */
+    static AllFlagStates<Boolean> allFlagStates(int flagCount) {
+        return AllFlagStates.of(true, null, details(flagCount));
+    }
+
+    /**
+     * build a user with custom attributes
+     *
+     * @param customAttributes number of custom attributes
+     * @return a FFCUser
+     */
+    static FFCUser user(int customAttributes) {
+        FFCUser.Builder builder = new FFCUser.Builder("user-key-0001")
+                .userName("benchmark user")
+                .email("benchmark@featureflags.co")
+                .country("FR");
+        for (int i = 0; i < customAttributes; i++) {
+            builder.custom(String.format("attribute-%03d", i), String.format("value-%03d", i));
+        }
+        return builder.build();
+    }
+
+    /**
+     * build a VariationParams with a user having custom attributes
+     *
+     * @param customAttributes number of custom attributes
+     * @return a VariationParams
+     */
+    static VariationParams variationParams(int customAttributes) {
+        return VariationParams.of("flag-key-00001", user(customAttributes));
+    }
+}
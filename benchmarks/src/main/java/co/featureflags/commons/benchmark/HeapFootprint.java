@@ -0,0 +1,82 @@
+package co.featureflags.commons.benchmark;
+
+import co.featureflags.commons.model.AllFlagStates;
+import co.featureflags.commons.model.EvalDetail;
+import co.featureflags.commons.model.FFCUser;
+import co.featureflags.commons.model.Interning;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * measures with JOL the retained heap of the flag states of many users decoded from json,
+ * with and without {@link Interning}, and the retained heap of the users by number of custom attributes
+ * <p>
+ * run it with: java -cp benchmarks.jar co.featureflags.commons.benchmark.HeapFootprint [userCount] [flagCount]
+ */
+public final class HeapFootprint {
+
+    private HeapFootprint() {
+        super();
+    }
+
+    public static void main(String[] args) {
+        int userCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int flagCount = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        List<String> payloads = payloads(userCount, flagCount);
+
+        Interning.disable();
+        long plain = footprint(payloads);
+        Interning.enable(64 * 1024);
+        long interned = footprint(payloads);
+        Interning.disable();
+
+        System.out.printf("%d users x %d flags%n", userCount, flagCount);
+        System.out.printf("without interning: %,d bytes%n", plain);
+        System.out.printf("with interning:    %,d bytes (%.1f%%)%n", interned, 100.0 * interned / plain);
+
+        for (int customAttributes : new int[]{0, 5, 20}) {
+            System.out.printf("%d users x %d custom attributes: %,d bytes%n", userCount, customAttributes, userFootprint(userCount, customAttributes));
+        }
+    }
+
+    // the users of a session cache, their custom attributes have the same names and other values
+    private static long userFootprint(int userCount, int customAttributes) {
+        List<FFCUser> users = new ArrayList<>(userCount);
+        for (int u = 0; u < userCount; u++) {
+            FFCUser.Builder builder = new FFCUser.Builder("user-" + u).userName("name-" + u).country("FR");
+            for (int i = 0; i < customAttributes; i++) {
+                builder.custom("attribute-" + i, "value-" + i + "-" + u);
+            }
+            FFCUser user = builder.build();
+            // read as done by the rule evaluation by name and the codecs
+            user.getCustom().get("attribute-0");
+            users.add(user);
+        }
+        return GraphLayout.parseInstance(users).totalSize();
+    }
+
+    // the flags of each user have one of 2 variations, like a flag rolled out to half of the users
+    private static List<String> payloads(int userCount, int flagCount) {
+        List<String> payloads = new ArrayList<>(userCount);
+        for (int u = 0; u < userCount; u++) {
+            List<EvalDetail<Boolean>> details = new ArrayList<>(flagCount);
+            for (int i = 0; i < flagCount; i++) {
+                EvalDetail<Boolean> detail = Fixtures.detail(i);
+                boolean on = (i + u) % 2 == 0;
+                details.add(EvalDetail.of(on, on ? 1 : 0, detail.getReason(), detail.getKeyName(), detail.getName()));
+            }
+            payloads.add(AllFlagStates.of(true, null, details).jsonfy());
+        }
+        return payloads;
+    }
+
+    private static long footprint(List<String> payloads) {
+        List<AllFlagStates<Boolean>> states = new ArrayList<>(payloads.size());
+        for (String json : payloads) {
+            states.add(AllFlagStates.fromJson(json, Boolean.class));
+        }
+        return GraphLayout.parseInstance(states).totalSize();
+    }
+}
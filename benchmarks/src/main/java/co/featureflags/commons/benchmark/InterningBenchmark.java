@@ -0,0 +1,58 @@
+package co.featureflags.commons.benchmark;
+
+import co.featureflags.commons.model.AllFlagStates;
+import co.featureflags.commons.model.Interning;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * measures the cost of {@link Interning} when decoding an {@link AllFlagStates}, see {@link HeapFootprint} for the heap saved
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InterningBenchmark {
+
+    @Param({"100", "1000"})
+    public int flagCount;
+
+    @Param({"false", "true"})
+    public boolean interning;
+
+    private String json;
+
+    @Setup
+    public void setup() {
+        json = Fixtures.allFlagStates(flagCount).jsonfy();
+        if (interning) {
+            Interning.enable(64 * 1024);
+        } else {
+            Interning.disable();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        Interning.disable();
+    }
+
+    @Benchmark
+    public AllFlagStates<Boolean> fromJson() {
+        return AllFlagStates.fromJson(json, Boolean.class);
+    }
+}
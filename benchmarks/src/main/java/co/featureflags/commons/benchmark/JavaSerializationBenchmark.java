@@ -0,0 +1,110 @@
+package co.featureflags.commons.benchmark;
+
+import co.featureflags.commons.model.AllFlagStates;
+import co.featureflags.commons.model.EvalDetail;
+import co.featureflags.commons.model.VariationParams;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * measures the java serialization of the ffc objects, as done by session stores and distributed caches:
+ * one object per stream
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JavaSerializationBenchmark {
+
+    @Param({"1000"})
+    public int flagCount;
+
+    @Param({"20"})
+    public int customAttributes;
+
+    private EvalDetail<Boolean> detail;
+
+    private AllFlagStates<Boolean> allFlagStates;
+
+    private VariationParams params;
+
+    private byte[] detailBytes;
+
+    private byte[] allFlagStatesBytes;
+
+    private byte[] paramsBytes;
+
+    @Setup
+    public void setup() throws IOException {
+        detail = Fixtures.detail(1);
+        allFlagStates = Fixtures.allFlagStates(flagCount);
+        params = Fixtures.variationParams(customAttributes);
+        detailBytes = serialize(detail);
+        allFlagStatesBytes = serialize(allFlagStates);
+        paramsBytes = serialize(params);
+        System.out.printf("%nEvalDetail %d bytes, AllFlagStates %d bytes, VariationParams %d bytes%n",
+                detailBytes.length, allFlagStatesBytes.length, paramsBytes.length);
+    }
+
+    @Benchmark
+    public byte[] serializeEvalDetail() throws IOException {
+        return serialize(detail);
+    }
+
+    @Benchmark
+    public Object deserializeEvalDetail() throws IOException, ClassNotFoundException {
+        return deserialize(detailBytes);
+    }
+
+    @Benchmark
+    public byte[] serializeAllFlagStates() throws IOException {
+        return serialize(allFlagStates);
+    }
+
+    @Benchmark
+    public Object deserializeAllFlagStates() throws IOException, ClassNotFoundException {
+        return deserialize(allFlagStatesBytes);
+    }
+
+    @Benchmark
+    public byte[] serializeVariationParams() throws IOException {
+        return serialize(params);
+    }
+
+    @Benchmark
+    public Object deserializeVariationParams() throws IOException, ClassNotFoundException {
+        return deserialize(paramsBytes);
+    }
+
+    private static byte[] serialize(Object o) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(o);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+}
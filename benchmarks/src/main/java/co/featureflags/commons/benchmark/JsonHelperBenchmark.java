@@ -0,0 +1,78 @@
+package co.featureflags.commons.benchmark;
+
+import co.featureflags.commons.json.JsonHelper;
+import co.featureflags.commons.model.AllFlagStates;
+import co.featureflags.commons.model.VariationParams;
+import com.google.common.reflect.TypeToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * measures {@link JsonHelper#serialize(Object)} and {@link JsonHelper#deserialize(String, Type)}
+ * on flag payloads and on users with custom attributes
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonHelperBenchmark {
+
+    private static final Type ALL_FLAG_STATES_TYPE = new TypeToken<AllFlagStates<Boolean>>() {
+    }.getType();
+
+    @Param({"1", "100", "10000"})
+    public int flagCount;
+
+    @Param({"0", "200"})
+    public int customAttributes;
+
+    private AllFlagStates<Boolean> allFlagStates;
+
+    private String allFlagStatesJson;
+
+    private VariationParams params;
+
+    private String paramsJson;
+
+    @Setup
+    public void setup() {
+        allFlagStates = Fixtures.allFlagStates(flagCount);
+        allFlagStatesJson = JsonHelper.serialize(allFlagStates);
+        params = Fixtures.variationParams(customAttributes);
+        paramsJson = JsonHelper.serialize(params);
+    }
+
+    @Benchmark
+    public String serializeAllFlagStates() {
+        return JsonHelper.serialize(allFlagStates);
+    }
+
+    @Benchmark
+    public AllFlagStates<Boolean> deserializeAllFlagStates() {
+        return JsonHelper.deserialize(allFlagStatesJson, ALL_FLAG_STATES_TYPE);
+    }
+
+    @Benchmark
+    public String serializeVariationParams() {
+        return JsonHelper.serialize(params);
+    }
+
+    @Benchmark
+    public VariationParams deserializeVariationParams() {
+        return JsonHelper.deserialize(paramsJson, VariationParams.class);
+    }
+}
@@ -0,0 +1,83 @@
+package co.featureflags.commons.benchmark;
+
+import co.featureflags.commons.json.JsonHelper;
+import co.featureflags.commons.json.JsonMetrics;
+import co.featureflags.commons.model.EvalDetail;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * measures the cost of the {@link JsonMetrics} hook on the (de)serialization of a single detail,
+ * the smallest payload, without hook and with a hook counting the calls and the bytes
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonMetricsBenchmark {
+
+    @Param({"noop", "counting"})
+    public String hook;
+
+    private EvalDetail<Boolean> detail;
+
+    private String json;
+
+    @Setup
+    public void setup() {
+        detail = Fixtures.detail(1);
+        json = detail.jsonfy();
+        if ("counting".equals(hook)) {
+            JsonHelper.setMetrics(new CountingMetrics());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        JsonHelper.setMetrics(JsonMetrics.NOOP);
+    }
+
+    @Benchmark
+    public String serialize() {
+        return JsonHelper.serialize(detail);
+    }
+
+    @Benchmark
+    public EvalDetail<Boolean> deserialize() {
+        return EvalDetail.fromJson(json, Boolean.class);
+    }
+
+    private static final class CountingMetrics implements JsonMetrics {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder size = new LongAdder();
+
+        @Override
+        public void onRead(Type type, long nanos, long size) {
+            this.count.increment();
+            this.nanos.add(nanos);
+            this.size.add(size);
+        }
+
+        @Override
+        public void onWrite(Type type, long nanos, long size) {
+            onRead(type, nanos, size);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package co.featureflags.commons.benchmark;
+
+import co.featureflags.commons.model.AllFlagStates;
+import co.featureflags.commons.model.EvalDetail;
+import co.featureflags.commons.model.LazyAllFlagStates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * compares a full decoding of {@link AllFlagStates} with a {@link LazyAllFlagStates}
+ * when only a few flags are read
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LazyAllFlagStatesBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int flagCount;
+
+    @Param({"5"})
+    public int readCount;
+
+    private String json;
+
+    private String[] keyNames;
+
+    @Setup
+    public void setup() {
+        json = Fixtures.allFlagStates(flagCount).jsonfy();
+        keyNames = new String[readCount];
+        for (int i = 0; i < readCount; i++) {
+            keyNames[i] = Fixtures.detail(i * flagCount / readCount).getKeyName();
+        }
+    }
+
+    @Benchmark
+    public void eager(Blackhole bh) {
+        AllFlagStates<Boolean> states = AllFlagStates.fromJson(json, Boolean.class);
+        for (String keyName : keyNames) {
+            EvalDetail<Boolean> detail = states.get(keyName);
+            bh.consume(detail);
+        }
+    }
+
+    @Benchmark
+    public void lazy(Blackhole bh) {
+        LazyAllFlagStates<Boolean> states = LazyAllFlagStates.fromJson(json, Boolean.class);
+        for (String keyName : keyNames) {
+            EvalDetail<Boolean> detail = states.get(keyName);
+            bh.consume(detail);
+        }
+    }
+}
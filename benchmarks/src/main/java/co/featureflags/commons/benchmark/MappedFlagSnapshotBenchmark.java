@@ -0,0 +1,86 @@
+package co.featureflags.commons.benchmark;
+
+import co.featureflags.commons.codec.MappedFlagSnapshot;
+import co.featureflags.commons.model.AllFlagStates;
+import co.featureflags.commons.model.EvalDetail;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * measures the startup of a process serving flags: the first flag read from a {@link MappedFlagSnapshot}
+ * or from the json of {@link AllFlagStates} saved in a file, and the following reads of a snapshot
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappedFlagSnapshotBenchmark {
+
+    @Param({"1000", "50000"})
+    public int flagCount;
+
+    private Path snapshotFile;
+
+    private Path jsonFile;
+
+    private String flagKeyName;
+
+    private String[] flagKeyNames;
+
+    private MappedFlagSnapshot<Boolean> snapshot;
+
+    @Setup
+    public void setup() throws IOException {
+        AllFlagStates<Boolean> allFlagStates = Fixtures.allFlagStates(flagCount);
+        snapshotFile = Files.createTempFile("flags", ".snapshot");
+        jsonFile = Files.createTempFile("flags", ".json");
+        MappedFlagSnapshot.write(allFlagStates, snapshotFile);
+        Files.write(jsonFile, allFlagStates.jsonfy().getBytes(StandardCharsets.UTF_8));
+        flagKeyNames = allFlagStates.getDetails().stream().map(EvalDetail::getKeyName).toArray(String[]::new);
+        flagKeyName = flagKeyNames[flagCount / 2];
+        snapshot = MappedFlagSnapshot.open(snapshotFile, Boolean.class);
+        System.out.printf("%n%d flags: snapshot %d bytes, json %d bytes%n", flagCount, Files.size(snapshotFile), Files.size(jsonFile));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(snapshotFile);
+        Files.deleteIfExists(jsonFile);
+    }
+
+    @Benchmark
+    public EvalDetail<Boolean> openSnapshotAndGet() throws IOException {
+        return MappedFlagSnapshot.open(snapshotFile, Boolean.class).get(flagKeyName);
+    }
+
+    @Benchmark
+    public EvalDetail<Boolean> parseJsonAndGet() throws IOException {
+        String json = new String(Files.readAllBytes(jsonFile), StandardCharsets.UTF_8);
+        return AllFlagStates.fromJson(json, Boolean.class).get(flagKeyName);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public EvalDetail<Boolean> snapshotGet() {
+        return snapshot.get(flagKeyNames[ThreadLocalRandom.current().nextInt(flagCount)]);
+    }
+}
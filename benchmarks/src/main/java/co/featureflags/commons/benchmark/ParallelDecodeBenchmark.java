@@ -0,0 +1,49 @@
+package co.featureflags.commons.benchmark;
+
+import co.featureflags.commons.model.AllFlagStates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * compares the sequential and the parallel decoding of large {@link AllFlagStates},
+ * the parallel decoding runs on the common pool and scales with the number of cores
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelDecodeBenchmark {
+
+    @Param({"10000", "50000"})
+    public int flagCount;
+
+    private String json;
+
+    @Setup
+    public void setup() {
+        json = Fixtures.allFlagStates(flagCount).jsonfy();
+    }
+
+    @Benchmark
+    public AllFlagStates<Boolean> sequential() {
+        return AllFlagStates.fromJson(json, Boolean.class);
+    }
+
+    @Benchmark
+    public AllFlagStates<Boolean> parallel() {
+        return AllFlagStates.fromJsonParallel(json, Boolean.class);
+    }
+}
@@ -0,0 +1,117 @@
+package co.featureflags.commons.benchmark;
+
+import co.featureflags.commons.model.FFCUser;
+import co.featureflags.commons.model.UserTag;
+import co.featureflags.commons.model.UserTagExtractor;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * measures the extraction of a user from a typical request, by {@link UserTagExtractor}
+ * or by splitting the cookies and the query string into maps and parsing the whole body first
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserTagExtractorBenchmark {
+
+    private List<UserTag> tags;
+
+    private UserTagExtractor extractor;
+
+    private Map<String, String> headers;
+
+    private String queryString;
+
+    private String body;
+
+    @Setup
+    public void setup() {
+        tags = Arrays.asList(
+                UserTag.of("X-User-Id", UserTag.HEADER, "KeyId"),
+                UserTag.of("user_name", UserTag.COOKIE, "Name"),
+                UserTag.of("email", UserTag.POST_BODY, "Email"),
+                UserTag.of("plan", UserTag.QUERY_STRING, "plan"),
+                UserTag.of("locale", UserTag.COOKIE, ""));
+        extractor = UserTagExtractor.of(tags);
+        headers = new HashMap<>();
+        headers.put("X-User-Id", "user-key-0001");
+        headers.put("Cookie", "_ga=GA1.2.1234567890.1234567890; session=8f14e45fceea167a5a36dedd4bea2543; "
+                + "user_name=benchmark%20user; theme=dark; locale=fr-FR; consent=analytics%2Cads");
+        queryString = "utm_source=newsletter&utm_medium=email&utm_campaign=spring%20sale&plan=pro&page=3&sort=desc";
+        StringBuilder sb = new StringBuilder("{\"email\":\"benchmark@featureflags.co\",\"items\":[");
+        for (int i = 0; i < 50; i++) {
+            sb.append(i == 0 ? "" : ",").append("{\"sku\":\"sku-").append(i).append("\",\"quantity\":").append(i).append('}');
+        }
+        body = sb.append("],\"comment\":\"a comment\"}").toString();
+    }
+
+    @Benchmark
+    public FFCUser extractor() {
+        return extractor.extract(headers::get, queryString, new StringReader(body));
+    }
+
+    /**
+     * the extraction done by an integration without {@link UserTagExtractor}
+     */
+    @Benchmark
+    public FFCUser splitAndParse() throws UnsupportedEncodingException {
+        Map<String, String> cookies = new HashMap<>();
+        for (String cookie : headers.get("Cookie").split(";")) {
+            String[] pair = cookie.trim().split("=", 2);
+            cookies.put(pair[0], pair.length > 1 ? pair[1] : "");
+        }
+        Map<String, String> parameters = new HashMap<>();
+        for (String parameter : queryString.split("&")) {
+            String[] pair = parameter.split("=", 2);
+            parameters.put(URLDecoder.decode(pair[0], "UTF-8"), pair.length > 1 ? URLDecoder.decode(pair[1], "UTF-8") : "");
+        }
+        JsonObject json = JsonParser.parseString(body).getAsJsonObject();
+        Map<UserTag, String> values = new HashMap<>();
+        for (UserTag tag : tags) {
+            String value = null;
+            switch (tag.getSource()) {
+                case UserTag.HEADER:
+                    value = headers.get(tag.getRequestProperty());
+                    break;
+                case UserTag.COOKIE:
+                    value = cookies.get(tag.getRequestProperty());
+                    break;
+                case UserTag.QUERY_STRING:
+                    value = parameters.get(tag.getRequestProperty());
+                    break;
+                case UserTag.POST_BODY:
+                    JsonElement element = json.get(tag.getRequestProperty());
+                    value = element == null ? null : element.getAsString();
+                    break;
+            }
+            if (value != null) {
+                values.put(tag, value);
+            }
+        }
+        return FFCUser.of(values);
+    }
+}
@@ -0,0 +1,68 @@
+package co.featureflags.commons.benchmark;
+
+import co.featureflags.commons.model.FFCUser;
+import co.featureflags.commons.model.UserTag;
+import co.featureflags.commons.model.UserTagPlan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * measures the build of a user from the values of the user tags of a request,
+ * with {@link FFCUser#of(Map)} or with a compiled {@link UserTagPlan}
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserTagPlanBenchmark {
+
+    private Map<UserTag, String> tagValues;
+
+    private UserTagPlan plan;
+
+    private String[] values;
+
+    @Setup
+    public void setup() {
+        List<UserTag> tags = Arrays.asList(
+                UserTag.of("X-User-Id", UserTag.HEADER, "KeyId"),
+                UserTag.of("user_name", UserTag.COOKIE, "Name"),
+                UserTag.of("email", UserTag.POST_BODY, "Email"),
+                UserTag.of("X-Country", UserTag.HEADER, "Country"),
+                UserTag.of("plan", UserTag.QUERY_STRING, "plan"),
+                UserTag.of("X-App-Version", UserTag.HEADER, "appVersion"),
+                UserTag.of("locale", UserTag.COOKIE, ""));
+        values = new String[]{"user-key-0001", "benchmark user", "benchmark@featureflags.co", "FR", "pro", "3.2.1", "fr-FR"};
+        tagValues = new HashMap<>();
+        for (int i = 0; i < tags.size(); i++) {
+            tagValues.put(tags.get(i), values[i]);
+        }
+        plan = UserTagPlan.compile(tags);
+    }
+
+    @Benchmark
+    public FFCUser ofMap() {
+        return FFCUser.of(tagValues);
+    }
+
+    @Benchmark
+    public FFCUser planMap() {
+        return plan.map(values);
+    }
+}
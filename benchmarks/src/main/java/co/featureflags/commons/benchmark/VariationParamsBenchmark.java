@@ -0,0 +1,51 @@
+package co.featureflags.commons.benchmark;
+
+import co.featureflags.commons.model.VariationParams;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * measures the json codec of {@link VariationParams} with a user having 0 to 200 custom attributes
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VariationParamsBenchmark {
+
+    @Param({"0", "20", "200"})
+    public int customAttributes;
+
+    private VariationParams params;
+
+    private String json;
+
+    @Setup
+    public void setup() {
+        params = Fixtures.variationParams(customAttributes);
+        json = params.jsonfy();
+    }
+
+    @Benchmark
+    public VariationParams fromJson() {
+        return VariationParams.fromJson(json);
+    }
+
+    @Benchmark
+    public String jsonfy() {
+        return params.jsonfy();
+    }
+}
@@ -0,0 +1,309 @@
+package co.featureflags.commons.cache;
+
+import co.featureflags.commons.model.EvalDetail;
+import co.featureflags.commons.model.FFCUser;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalListener;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+/**
+ * A concurrent cache of flag evaluation results, keyed by flag key name and user, bounded in size and time.
+ * <p>
+ * A user is identified by its key and its {@link FFCUser#fingerprint()}, so that the cache doesn't retain the users.
+ * A result is never served to a user of another key; the fingerprint is a 64-bit hash, not an identity, and 2 users
+ * of the same key with different attributes share their results in the unlikely case of a collision of their fingerprints.
+ * When flags change, the results are invalidated in O(1), without scanning the cache:
+ * by flag with {@link #invalidate(String)} or all at once with {@link #setDataVersion(long)}.
+ * The invalidated results are dropped lazily, at their next read or by the eviction.
+ * <p>
+ * The eviction is LRU, approximated per segment by the Guava cache: when the maximum size is reached, the least recently
+ * used results are evicted, whatever their frequency of use. There is no frequency-aware admission as W-TinyLFU,
+ * a scan of many users read once can evict the results of frequent users.
+ * <pre><code>
+ *     EvalDetailCache&lt;Boolean&gt; cache = new EvalDetailCache.Builder()
+ *               .maximumSize(100_000)
+ *               .expireAfterWrite(Duration.ofSeconds(30))
+ *               .build();
+ *     EvalDetail&lt;Boolean&gt; detail = cache.get(flagKeyName, user, evaluator::evaluate);
+ * </code></pre>
+ *
+ * @param <T> String/Boolean/Numeric Type
+ */
+public final class EvalDetailCache<T> {
+
+    private final Cache<Key, Entry<T>> cache;
+
+    private final ConcurrentMap<String, AtomicLong> flagGenerations = new ConcurrentHashMap<>();
+
+    private volatile long dataVersion;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder evaluationTime = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private EvalDetailCache(Builder builder) {
+        RemovalListener<Key, Entry<T>> listener = notification -> {
+            if (notification.wasEvicted()) {
+                evictions.increment();
+            }
+        };
+        CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder()
+                .maximumSize(builder.maximumSize)
+                .concurrencyLevel(builder.concurrencyLevel);
+        if (builder.expireAfterWrite != null) {
+            cacheBuilder.expireAfterWrite(builder.expireAfterWrite);
+        }
+        this.cache = cacheBuilder.removalListener(listener).build();
+    }
+
+    /**
+     * return the cached result of a flag for a user
+     *
+     * @param flagKeyName flag key name
+     * @param user        the user
+     * @return the result, or null if absent, expired or invalidated
+     */
+    public EvalDetail<T> get(String flagKeyName, FFCUser user) {
+        Key key = new Key(flagKeyName, user);
+        Entry<T> entry = cache.getIfPresent(key);
+        if (entry != null && isFresh(flagKeyName, entry)) {
+            hits.increment();
+            return entry.detail;
+        }
+        if (entry != null) {
+            cache.asMap().remove(key, entry);
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * return the cached result of a flag for a user, the flag is evaluated and the result cached if absent.
+     * the result is not cached if the flag or the data version is invalidated during the evaluation
+     *
+     * @param flagKeyName flag key name
+     * @param user        the user
+     * @param evaluator   evaluates a flag for a user, a null result is not cached
+     * @return the result
+     */
+    public EvalDetail<T> get(String flagKeyName, FFCUser user, BiFunction<String, FFCUser, EvalDetail<T>> evaluator) {
+        EvalDetail<T> detail = get(flagKeyName, user);
+        if (detail != null) {
+            return detail;
+        }
+        long version = dataVersion;
+        long generation = generation(flagKeyName);
+        long start = System.nanoTime();
+        detail = evaluator.apply(flagKeyName, user);
+        evaluationTime.add(System.nanoTime() - start);
+        evaluations.increment();
+        if (detail != null) {
+            cache.put(new Key(flagKeyName, user), new Entry<>(detail, version, generation));
+        }
+        return detail;
+    }
+
+    /**
+     * cache the result of a flag for a user, evaluated with the current flags
+     *
+     * @param flagKeyName flag key name
+     * @param user        the user
+     * @param detail      the result
+     */
+    public void put(String flagKeyName, FFCUser user, EvalDetail<T> detail) {
+        Preconditions.checkNotNull(detail, "detail should not be null");
+        cache.put(new Key(flagKeyName, user), new Entry<>(detail, dataVersion, generation(flagKeyName)));
+    }
+
+    /**
+     * invalidate the results of a flag for all the users, when the flag changes
+     *
+     * @param flagKeyName flag key name
+     */
+    public void invalidate(String flagKeyName) {
+        flagGenerations.computeIfAbsent(flagKeyName, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * set the version of the flag data, the results evaluated with an older version are invalidated.
+     * a version lower than the current one is ignored
+     *
+     * @param version a version that increases when the flags change, e.g. a timestamp
+     */
+    public synchronized void setDataVersion(long version) {
+        if (version > dataVersion) {
+            dataVersion = version;
+        }
+    }
+
+    /**
+     * return the version of the flag data
+     *
+     * @return the current version, 0 by default
+     */
+    public long getDataVersion() {
+        return dataVersion;
+    }
+
+    /**
+     * remove all the results
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * return the approximate number of results, including the invalidated ones not yet dropped
+     *
+     * @return a number of results
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * return the statistics of the cache: a read of an invalidated result is a miss,
+     * the loads are the evaluations done by {@link #get(String, FFCUser, BiFunction)}
+     *
+     * @return a snapshot of the statistics
+     */
+    public CacheStats stats() {
+        long evaluationCount = evaluations.sum();
+        return new CacheStats(hits.sum(), misses.sum(), evaluationCount, 0, evaluationTime.sum(), evictions.sum());
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("size", size())
+                .add("dataVersion", dataVersion)
+                .add("stats", stats())
+                .toString();
+    }
+
+    private long generation(String flagKeyName) {
+        AtomicLong generation = flagGenerations.get(flagKeyName);
+        return generation == null ? 0 : generation.get();
+    }
+
+    private boolean isFresh(String flagKeyName, Entry<T> entry) {
+        return entry.dataVersion == dataVersion && entry.flagGeneration == generation(flagKeyName);
+    }
+
+    static final class Key {
+        private final String flagKeyName;
+        private final String userKey;
+        private final long fingerprint;
+
+        Key(String flagKeyName, FFCUser user) {
+            this(flagKeyName, user.getKey(), user.fingerprint());
+        }
+
+        Key(String flagKeyName, String userKey, long fingerprint) {
+            this.flagKeyName = Preconditions.checkNotNull(flagKeyName, "flagKeyName should not be null");
+            this.userKey = userKey;
+            this.fingerprint = fingerprint;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return fingerprint == key.fingerprint && flagKeyName.equals(key.flagKeyName) && userKey.equals(key.userKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * flagKeyName.hashCode() + Long.hashCode(fingerprint);
+        }
+    }
+
+    private static final class Entry<T> {
+        private final EvalDetail<T> detail;
+        private final long dataVersion;
+        private final long flagGeneration;
+
+        Entry(EvalDetail<T> detail, long dataVersion, long flagGeneration) {
+            this.detail = detail;
+            this.dataVersion = dataVersion;
+            this.flagGeneration = flagGeneration;
+        }
+    }
+
+    /**
+     * A builder that helps construct EvalDetailCache objects. Builder calls can be chained, supporting the following pattern:
+     * <pre><code>
+     *     EvalDetailCache&lt;Boolean&gt; cache = new EvalDetailCache.Builder()
+     *               .maximumSize(100_000)
+     *               .expireAfterWrite(Duration.ofSeconds(30))
+     *               .build();
+     * </code></pre>
+     */
+    public static class Builder {
+        private long maximumSize = 10_000;
+
+        private Duration expireAfterWrite;
+
+        private int concurrencyLevel = 4;
+
+        /**
+         * set the maximum number of results, 10000 by default.
+         * when the size is reached, the least recently used results are evicted
+         *
+         * @param maximumSize a maximum number of results
+         * @return the builder
+         */
+        public Builder maximumSize(long maximumSize) {
+            Preconditions.checkArgument(maximumSize >= 0, "maximumSize should not be negative");
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * set the time after which a result expires, no expiration by default
+         *
+         * @param duration a duration
+         * @return the builder
+         */
+        public Builder expireAfterWrite(Duration duration) {
+            Preconditions.checkArgument(duration != null && !duration.isNegative(), "duration should not be negative");
+            this.expireAfterWrite = duration;
+            return this;
+        }
+
+        /**
+         * set the number of threads expected to update the cache concurrently, 4 by default
+         *
+         * @param concurrencyLevel a number of threads
+         * @return the builder
+         */
+        public Builder concurrencyLevel(int concurrencyLevel) {
+            Preconditions.checkArgument(concurrencyLevel > 0, "concurrencyLevel should be positive");
+            this.concurrencyLevel = concurrencyLevel;
+            return this;
+        }
+
+        /**
+         * Builds the configured EvalDetailCache object.
+         *
+         * @param <T> String/Boolean/Numeric Type
+         * @return an EvalDetailCache
+         */
+        public <T> EvalDetailCache<T> build() {
+            return new EvalDetailCache<>(this);
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package co.featureflags.commons.codec;
+
+import co.featureflags.commons.json.JsonHelper;
+import co.featureflags.commons.json.JsonParseException;
+import co.featureflags.commons.json.JsonProfile;
+import co.featureflags.commons.model.AllFlagStates;
+import co.featureflags.commons.model.AttributeType;
+import co.featureflags.commons.model.EvalDetail;
+import co.featureflags.commons.model.FFCUser;
+import co.featureflags.commons.model.FlagState;
+import co.featureflags.commons.model.Interning;
+import co.featureflags.commons.model.VariationParams;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.gson.reflect.TypeToken;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Map;
+
+/**
+ * a compact binary format of {@link EvalDetail}, {@link FlagState}, {@link AllFlagStates} and {@link VariationParams}
+ * <p>
+ * the data starts with the magic "FFC", a version byte and a byte of the object type.
+ * integers are LEB128 varints (zigzag for signed values), strings are UTF-8 prefixed by their length + 1 (0 for null),
+ * a flag value is prefixed by a tag of its type: null, false, true, string, integral number, double or json.
+ * a custom attribute of a user is followed by the ordinal of its {@link AttributeType}.
+ * <p>
+ * a decoded object is equal to the one decoded from the json of the same object, for example a number is decoded
+ * as a Double if the type of the flag value is unknown
+ */
+final class BinaryCodec implements Codec {
+
+    static final String CONTENT_TYPE = "application/x-ffc-binary";
+
+    private static final byte[] MAGIC = {'F', 'F', 'C'};
+
+    private static final int VERSION = 1;
+
+    private static final int EVAL_DETAIL = 1;
+    private static final int FLAG_STATE = 2;
+    private static final int ALL_FLAG_STATES = 3;
+    private static final int VARIATION_PARAMS = 4;
+
+    private static final int TAG_NULL = 0;
+    private static final int TAG_FALSE = 1;
+    private static final int TAG_TRUE = 2;
+    private static final int TAG_STRING = 3;
+    private static final int TAG_INTEGRAL = 4;
+    private static final int TAG_DOUBLE = 5;
+    private static final int TAG_JSON = 6;
+
+    private static final int SUCCESS = 1;
+    private static final int HAS_DATA = 2;
+
+    @Override
+    public String getContentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public byte[] encode(Object o) throws JsonParseException {
+        return write(o).toByteArray();
+    }
+
+    @Override
+    public void encode(Object o, OutputStream out) throws JsonParseException {
+        BinaryOutput output = write(o);
+        try {
+            out.write(output.buffer(), 0, output.size());
+            out.flush();
+        } catch (IOException e) {
+            throw new JsonParseException("Failed to write Data", e);
+        }
+    }
+
+    @Override
+    public <T> T decode(byte[] data, Type type) throws JsonParseException {
+        Preconditions.checkNotNull(data, "data should not be null");
+        Class<?> rawType = TypeToken.get(type).getRawType();
+        VariationReader variationReader = new VariationReader(variationType(type));
+        BinaryInput in = new BinaryInput(data);
+        try {
+            Object o = read(in, rawType, variationReader);
+            if (in.hasRemaining()) {
+                throw in.malformed("end of data expected");
+            }
+            @SuppressWarnings("unchecked")
+            T result = (T) o;
+            return result;
+        } catch (JsonParseException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new JsonParseException("Received Data invalid", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return CONTENT_TYPE;
+    }
+
+    private static BinaryOutput write(Object o) {
+        Preconditions.checkNotNull(o, "object should not be null");
+        BinaryOutput out = new BinaryOutput(256);
+        out.writeByte(MAGIC[0]);
+        out.writeByte(MAGIC[1]);
+        out.writeByte(MAGIC[2]);
+        out.writeByte(VERSION);
+        if (o instanceof EvalDetail) {
+            out.writeByte(EVAL_DETAIL);
+            writeDetail((EvalDetail<?>) o, out);
+        } else if (o instanceof FlagState) {
+            FlagState<?> flagState = (FlagState<?>) o;
+            out.writeByte(FLAG_STATE);
+            out.writeByte((flagState.isSuccess() ? SUCCESS : 0) | (flagState.getData() != null ? HAS_DATA : 0));
+            out.writeString(flagState.getMessage());
+            if (flagState.getData() != null) {
+                writeDetail(flagState.getData(), out);
+            }
+        } else if (o instanceof AllFlagStates) {
+            AllFlagStates<?> allFlagStates = (AllFlagStates<?>) o;
+            out.writeByte(ALL_FLAG_STATES);
+            out.writeByte(allFlagStates.isSuccess() ? SUCCESS : 0);
+            out.writeString(allFlagStates.getMessage());
+            out.writeVarint(allFlagStates.getDetails().size());
+            for (EvalDetail<?> detail : allFlagStates.getDetails()) {
+                writeDetail(detail, out);
+            }
+        } else if (o instanceof VariationParams) {
+            VariationParams params = (VariationParams) o;
+            FFCUser user = params.getUser();
+            out.writeByte(VARIATION_PARAMS);
+            out.writeString(params.getFeatureFlagKeyName());
+            out.writeString(user.getKey());
+            // as in the json of VariationParams, the user name, the email and the country are sent only with a user name
+            boolean named = StringUtils.isNotBlank(user.getUserName());
+            out.writeString(named ? user.getUserName() : null);
+            out.writeString(named ? user.getEmail() : null);
+            out.writeString(named ? user.getCountry() : null);
+            out.writeVarint(user.getCustom().size());
+            for (Map.Entry<String, String> entry : user.getCustom().entrySet()) {
+                out.writeString(entry.getKey());
+                out.writeString(entry.getValue());
+                out.writeByte(user.getCustomType(entry.getKey()).ordinal());
+            }
+        } else {
+            throw new JsonParseException("Unsupported type: " + o.getClass().getName());
+        }
+        return out;
+    }
+
+    static void writeDetail(EvalDetail<?> detail, BinaryOutput out) {
+        out.writeString(detail.getKeyName());
+        out.writeString(detail.getName());
+        out.writeString(detail.getReason());
+        out.writeSignedVarint(detail.getId());
+        writeVariation(detail.getVariation(), out);
+    }
+
+    private static void writeVariation(Object variation, BinaryOutput out) {
+        if (variation == null) {
+            out.writeByte(TAG_NULL);
+        } else if (variation instanceof Boolean) {
+            out.writeByte((Boolean) variation ? TAG_TRUE : TAG_FALSE);
+        } else if (variation instanceof String) {
+            out.writeByte(TAG_STRING);
+            out.writeString((String) variation);
+        } else if (variation instanceof Long || variation instanceof Integer
+                || variation instanceof Short || variation instanceof Byte) {
+            out.writeByte(TAG_INTEGRAL);
+            out.writeSignedVarint(((Number) variation).longValue());
+        } else if (variation instanceof Double) {
+            out.writeByte(TAG_DOUBLE);
+            out.writeDouble((Double) variation);
+        } else {
+            // other numbers keep their exact json text, e.g. a BigDecimal
+            out.writeByte(TAG_JSON);
+            out.writeString(JsonHelper.serialize(variation, JsonProfile.COMPACT));
+        }
+    }
+
+    private static Object read(BinaryInput in, Class<?> rawType, VariationReader variationReader) {
+        for (byte b : MAGIC) {
+            if (in.readByte() != b) {
+                throw in.malformed("not a ffc binary data");
+            }
+        }
+        int version = in.readByte();
+        if (version != VERSION) {
+            throw in.malformed("unsupported version " + version);
+        }
+        int kind = in.readByte();
+        switch (kind) {
+            case EVAL_DETAIL:
+                checkType(in, rawType, EvalDetail.class);
+                return readDetail(in, variationReader);
+            case FLAG_STATE: {
+                checkType(in, rawType, FlagState.class);
+                int flags = in.readByte();
+                String message = in.readString();
+                EvalDetail<Object> data = (flags & HAS_DATA) != 0 ? readDetail(in, variationReader) : null;
+                return FlagState.of((flags & SUCCESS) != 0, message, data);
+            }
+            case ALL_FLAG_STATES: {
+                checkType(in, rawType, AllFlagStates.class);
+                boolean success = (in.readByte() & SUCCESS) != 0;
+                String message = in.readString();
+                int count = in.readInt();
+                ImmutableList.Builder<EvalDetail<Object>> data = ImmutableList.builderWithExpectedSize(Math.min(count, 1024));
+                for (int i = 0; i < count; i++) {
+                    data.add(readDetail(in, variationReader));
+                }
+                return AllFlagStates.of(success, message, data.build());
+            }
+            case VARIATION_PARAMS: {
+                checkType(in, rawType, VariationParams.class);
+                String featureFlagKeyName = in.readString();
+                FFCUser.Builder builder = new FFCUser.Builder(in.readString())
+                        .userName(in.readString())
+                        .email(in.readString())
+                        .country(in.readString());
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    String name = in.readString();
+                    String value = in.readString();
+                    AttributeType type = readAttributeType(in);
+                    builder.custom(name, value, type);
+                }
+                try {
+                    return VariationParams.of(featureFlagKeyName, builder.build());
+                } catch (IllegalArgumentException e) {
+                    throw in.malformed("invalid custom attribute: " + e.getMessage());
+                }
+            }
+            default:
+                throw in.malformed("unknown object type " + kind);
+        }
+    }
+
+    private static AttributeType readAttributeType(BinaryInput in) {
+        int ordinal = in.readByte();
+        if (ordinal >= AttributeType.values().length) {
+            throw in.malformed("unknown attribute type " + ordinal);
+        }
+        return AttributeType.values()[ordinal];
+    }
+
+    private static void checkType(BinaryInput in, Class<?> rawType, Class<?> encodedType) {
+        if (!rawType.isAssignableFrom(encodedType)) {
+            throw in.malformed(encodedType.getSimpleName() + " can't be decoded to " + rawType.getName());
+        }
+    }
+
+    static EvalDetail<Object> readDetail(BinaryInput in, VariationReader variationReader) {
+        String keyName = Interning.intern(in.readString());
+        String name = Interning.intern(in.readString());
+        String reason = Interning.intern(in.readString());
+        long id = in.readSignedVarint();
+        if (id < Integer.MIN_VALUE || id > Integer.MAX_VALUE) {
+            throw in.malformed("id out of range");
+        }
+        return Interning.intern(EvalDetail.of(variationReader.read(in), (int) id, reason, keyName, name));
+    }
+
+    private static Type variationType(Type type) {
+        if (type instanceof ParameterizedType) {
+            Type argument = ((ParameterizedType) type).getActualTypeArguments()[0];
+            if (argument instanceof Class || argument instanceof ParameterizedType) {
+                return argument;
+            }
+        }
+        return Object.class;
+    }
+
+    /**
+     * reads a flag value as gson reads its json to the type of the flag value
+     */
+    static final class VariationReader {
+        private final Type type;
+        private final Class<?> rawType;
+
+        VariationReader(Type type) {
+            this.type = type;
+            this.rawType = TypeToken.get(type).getRawType();
+        }
+
+        Object read(BinaryInput in) {
+            int tag = in.readByte();
+            switch (tag) {
+                case TAG_NULL:
+                    return null;
+                case TAG_FALSE:
+                case TAG_TRUE: {
+                    Boolean b = tag == TAG_TRUE;
+                    return rawType == Object.class || rawType == Boolean.class ? b : fromJson(b.toString());
+                }
+                case TAG_STRING: {
+                    String s = in.readString();
+                    return rawType == Object.class || rawType == String.class ? s : fromJson(JsonHelper.serialize(s, JsonProfile.COMPACT));
+                }
+                case TAG_INTEGRAL: {
+                    long l = in.readSignedVarint();
+                    if (rawType == Object.class || rawType == Double.class) {
+                        return (double) l;
+                    }
+                    if (rawType == Long.class) {
+                        return l;
+                    }
+                    return rawType == String.class ? Long.toString(l) : fromJson(Long.toString(l));
+                }
+                case TAG_DOUBLE: {
+                    double d = in.readDouble();
+                    if (rawType == Object.class || rawType == Double.class) {
+                        return d;
+                    }
+                    return rawType == String.class ? Double.toString(d) : fromJson(Double.toString(d));
+                }
+                case TAG_JSON:
+                    return fromJson(in.readString());
+                default:
+                    throw in.malformed("unknown flag value type " + tag);
+            }
+        }
+
+        private Object fromJson(String json) {
+            return JsonHelper.deserialize(json, type);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package co.featureflags.commons.codec;
+
+import co.featureflags.commons.json.JsonParseException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * reads the primitives written by {@link BinaryOutput}, a truncated or corrupted input raises a {@link JsonParseException}
+ */
+final class BinaryInput {
+
+    private final byte[] buffer;
+
+    private final int limit;
+
+    private int position;
+
+    BinaryInput(byte[] buffer) {
+        this.buffer = buffer;
+        this.limit = buffer.length;
+    }
+
+    int readByte() {
+        require(1);
+        return buffer[position++] & 0xFF;
+    }
+
+    long readVarint() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw malformed("varint too long");
+    }
+
+    int readInt() {
+        long value = readVarint();
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw malformed("length out of range");
+        }
+        return (int) value;
+    }
+
+    long readSignedVarint() {
+        long value = readVarint();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    double readDouble() {
+        require(8);
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits |= (buffer[position++] & 0xFFL) << (i * 8);
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    String readString() {
+        int length = readInt();
+        if (length == 0) {
+            return null;
+        }
+        length--;
+        require(length);
+        String s = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return s;
+    }
+
+    boolean hasRemaining() {
+        return position < limit;
+    }
+
+    JsonParseException malformed(String message) {
+        return new JsonParseException("Malformed binary data at position " + position + ": " + message);
+    }
+
+    private void require(int n) {
+        if (n > limit - position) {
+            throw malformed("unexpected end of data");
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package co.featureflags.commons.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * a growable byte buffer with the primitives of the binary format:
+ * unsigned LEB128 varints, zigzag varints for signed values and length-prefixed UTF-8 strings
+ */
+final class BinaryOutput {
+
+    private byte[] buffer;
+
+    private int size;
+
+    BinaryOutput(int capacity) {
+        this.buffer = new byte[Math.max(capacity, 16)];
+    }
+
+    void writeByte(int b) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) b;
+    }
+
+    void writeVarint(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+    }
+
+    void writeSignedVarint(long value) {
+        writeVarint((value << 1) ^ (value >> 63));
+    }
+
+    void writeDouble(double value) {
+        ensureCapacity(8);
+        long bits = Double.doubleToLongBits(value);
+        for (int i = 0; i < 8; i++) {
+            buffer[size++] = (byte) (bits >>> (i * 8));
+        }
+    }
+
+    /**
+     * write the UTF-8 length + 1 and the bytes of a string, a null string is written as 0
+     */
+    void writeString(String s) {
+        if (s == null) {
+            writeVarint(0);
+            return;
+        }
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+            if (s.charAt(i) >= 0x80) {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                writeVarint(bytes.length + 1L);
+                ensureCapacity(bytes.length);
+                System.arraycopy(bytes, 0, buffer, size, bytes.length);
+                size += bytes.length;
+                return;
+            }
+        }
+        // ascii: the chars are the bytes
+        writeVarint(length + 1L);
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            buffer[size++] = (byte) s.charAt(i);
+        }
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    byte[] buffer() {
+        return buffer;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void ensureCapacity(int n) {
+        if (size + n > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + n));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package co.featureflags.commons.codec;
+
+import co.featureflags.commons.json.JsonParseException;
+
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+/**
+ * a wire format of the ffc objects, the available codecs are in {@link Codecs}
+ */
+public interface Codec {
+
+    /**
+     * return the media type of the format, used in the Content-Type and Accept headers
+     *
+     * @return a media type
+     */
+    String getContentType();
+
+    /**
+     * encode a ffc object
+     *
+     * @param o a ffc object
+     * @return the encoded bytes
+     * @throws JsonParseException if the object can't be encoded
+     */
+    byte[] encode(Object o) throws JsonParseException;
+
+    /**
+     * encode a ffc object to an output stream
+     *
+     * @param o   a ffc object
+     * @param out an output stream, flushed but not closed by this method
+     * @throws JsonParseException if the object can't be encoded or written
+     */
+    void encode(Object o, OutputStream out) throws JsonParseException;
+
+    /**
+     * decode a ffc object
+     *
+     * @param data the encoded bytes
+     * @param type the type of the ffc object, e.g. {@code new TypeToken<AllFlagStates<Boolean>>(){}.getType()}
+     * @param <T>  the type of the ffc object
+     * @return a ffc object
+     * @throws JsonParseException if the bytes are not a valid ffc object
+     */
+    <T> T decode(byte[] data, Type type) throws JsonParseException;
+
+    /**
+     * decode a ffc object
+     *
+     * @param data        the encoded bytes
+     * @param objectClass the class of the ffc object
+     * @param <T>         the type of the ffc object
+     * @return a ffc object
+     * @throws JsonParseException if the bytes are not a valid ffc object
+     */
+    default <T> T decode(byte[] data, Class<T> objectClass) throws JsonParseException {
+        return decode(data, (Type) objectClass);
+    }
+}
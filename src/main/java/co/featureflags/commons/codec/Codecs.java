@@ -0,0 +1,97 @@
+package co.featureflags.commons.codec;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * the available codecs of the ffc objects and the negotiation of a codec between a client and a server:
+ * the client sends the content types it accepts in the Accept header, the server answers with the chosen one
+ * in the Content-Type header, which the client uses to decode the response
+ */
+public abstract class Codecs {
+
+    /**
+     * the json format of {@link co.featureflags.commons.json.JsonHelper}, the default one
+     */
+    public static final Codec JSON = new JsonCodec();
+
+    /**
+     * the compact binary format
+     */
+    public static final Codec BINARY = new BinaryCodec();
+
+    /**
+     * the Accept header of a client supporting all the codecs, the binary format being preferred
+     */
+    public static final String ACCEPT_ALL = BinaryCodec.CONTENT_TYPE + ", " + JsonCodec.CONTENT_TYPE + ";q=0.9";
+
+    private Codecs() {
+        super();
+    }
+
+    /**
+     * return the codec of a Content-Type header
+     *
+     * @param contentType a content type, parameters like charset are ignored
+     * @return a codec, {@link #JSON} if the content type is blank, or null if the content type is not supported
+     */
+    public static Codec forContentType(String contentType) {
+        if (StringUtils.isBlank(contentType)) {
+            return JSON;
+        }
+        return byMediaType(mediaType(contentType));
+    }
+
+    /**
+     * choose the codec of a response from the Accept header of a request:
+     * the supported media type having the highest quality, the first one if equal
+     *
+     * @param accept an Accept header, e.g. {@link #ACCEPT_ALL}
+     * @return a codec, {@link #JSON} if the header is blank or accepts no supported media type
+     */
+    public static Codec negotiate(String accept) {
+        if (StringUtils.isBlank(accept)) {
+            return JSON;
+        }
+        Codec chosen = null;
+        double chosenQuality = 0;
+        for (String range : StringUtils.split(accept, ',')) {
+            String mediaType = mediaType(range);
+            Codec codec = "*/*".equals(mediaType) || "application/*".equals(mediaType) ? JSON : byMediaType(mediaType);
+            double quality = quality(range);
+            if (codec != null && quality > chosenQuality) {
+                chosen = codec;
+                chosenQuality = quality;
+            }
+        }
+        return chosen == null ? JSON : chosen;
+    }
+
+    private static Codec byMediaType(String mediaType) {
+        if (JsonCodec.CONTENT_TYPE.equals(mediaType)) {
+            return JSON;
+        }
+        if (BinaryCodec.CONTENT_TYPE.equals(mediaType)) {
+            return BINARY;
+        }
+        return null;
+    }
+
+    private static String mediaType(String range) {
+        int end = range.indexOf(';');
+        return (end < 0 ? range : range.substring(0, end)).trim().toLowerCase();
+    }
+
+    private static double quality(String range) {
+        for (String parameter : StringUtils.split(range, ';')) {
+            String p = parameter.trim();
+            if (p.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(p.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,44 @@
+package co.featureflags.commons.codec;
+
+import co.featureflags.commons.json.JsonHelper;
+import co.featureflags.commons.json.JsonParseException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * the UTF-8 json format of {@link JsonHelper}, written with the default json profile
+ */
+final class JsonCodec implements Codec {
+
+    static final String CONTENT_TYPE = "application/json";
+
+    @Override
+    public String getContentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public byte[] encode(Object o) throws JsonParseException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonHelper.serialize(o, out);
+        return out.toByteArray();
+    }
+
+    @Override
+    public void encode(Object o, OutputStream out) throws JsonParseException {
+        JsonHelper.serialize(o, out);
+    }
+
+    @Override
+    public <T> T decode(byte[] data, Type type) throws JsonParseException {
+        return JsonHelper.deserialize(new String(data, StandardCharsets.UTF_8), type);
+    }
+
+    @Override
+    public String toString() {
+        return CONTENT_TYPE;
+    }
+}
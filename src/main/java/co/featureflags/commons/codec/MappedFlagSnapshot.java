@@ -0,0 +1,294 @@
+package co.featureflags.commons.codec;
+
+import co.featureflags.commons.json.JsonParseException;
+import co.featureflags.commons.model.AllFlagStates;
+import co.featureflags.commons.model.EvalDetail;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * a snapshot of {@link AllFlagStates} persisted in a file, read back through a memory-mapped buffer,
+ * so that a process can serve the flags at startup before fetching them.
+ * <p>
+ * the file is versioned and checksummed. It holds the flags in the binary format of {@link Codecs#BINARY}
+ * and an index sorted by the hash of the key names: {@link #get(String)} reads only the flag it looks for,
+ * the other flags are never decoded.
+ * <pre><code>
+ *     MappedFlagSnapshot.write(allFlagStates, path);
+ *     // at startup
+ *     MappedFlagSnapshot&lt;Boolean&gt; snapshot = MappedFlagSnapshot.open(path, Boolean.class);
+ *     EvalDetail&lt;Boolean&gt; detail = snapshot.get(flagKeyName);
+ * </code></pre>
+ * the file is replaced atomically by {@link #write(AllFlagStates, Path)}, a snapshot opened before keeps reading the old file.
+ * A snapshot is immutable and thread safe, the mapping is released when the snapshot is garbage collected.
+ *
+ * @param <T> String/Boolean/Numeric Type
+ */
+public final class MappedFlagSnapshot<T> {
+
+    private static final byte[] MAGIC = {'F', 'F', 'C', 'S'};
+
+    private static final int VERSION = 1;
+
+    private static final int SUCCESS = 1;
+
+    // magic(4), version(1), flags(1), reserved(2), count(4), index offset(4), records offset(4), crc32(4), file size(8)
+    private static final int HEADER_SIZE = 32;
+
+    // hash of the key name(4), record offset(4), record length(4)
+    private static final int INDEX_ENTRY_SIZE = 12;
+
+    private final ByteBuffer buffer;
+
+    private final boolean success;
+
+    private final String message;
+
+    private final int count;
+
+    private final int indexOffset;
+
+    private final int recordsOffset;
+
+    private final BinaryCodec.VariationReader variationReader;
+
+    private MappedFlagSnapshot(ByteBuffer buffer, Type variationType) {
+        this.buffer = buffer;
+        this.variationReader = new BinaryCodec.VariationReader(variationType);
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (buffer.get(i) != MAGIC[i]) {
+                throw malformed("not a flag snapshot");
+            }
+        }
+        int version = buffer.get(4);
+        if (version != VERSION) {
+            throw malformed("unsupported version " + version);
+        }
+        if (buffer.getLong(24) != buffer.capacity()) {
+            throw malformed("truncated file");
+        }
+        CRC32 crc = new CRC32();
+        ByteBuffer payload = buffer.duplicate();
+        ((Buffer) payload).position(HEADER_SIZE);
+        crc.update(payload);
+        if ((int) crc.getValue() != buffer.getInt(20)) {
+            throw malformed("checksum mismatch");
+        }
+        this.success = (buffer.get(5) & SUCCESS) != 0;
+        this.count = buffer.getInt(8);
+        this.indexOffset = buffer.getInt(12);
+        this.recordsOffset = buffer.getInt(16);
+        if (count < 0 || indexOffset < HEADER_SIZE || recordsOffset != indexOffset + (long) count * INDEX_ENTRY_SIZE
+                || recordsOffset > buffer.capacity()) {
+            throw malformed("invalid layout");
+        }
+        this.message = input(HEADER_SIZE, indexOffset - HEADER_SIZE).readString();
+    }
+
+    /**
+     * write a snapshot of flags to a file, the file is replaced atomically if the file system supports it
+     *
+     * @param allFlagStates the flags
+     * @param file          the snapshot file
+     * @throws IOException if the file can't be written
+     */
+    public static void write(AllFlagStates<?> allFlagStates, Path file) throws IOException {
+        Preconditions.checkNotNull(allFlagStates, "allFlagStates should not be null");
+        List<? extends EvalDetail<?>> details = allFlagStates.getDetails();
+        int count = details.size();
+        BinaryOutput message = new BinaryOutput(64);
+        message.writeString(allFlagStates.getMessage());
+        BinaryOutput records = new BinaryOutput(count * 64);
+        long[] entries = new long[count];
+        int[] offsets = new int[count + 1];
+        for (int i = 0; i < count; i++) {
+            EvalDetail<?> detail = details.get(i);
+            offsets[i] = records.size();
+            BinaryCodec.writeDetail(detail, records);
+            // sorted by hash, then by position
+            entries[i] = ((long) detail.getKeyName().hashCode() << 32) | i;
+        }
+        offsets[count] = records.size();
+        Arrays.sort(entries);
+
+        int indexOffset = HEADER_SIZE + message.size();
+        int recordsOffset = indexOffset + count * INDEX_ENTRY_SIZE;
+        ByteBuffer out = ByteBuffer.allocate(recordsOffset + records.size());
+        out.put(MAGIC).put((byte) VERSION).put((byte) (allFlagStates.isSuccess() ? SUCCESS : 0)).putShort((short) 0)
+                .putInt(count).putInt(indexOffset).putInt(recordsOffset).putInt(0).putLong(out.capacity());
+        out.put(message.buffer(), 0, message.size());
+        for (long entry : entries) {
+            int i = (int) entry;
+            out.putInt((int) (entry >> 32)).putInt(offsets[i]).putInt(offsets[i + 1] - offsets[i]);
+        }
+        out.put(records.buffer(), 0, records.size());
+        CRC32 crc = new CRC32();
+        crc.update(out.array(), HEADER_SIZE, out.capacity() - HEADER_SIZE);
+        out.putInt(20, (int) crc.getValue());
+        ((Buffer) out).flip();
+
+        Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (out.hasRemaining()) {
+                    channel.write(out);
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * map a snapshot file in memory, the file is checked but no flag is decoded
+     *
+     * @param file the snapshot file
+     * @param cls  type of the flag values
+     * @param <T>  String/Boolean/Numeric Type
+     * @return a MappedFlagSnapshot
+     * @throws IOException        if the file can't be read
+     * @throws JsonParseException if the file is not a valid snapshot
+     */
+    public static <T> MappedFlagSnapshot<T> open(Path file, Class<T> cls) throws IOException, JsonParseException {
+        Preconditions.checkNotNull(cls, "cls should not be null");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new JsonParseException("Malformed flag snapshot: invalid size " + size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return new MappedFlagSnapshot<>(buffer, cls);
+        }
+    }
+
+    /**
+     * return the flag of a key name, only this flag is decoded
+     *
+     * @param keyName flag key name
+     * @return the flag value with all the details, or null if absent
+     * @throws JsonParseException if the flag can't be decoded
+     */
+    @SuppressWarnings("unchecked")
+    public EvalDetail<T> get(String keyName) throws JsonParseException {
+        if (keyName == null) {
+            return null;
+        }
+        int hash = keyName.hashCode();
+        // the first entry of the hash
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (buffer.getInt(indexOffset + mid * INDEX_ENTRY_SIZE) < hash) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int i = low; i < count; i++) {
+            int entry = indexOffset + i * INDEX_ENTRY_SIZE;
+            if (buffer.getInt(entry) != hash) {
+                break;
+            }
+            byte[] record = bytes(recordsOffset + buffer.getInt(entry + 4), buffer.getInt(entry + 8));
+            // the record starts with the key name
+            if (keyName.equals(new BinaryInput(record).readString())) {
+                return (EvalDetail<T>) BinaryCodec.readDetail(new BinaryInput(record), variationReader);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * decode all the flags, in the order they were written
+     *
+     * @return an AllFlagStates equal to the one written
+     * @throws JsonParseException if a flag can't be decoded
+     */
+    @SuppressWarnings("unchecked")
+    public AllFlagStates<T> toAllFlagStates() throws JsonParseException {
+        BinaryInput in = input(recordsOffset, buffer.capacity() - recordsOffset);
+        ImmutableList.Builder<EvalDetail<T>> details = ImmutableList.builderWithExpectedSize(count);
+        for (int i = 0; i < count; i++) {
+            details.add((EvalDetail<T>) BinaryCodec.readDetail(in, variationReader));
+        }
+        return AllFlagStates.of(success, message, details.build());
+    }
+
+    /**
+     * return the number of flags
+     *
+     * @return a number of flags
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * if the flags written were successfully evaluated
+     *
+     * @return the success of the {@link AllFlagStates} written
+     */
+    public boolean isSuccess() {
+        return success;
+    }
+
+    /**
+     * return the message of the {@link AllFlagStates} written
+     *
+     * @return a string
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("size", count)
+                .add("success", success)
+                .add("message", message)
+                .toString();
+    }
+
+    private BinaryInput input(int offset, int length) {
+        return new BinaryInput(bytes(offset, length));
+    }
+
+    private byte[] bytes(int offset, int length) {
+        if (offset < 0 || length < 0 || offset > buffer.capacity() - length) {
+            throw malformed("record out of bounds");
+        }
+        byte[] bytes = new byte[length];
+        ByteBuffer view = buffer.duplicate();
+        ((Buffer) view).position(offset);
+        view.get(bytes);
+        return bytes;
+    }
+
+    private static JsonParseException malformed(String message) {
+        return new JsonParseException("Malformed flag snapshot: " + message);
+    }
+}
@@ -0,0 +1,272 @@
+package co.featureflags.commons.json;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * serialize or deserialize ffc objects on an {@link Executor}, so that a large payload never blocks the calling thread,
+ * e.g. an event loop thread of Netty.
+ * <p>
+ * The number of tasks submitted and not completed is bounded: when the limit is reached, the returned future fails
+ * immediately with a {@link RejectedExecutionException} rather than blocking the caller or queueing without limit.
+ * A failed (de)serialization completes the future with a {@link JsonParseException}.
+ * <pre><code>
+ *     AsyncJsonHelper async = new AsyncJsonHelper.Builder()
+ *               .executor(AsyncJsonHelper.defaultExecutor())
+ *               .maxConcurrentTasks(64)
+ *               .build();
+ *     AllFlagStates.fromJsonAsync(json, Boolean.class, async).thenAccept(states -&gt; ...);
+ * </code></pre>
+ * The executor is not owned by this class, it's never shut down.
+ */
+public final class AsyncJsonHelper {
+
+    // null if the JVM can't start virtual threads
+    private static final ExecutorService VIRTUAL_THREAD_EXECUTOR = createVirtualThreadExecutor();
+
+    // a daemon executor, virtual threads are always daemon threads
+    private static final Executor DEFAULT_EXECUTOR = VIRTUAL_THREAD_EXECUTOR != null ? VIRTUAL_THREAD_EXECUTOR : ForkJoinPool.commonPool();
+
+    private final Executor executor;
+
+    private final Semaphore permits;
+
+    private final int maxConcurrentTasks;
+
+    private AsyncJsonHelper(Builder builder) {
+        this.executor = builder.executor;
+        this.maxConcurrentTasks = builder.maxConcurrentTasks;
+        this.permits = new Semaphore(builder.maxConcurrentTasks);
+    }
+
+    /**
+     * return true if the JVM supports the virtual threads(java 21+, or java 19/20 with --enable-preview)
+     *
+     * @return true if {@link #newVirtualThreadExecutor()} can be called
+     */
+    public static boolean isVirtualThreadSupported() {
+        return VIRTUAL_THREAD_EXECUTOR != null;
+    }
+
+    /**
+     * create an executor starting a new virtual thread for each task, it should be shut down by the caller
+     *
+     * @return an executor service
+     * @throws UnsupportedOperationException if the JVM doesn't support the virtual threads
+     */
+    public static ExecutorService newVirtualThreadExecutor() {
+        ExecutorService executor = isVirtualThreadSupported() ? createVirtualThreadExecutor() : null;
+        if (executor == null) {
+            throw new UnsupportedOperationException("virtual threads are not supported by this JVM");
+        }
+        return executor;
+    }
+
+    /**
+     * return the executor used if none is given to the {@link Builder}: a shared virtual thread executor if the JVM
+     * supports the virtual threads, the {@link ForkJoinPool#commonPool()} otherwise
+     *
+     * @return an executor
+     */
+    public static Executor defaultExecutor() {
+        return DEFAULT_EXECUTOR;
+    }
+
+    /**
+     * deserialize a json on the executor
+     *
+     * @param json a json string
+     * @param type the type of the object
+     * @param <T>  the type of the object
+     * @return a future of the object
+     */
+    public <T> CompletableFuture<T> deserialize(String json, Type type) {
+        return submit(() -> JsonHelper.deserialize(json, type));
+    }
+
+    /**
+     * deserialize a compressed UTF-8 json read from an input stream on the executor
+     *
+     * @param in          an input stream, not closed by this method
+     * @param type        the type of the object
+     * @param compression the compression of the json
+     * @param <T>         the type of the object
+     * @return a future of the object
+     */
+    public <T> CompletableFuture<T> deserialize(InputStream in, Type type, Compression compression) {
+        Preconditions.checkNotNull(compression, "compression should not be null");
+        return submit(() -> JsonHelper.deserialize(in, type, compression));
+    }
+
+    /**
+     * serialize an object to a json string on the executor with the default profile
+     *
+     * @param o the object
+     * @return a future of the json string
+     */
+    public CompletableFuture<String> serialize(Object o) {
+        return submit(() -> JsonHelper.serialize(o));
+    }
+
+    /**
+     * serialize an object to a json string on the executor with a given profile
+     *
+     * @param o       the object
+     * @param profile json profile
+     * @return a future of the json string
+     */
+    public CompletableFuture<String> serialize(Object o, JsonProfile profile) {
+        Preconditions.checkNotNull(profile, "profile should not be null");
+        return submit(() -> JsonHelper.serialize(o, profile));
+    }
+
+    /**
+     * write an object as compressed UTF-8 json to an output stream on the executor with the default profile
+     *
+     * @param o           the object
+     * @param out         an output stream, flushed but not closed by this method
+     * @param compression the compression of the json
+     * @return a future completed when the json is written
+     */
+    public CompletableFuture<Void> serialize(Object o, OutputStream out, Compression compression) {
+        Preconditions.checkNotNull(compression, "compression should not be null");
+        return submit(() -> {
+            JsonHelper.serialize(o, out, compression);
+            return null;
+        });
+    }
+
+    /**
+     * return the maximum number of tasks submitted and not completed
+     *
+     * @return the limit given to the {@link Builder}
+     */
+    public int getMaxConcurrentTasks() {
+        return maxConcurrentTasks;
+    }
+
+    /**
+     * return the number of tasks submitted and not completed
+     *
+     * @return a number between 0 and {@link #getMaxConcurrentTasks()}
+     */
+    public int getPendingTasks() {
+        return maxConcurrentTasks - permits.availablePermits();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (!permits.tryAcquire()) {
+            future.completeExceptionally(new RejectedExecutionException("too many pending json tasks: " + maxConcurrentTasks));
+            return future;
+        }
+        // the permit is released once whatever fails: the task, or the executor before or after running it
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        };
+        try {
+            executor.execute(() -> {
+                T result;
+                try {
+                    result = task.get();
+                } catch (Throwable e) {
+                    release.run();
+                    future.completeExceptionally(e);
+                    rethrowError(e);
+                    return;
+                }
+                // released before the completion, the callbacks of the future may submit new tasks
+                release.run();
+                future.complete(result);
+            });
+        } catch (Throwable e) {
+            release.run();
+            future.completeExceptionally(e);
+            rethrowError(e);
+        }
+        return future;
+    }
+
+    // an error fails the future and is still thrown, not swallowed: to the thread of the executor, or to the caller
+    private static void rethrowError(Throwable e) {
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+    }
+
+    private static ExecutorService createVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // absent before java 19, a preview api on java 19/20 that throws without --enable-preview
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("executor", executor)
+                .add("maxConcurrentTasks", maxConcurrentTasks)
+                .add("pendingTasks", getPendingTasks())
+                .toString();
+    }
+
+    /**
+     * builder of {@link AsyncJsonHelper}
+     */
+    public static final class Builder {
+        private Executor executor = DEFAULT_EXECUTOR;
+        private int maxConcurrentTasks = 256;
+
+        public Builder() {
+            super();
+        }
+
+        /**
+         * the executor running the (de)serializations, {@link AsyncJsonHelper#defaultExecutor()} by default
+         *
+         * @param executor an executor
+         * @return the builder
+         */
+        public Builder executor(Executor executor) {
+            this.executor = Preconditions.checkNotNull(executor, "executor should not be null");
+            return this;
+        }
+
+        /**
+         * the maximum number of tasks submitted and not completed, 256 by default.
+         * the tasks submitted above this limit are rejected
+         *
+         * @param maxConcurrentTasks a positive number
+         * @return the builder
+         */
+        public Builder maxConcurrentTasks(int maxConcurrentTasks) {
+            Preconditions.checkArgument(maxConcurrentTasks > 0, "maxConcurrentTasks should be positive");
+            this.maxConcurrentTasks = maxConcurrentTasks;
+            return this;
+        }
+
+        public AsyncJsonHelper build() {
+            return new AsyncJsonHelper(this);
+        }
+    }
+}
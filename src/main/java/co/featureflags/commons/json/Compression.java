@@ -0,0 +1,159 @@
+package co.featureflags.commons.json;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * the compressions of the json streamed by {@link JsonHelper}, named by their http Content-Encoding.
+ * the json is compressed or decompressed while it's written or read, without intermediate copy
+ */
+public enum Compression {
+    /**
+     * no compression
+     */
+    NONE("identity") {
+        @Override
+        OutputStream compress(OutputStream out) {
+            return new KeepOpenOutputStream(out);
+        }
+
+        @Override
+        InputStream decompress(InputStream in) {
+            return new KeepOpenInputStream(in);
+        }
+    },
+    /**
+     * gzip format(RFC 1952)
+     */
+    GZIP("gzip") {
+        @Override
+        OutputStream compress(OutputStream out) throws IOException {
+            return new GZIPOutputStream(new KeepOpenOutputStream(out), BUFFER_SIZE);
+        }
+
+        @Override
+        InputStream decompress(InputStream in) throws IOException {
+            return new GZIPInputStream(new KeepOpenInputStream(in), BUFFER_SIZE);
+        }
+    },
+    /**
+     * zlib format(RFC 1950), the http deflate encoding
+     */
+    DEFLATE("deflate") {
+        @Override
+        OutputStream compress(OutputStream out) {
+            return new DeflaterOutputStream(new KeepOpenOutputStream(out), new Deflater(), BUFFER_SIZE) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        def.end();
+                    }
+                }
+            };
+        }
+
+        @Override
+        InputStream decompress(InputStream in) {
+            return new InflaterInputStream(new KeepOpenInputStream(in), new Inflater(), BUFFER_SIZE) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        inf.end();
+                    }
+                }
+            };
+        }
+    };
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final String contentEncoding;
+
+    Compression(String contentEncoding) {
+        this.contentEncoding = contentEncoding;
+    }
+
+    /**
+     * return the http Content-Encoding of this compression
+     *
+     * @return identity, gzip or deflate
+     */
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    /**
+     * return the compression of a http Content-Encoding
+     *
+     * @param contentEncoding a Content-Encoding header, case insensitive
+     * @return the compression, {@link #NONE} if the header is null or empty
+     * @throws IllegalArgumentException if the encoding is not supported
+     */
+    public static Compression forContentEncoding(String contentEncoding) {
+        if (contentEncoding == null || contentEncoding.trim().isEmpty()) {
+            return NONE;
+        }
+        String encoding = contentEncoding.trim();
+        for (Compression compression : values()) {
+            if (compression.contentEncoding.equalsIgnoreCase(encoding)) {
+                return compression;
+            }
+        }
+        if ("x-gzip".equalsIgnoreCase(encoding)) {
+            return GZIP;
+        }
+        throw new IllegalArgumentException("unsupported content encoding: " + contentEncoding);
+    }
+
+    /**
+     * wrap a stream with a compressing stream, closing the compressing stream ends the compression and
+     * releases its resources without closing the wrapped stream
+     */
+    abstract OutputStream compress(OutputStream out) throws IOException;
+
+    /**
+     * wrap a stream with a decompressing stream, closing the decompressing stream releases its resources
+     * without closing the wrapped stream
+     */
+    abstract InputStream decompress(InputStream in) throws IOException;
+
+    private static final class KeepOpenOutputStream extends FilterOutputStream {
+        KeepOpenOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+
+    private static final class KeepOpenInputStream extends FilterInputStream {
+        KeepOpenInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() {
+            // the wrapped stream belongs to the caller
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package co.featureflags.commons.json;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * reads the elements of a json array one by one, so that only one element is in memory at a time
+ * whatever the size of the array. Created by {@link JsonHelper#arrayReader(java.io.Reader, java.lang.reflect.Type)}
+ *
+ * @param <T> the type of the elements
+ */
+public final class JsonArrayReader<T> implements Iterator<T>, Closeable {
+
+    private final JsonReader in;
+
+    private final TypeAdapter<T> adapter;
+
+    private boolean started;
+
+    private boolean ended;
+
+    JsonArrayReader(JsonReader in, TypeAdapter<T> adapter) {
+        this.in = in;
+        this.adapter = adapter;
+    }
+
+    /**
+     * return true if the array has another element
+     *
+     * @return true if another element can be read
+     * @throws JsonParseException if the json is not a valid array
+     */
+    @Override
+    public boolean hasNext() throws JsonParseException {
+        if (ended) {
+            return false;
+        }
+        try {
+            if (!started) {
+                in.beginArray();
+                started = true;
+            }
+            if (in.hasNext()) {
+                return true;
+            }
+            in.endArray();
+            ended = true;
+            return false;
+        } catch (IOException | RuntimeException e) {
+            throw new JsonParseException("Received Data invalid", e);
+        }
+    }
+
+    /**
+     * read the next element of the array
+     *
+     * @return an element
+     * @throws JsonParseException     if the element is not valid
+     * @throws NoSuchElementException if the end of the array is reached
+     */
+    @Override
+    public T next() throws JsonParseException {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        try {
+            return adapter.read(in);
+        } catch (IOException | RuntimeException e) {
+            throw new JsonParseException("Received Data invalid", e);
+        }
+    }
+
+    /**
+     * close the underlying reader
+     *
+     * @throws IOException if the reader can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
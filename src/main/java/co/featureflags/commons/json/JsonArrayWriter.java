@@ -0,0 +1,88 @@
+package co.featureflags.commons.json;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * writes the elements of a json array one by one, so that the elements don't need to be in memory at the same time.
+ * The array is terminated by {@link #close()}. Created by {@link JsonHelper#arrayWriter(Writer, java.lang.reflect.Type)}
+ * or {@link JsonHelper#arrayWriter(java.io.OutputStream, java.lang.reflect.Type)}
+ *
+ * @param <T> the type of the elements
+ */
+public final class JsonArrayWriter<T> implements Closeable {
+
+    private static final String DATA_WRITE_ERROR = "Failed to write Data";
+
+    private final Writer writer;
+
+    private final JsonWriter out;
+
+    private final TypeAdapter<T> adapter;
+
+    private boolean closed;
+
+    JsonArrayWriter(Writer writer, JsonWriter out, TypeAdapter<T> adapter) throws JsonParseException {
+        this.writer = writer;
+        this.out = out;
+        this.adapter = adapter;
+        try {
+            out.beginArray();
+        } catch (IOException e) {
+            throw new JsonParseException(DATA_WRITE_ERROR, e);
+        }
+    }
+
+    /**
+     * write an element of the array
+     *
+     * @param element an element
+     * @return this writer
+     * @throws JsonParseException if the element can't be written
+     */
+    public JsonArrayWriter<T> write(T element) throws JsonParseException {
+        try {
+            adapter.write(out, element);
+        } catch (IOException | RuntimeException e) {
+            throw new JsonParseException(DATA_WRITE_ERROR, e);
+        }
+        return this;
+    }
+
+    /**
+     * write the written json to the underlying writer or output stream
+     *
+     * @throws JsonParseException if the json can't be written
+     */
+    public void flush() throws JsonParseException {
+        try {
+            out.flush();
+            writer.flush();
+        } catch (IOException e) {
+            throw new JsonParseException(DATA_WRITE_ERROR, e);
+        }
+    }
+
+    /**
+     * terminate the array and flush it, the underlying writer or output stream is not closed
+     *
+     * @throws JsonParseException if the json can't be written
+     */
+    @Override
+    public void close() throws JsonParseException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            out.endArray();
+        } catch (IOException e) {
+            throw new JsonParseException(DATA_WRITE_ERROR, e);
+        }
+        flush();
+    }
+}
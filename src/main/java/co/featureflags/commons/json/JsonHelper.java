@@ -1,5 +1,8 @@
 package co.featureflags.commons.json;
 
+import com.google.common.base.Preconditions;
+import com.google.common.io.CountingInputStream;
+import com.google.common.io.CountingOutputStream;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.TypeAdapter;
@@ -8,26 +11,69 @@ import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
 import java.io.Reader;
+import java.io.Writer;
 import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
 
 /**
  * serialize or deserialize ffc object to/from json
  * this class is only for internal use
  */
 public abstract class JsonHelper {
-    private static final Gson gson = new GsonBuilder()
-            .setPrettyPrinting()
-            .serializeNulls()
-            .disableHtmlEscaping()
-            .create();
+    private static final Map<JsonProfile, Gson> profiles = new EnumMap<>(JsonProfile.class);
+
+    static {
+        profiles.put(JsonProfile.COMPACT, builder().serializeNulls().create());
+        profiles.put(JsonProfile.PRETTY, builder().serializeNulls().setPrettyPrinting().create());
+        profiles.put(JsonProfile.OMIT_NULLS, builder().create());
+    }
+
+    // all the profiles read the same json
+    private static final Gson gson = profiles.get(JsonProfile.COMPACT);
+
+    private static volatile JsonProfile defaultProfile = JsonProfile.COMPACT;
+
     private static final String DATA_INVALID_ERROR = "Received Data invalid";
+    private static final String DATA_WRITE_ERROR = "Failed to write Data";
 
     private JsonHelper() {
         super();
     }
 
+    private static GsonBuilder builder() {
+        return new GsonBuilder().disableHtmlEscaping();
+    }
+
+    /**
+     * set the json profile used by {@link #serialize(Object)} in the whole application,
+     * {@link JsonProfile#COMPACT} by default
+     *
+     * @param profile a json profile
+     */
+    public static void setDefaultProfile(JsonProfile profile) {
+        defaultProfile = Preconditions.checkNotNull(profile, "profile should not be null");
+    }
+
+    /**
+     * return the json profile used by {@link #serialize(Object)}
+     *
+     * @return a json profile
+     */
+    public static JsonProfile getDefaultProfile() {
+        return defaultProfile;
+    }
+
     /**
      * deserialize ffc object from json
      *
@@ -38,11 +84,7 @@ public abstract class JsonHelper {
      * @throws JsonParseException
      */
     public static <T> T deserialize(String json, Class<T> objectClass) throws JsonParseException {
-        try {
-            return gson.fromJson(json, objectClass);
-        } catch (Exception e) {
-            throw new JsonParseException(DATA_INVALID_ERROR, e);
-        }
+        return deserialize(json, (Type) objectClass);
     }
 
     /**
@@ -55,9 +97,17 @@ public abstract class JsonHelper {
      * @throws JsonParseException
      */
     public static <T> T deserialize(String json, Type type) throws JsonParseException {
+        JsonProbe probe = JsonProbe.start(type, false);
         try {
-            return gson.fromJson(json, type);
+            T result = gson.fromJson(json, type);
+            if (probe != null) {
+                probe.success(json == null ? 0 : json.length());
+            }
+            return result;
         } catch (Exception e) {
+            if (probe != null) {
+                probe.failure(e, json == null ? 0 : json.length());
+            }
             throw new JsonParseException(DATA_INVALID_ERROR, e);
         }
     }
@@ -72,11 +122,7 @@ public abstract class JsonHelper {
      * @throws JsonParseException
      */
     public static <T> T deserialize(Reader reader, Class<T> objectClass) throws JsonParseException {
-        try {
-            return gson.fromJson(reader, objectClass);
-        } catch (Exception e) {
-            throw new JsonParseException(DATA_INVALID_ERROR, e);
-        }
+        return deserialize(reader, (Type) objectClass);
     }
 
     /**
@@ -89,21 +135,409 @@ public abstract class JsonHelper {
      * @throws JsonParseException
      */
     public static <T> T deserialize(Reader reader, Type type) throws JsonParseException {
+        JsonProbe probe = JsonProbe.start(type, false);
         try {
-            return gson.fromJson(reader, type);
+            T result = gson.fromJson(reader, type);
+            if (probe != null) {
+                probe.success(-1);
+            }
+            return result;
         } catch (Exception e) {
+            if (probe != null) {
+                probe.failure(e, -1);
+            }
             throw new JsonParseException(DATA_INVALID_ERROR, e);
         }
     }
 
     /**
-     * serialize to json
+     * serialize to json with the default json profile
      *
      * @param o ffc object
      * @return a json string
      */
     public static String serialize(Object o) {
-        return gson.toJson(o);
+        return serialize(o, defaultProfile);
+    }
+
+    /**
+     * serialize to json with a given json profile
+     *
+     * @param o       ffc object
+     * @param profile json profile, the default json profile if null
+     * @return a json string
+     */
+    public static String serialize(Object o, JsonProfile profile) {
+        JsonProbe probe = JsonProbe.start(typeOf(o), true);
+        try {
+            String json = gson(profile).toJson(o);
+            if (probe != null) {
+                probe.success(json.length());
+            }
+            return json;
+        } catch (RuntimeException e) {
+            if (probe != null) {
+                probe.failure(e, -1);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * serialize to json with the default json profile, the json is directly appended to a writer or a buffer
+     * like {@link StringBuilder}, which could be reused between 2 calls
+     *
+     * @param o      ffc object
+     * @param writer a {@link Writer} or any other {@link Appendable}, not closed by this method
+     * @throws JsonParseException if the json can't be written
+     */
+    public static void serialize(Object o, Appendable writer) throws JsonParseException {
+        serialize(o, writer, defaultProfile);
+    }
+
+    /**
+     * serialize to json with a given json profile, the json is directly appended to a writer or a buffer
+     * like {@link StringBuilder}, which could be reused between 2 calls
+     *
+     * @param o       ffc object
+     * @param writer  a {@link Writer} or any other {@link Appendable}, not closed by this method
+     * @param profile json profile, the default json profile if null
+     * @throws JsonParseException if the json can't be written
+     */
+    public static void serialize(Object o, Appendable writer, JsonProfile profile) throws JsonParseException {
+        JsonProbe probe = JsonProbe.start(typeOf(o), true);
+        // the size is known if the json is appended to a buffer
+        long start = writer instanceof CharSequence ? ((CharSequence) writer).length() : -1;
+        try {
+            gson(profile).toJson(o, writer);
+            if (probe != null) {
+                probe.success(start < 0 ? -1 : ((CharSequence) writer).length() - start);
+            }
+        } catch (Exception e) {
+            if (probe != null) {
+                probe.failure(e, -1);
+            }
+            throw new JsonParseException(DATA_WRITE_ERROR, e);
+        }
+    }
+
+    /**
+     * serialize to UTF-8 json with the default json profile, the json is directly written to the output stream
+     *
+     * @param o   ffc object
+     * @param out an output stream, flushed but not closed by this method
+     * @throws JsonParseException if the json can't be written
+     */
+    public static void serialize(Object o, OutputStream out) throws JsonParseException {
+        serialize(o, out, defaultProfile);
+    }
+
+    /**
+     * serialize to UTF-8 json with a given json profile, the json is directly written to the output stream
+     *
+     * @param o       ffc object
+     * @param out     an output stream, flushed but not closed by this method
+     * @param profile json profile, the default json profile if null
+     * @throws JsonParseException if the json can't be written
+     */
+    public static void serialize(Object o, OutputStream out, JsonProfile profile) throws JsonParseException {
+        JsonProbe probe = JsonProbe.start(typeOf(o), true);
+        CountingOutputStream counter = probe == null ? null : new CountingOutputStream(out);
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(counter == null ? out : counter, StandardCharsets.UTF_8));
+            gson(profile).toJson(o, writer);
+            writer.flush();
+            if (probe != null) {
+                probe.success(counter.getCount());
+            }
+        } catch (Exception e) {
+            if (probe != null) {
+                probe.failure(e, counter.getCount());
+            }
+            throw new JsonParseException(DATA_WRITE_ERROR, e);
+        }
+    }
+
+    /**
+     * serialize to UTF-8 json with the default json profile, the json is directly written to the print stream.
+     * a print stream is both an {@link OutputStream} and an {@link Appendable}, it's written as an output stream:
+     * the json is UTF-8 whatever the charset of the print stream
+     *
+     * @param o   ffc object
+     * @param out a print stream, e.g. {@link System#out}, flushed but not closed by this method
+     * @throws JsonParseException if the json can't be written
+     */
+    public static void serialize(Object o, PrintStream out) throws JsonParseException {
+        serialize(o, (OutputStream) out, defaultProfile);
+    }
+
+    /**
+     * serialize to UTF-8 json with a given json profile, the json is directly written to the print stream
+     * as to an output stream, see {@link #serialize(Object, PrintStream)}
+     *
+     * @param o       ffc object
+     * @param out     a print stream, e.g. {@link System#out}, flushed but not closed by this method
+     * @param profile json profile, the default json profile if null
+     * @throws JsonParseException if the json can't be written
+     */
+    public static void serialize(Object o, PrintStream out, JsonProfile profile) throws JsonParseException {
+        serialize(o, (OutputStream) out, profile);
+    }
+
+    /**
+     * serialize to UTF-8 json with the default json profile, the json is compressed while it's written to the output stream
+     *
+     * @param o           ffc object
+     * @param out         an output stream, flushed but not closed by this method
+     * @param compression the compression of the json
+     * @throws JsonParseException if the json can't be written
+     */
+    public static void serialize(Object o, OutputStream out, Compression compression) throws JsonParseException {
+        serialize(o, out, defaultProfile, compression);
+    }
+
+    /**
+     * serialize to UTF-8 json with a given json profile, the json is compressed while it's written to the output stream
+     *
+     * @param o           ffc object
+     * @param out         an output stream, flushed but not closed by this method
+     * @param profile     json profile, the default json profile if null
+     * @param compression the compression of the json
+     * @throws JsonParseException if the json can't be written
+     */
+    public static void serialize(Object o, OutputStream out, JsonProfile profile, Compression compression) throws JsonParseException {
+        Preconditions.checkNotNull(compression, "compression should not be null");
+        JsonProbe probe = JsonProbe.start(typeOf(o), true);
+        CountingOutputStream counter = probe == null ? null : new CountingOutputStream(out);
+        // closing the writer ends the compression, the output stream is kept open
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(compression.compress(counter == null ? out : counter), StandardCharsets.UTF_8))) {
+            gson(profile).toJson(o, writer);
+        } catch (Exception e) {
+            if (probe != null) {
+                probe.failure(e, counter.getCount());
+            }
+            throw new JsonParseException(DATA_WRITE_ERROR, e);
+        }
+        if (probe != null) {
+            probe.success(counter.getCount());
+        }
+    }
+
+    /**
+     * deserialize ffc object from UTF-8 json, the json is decompressed while it's read from the input stream
+     *
+     * @param in          an input stream, not closed by this method
+     * @param objectClass object class
+     * @param compression the compression of the json
+     * @param <T>
+     * @return a ffc object
+     * @throws JsonParseException
+     */
+    public static <T> T deserialize(InputStream in, Class<T> objectClass, Compression compression) throws JsonParseException {
+        return deserialize(in, (Type) objectClass, compression);
+    }
+
+    /**
+     * deserialize ffc object from UTF-8 json, the json is decompressed while it's read from the input stream
+     *
+     * @param in          an input stream, not closed by this method
+     * @param type        object type
+     * @param compression the compression of the json
+     * @param <T>
+     * @return a ffc object
+     * @throws JsonParseException
+     */
+    public static <T> T deserialize(InputStream in, Type type, Compression compression) throws JsonParseException {
+        Preconditions.checkNotNull(compression, "compression should not be null");
+        JsonProbe probe = JsonProbe.start(type, false);
+        CountingInputStream counter = probe == null ? null : new CountingInputStream(in);
+        T result;
+        try (Reader reader = new InputStreamReader(compression.decompress(counter == null ? in : counter), StandardCharsets.UTF_8)) {
+            result = gson.fromJson(reader, type);
+        } catch (Exception e) {
+            if (probe != null) {
+                probe.failure(e, counter.getCount());
+            }
+            throw new JsonParseException(DATA_INVALID_ERROR, e);
+        }
+        if (probe != null) {
+            probe.success(counter.getCount());
+        }
+        return result;
+    }
+
+    /**
+     * deserialize ffc object from UTF-8 json bytes, decoded while they are parsed without building a string of the json
+     *
+     * @param json        UTF-8 json
+     * @param objectClass object class
+     * @param <T>
+     * @return a ffc object
+     * @throws JsonParseException
+     */
+    public static <T> T deserialize(byte[] json, Class<T> objectClass) throws JsonParseException {
+        return deserialize(json, (Type) objectClass);
+    }
+
+    /**
+     * deserialize ffc object from UTF-8 json bytes, decoded while they are parsed without building a string of the json
+     *
+     * @param json UTF-8 json
+     * @param type object type
+     * @param <T>
+     * @return a ffc object
+     * @throws JsonParseException
+     */
+    public static <T> T deserialize(byte[] json, Type type) throws JsonParseException {
+        Preconditions.checkNotNull(json, "json should not be null");
+        return deserialize(ByteBuffer.wrap(json), type);
+    }
+
+    /**
+     * deserialize ffc object from the UTF-8 json between the position and the limit of a heap or direct buffer,
+     * decoded while it's parsed without building a string of the json. the position of the buffer is not changed
+     *
+     * @param json        UTF-8 json
+     * @param objectClass object class
+     * @param <T>
+     * @return a ffc object
+     * @throws JsonParseException
+     */
+    public static <T> T deserialize(ByteBuffer json, Class<T> objectClass) throws JsonParseException {
+        return deserialize(json, (Type) objectClass);
+    }
+
+    /**
+     * deserialize ffc object from the UTF-8 json between the position and the limit of a heap or direct buffer,
+     * decoded while it's parsed without building a string of the json. the position of the buffer is not changed
+     *
+     * @param json UTF-8 json
+     * @param type object type
+     * @param <T>
+     * @return a ffc object
+     * @throws JsonParseException
+     */
+    public static <T> T deserialize(ByteBuffer json, Type type) throws JsonParseException {
+        Preconditions.checkNotNull(json, "json should not be null");
+        JsonProbe probe = JsonProbe.start(type, false);
+        try {
+            T result = gson.fromJson(new Utf8BufferReader(json), type);
+            if (probe != null) {
+                probe.success(json.remaining());
+            }
+            return result;
+        } catch (Exception e) {
+            if (probe != null) {
+                probe.failure(e, json.remaining());
+            }
+            throw new JsonParseException(DATA_INVALID_ERROR, e);
+        }
+    }
+
+    /**
+     * read a json array element by element, so that a large array is never fully loaded in memory
+     *
+     * @param reader Json Reader, closed by {@link JsonArrayReader#close()}
+     * @param type   element type
+     * @param <T>
+     * @return an iterator over the elements of the array
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> JsonArrayReader<T> arrayReader(Reader reader, Type type) {
+        TypeAdapter<T> adapter = (TypeAdapter<T>) gson.getAdapter(TypeToken.get(type));
+        return new JsonArrayReader<>(gson.newJsonReader(reader), adapter);
+    }
+
+    /**
+     * write a json array element by element with the default json profile,
+     * so that the elements don't need to be in memory at the same time
+     *
+     * @param writer a writer, flushed but not closed by {@link JsonArrayWriter#close()}
+     * @param type   element type
+     * @param <T>
+     * @return a writer of the elements of the array
+     * @throws JsonParseException if the json can't be written
+     */
+    public static <T> JsonArrayWriter<T> arrayWriter(Writer writer, Type type) throws JsonParseException {
+        return arrayWriter(writer, type, defaultProfile);
+    }
+
+    /**
+     * write a json array element by element with a given json profile,
+     * so that the elements don't need to be in memory at the same time
+     *
+     * @param writer  a writer, flushed but not closed by {@link JsonArrayWriter#close()}
+     * @param type    element type
+     * @param profile json profile, the default json profile if null
+     * @param <T>
+     * @return a writer of the elements of the array
+     * @throws JsonParseException if the json can't be written
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> JsonArrayWriter<T> arrayWriter(Writer writer, Type type, JsonProfile profile) throws JsonParseException {
+        Gson g = gson(profile);
+        TypeAdapter<T> adapter = (TypeAdapter<T>) g.getAdapter(TypeToken.get(type));
+        try {
+            return new JsonArrayWriter<>(writer, g.newJsonWriter(writer), adapter);
+        } catch (IOException e) {
+            throw new JsonParseException(DATA_WRITE_ERROR, e);
+        }
+    }
+
+    /**
+     * write a UTF-8 json array element by element with the default json profile,
+     * so that the elements don't need to be in memory at the same time
+     *
+     * @param out  an output stream, flushed but not closed by {@link JsonArrayWriter#close()}
+     * @param type element type
+     * @param <T>
+     * @return a writer of the elements of the array
+     * @throws JsonParseException if the json can't be written
+     */
+    public static <T> JsonArrayWriter<T> arrayWriter(OutputStream out, Type type) throws JsonParseException {
+        return arrayWriter(out, type, defaultProfile);
+    }
+
+    /**
+     * write a UTF-8 json array element by element with a given json profile,
+     * so that the elements don't need to be in memory at the same time
+     *
+     * @param out     an output stream, flushed but not closed by {@link JsonArrayWriter#close()}
+     * @param type    element type
+     * @param profile json profile, the default json profile if null
+     * @param <T>
+     * @return a writer of the elements of the array
+     * @throws JsonParseException if the json can't be written
+     */
+    public static <T> JsonArrayWriter<T> arrayWriter(OutputStream out, Type type, JsonProfile profile) throws JsonParseException {
+        return arrayWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)), type, profile);
+    }
+
+    /**
+     * install a hook notified of all the serializations and deserializations, replacing the previous one.
+     * {@link JsonMetrics#NOOP} by default
+     *
+     * @param metrics a metrics hook, {@link JsonMetrics#NOOP} to remove the current one
+     */
+    public static void setMetrics(JsonMetrics metrics) {
+        JsonProbe.setMetrics(Preconditions.checkNotNull(metrics, "metrics should not be null"));
+    }
+
+    /**
+     * return the hook notified of all the serializations and deserializations
+     *
+     * @return a metrics hook
+     */
+    public static JsonMetrics getMetrics() {
+        return JsonProbe.getMetrics();
+    }
+
+    private static Type typeOf(Object o) {
+        return o == null ? Object.class : o.getClass();
+    }
+
+    private static Gson gson(JsonProfile profile) {
+        return profiles.get(profile == null ? defaultProfile : profile);
     }
 
     /**
@@ -0,0 +1,51 @@
+package co.featureflags.commons.json;
+
+import java.lang.reflect.Type;
+
+/**
+ * a hook notified of the serializations and deserializations done by {@link JsonHelper}, installed by
+ * {@link JsonHelper#setMetrics(JsonMetrics)}, e.g. to feed the timers, histograms and counters of a metrics library.
+ * <p>
+ * the size of a payload is its number of chars for a string, its number of bytes for a stream
+ * (compressed bytes if the stream is compressed), or -1 if it's unknown, e.g. for a {@link java.io.Reader}.
+ * The methods are called by the thread doing the (de)serialization, they should be fast and never throw.
+ * All the methods do nothing by default.
+ */
+public interface JsonMetrics {
+
+    /**
+     * the default hook, which does nothing and costs nothing
+     */
+    JsonMetrics NOOP = new JsonMetrics() {
+    };
+
+    /**
+     * called after a successful deserialization
+     *
+     * @param type  the type of the object read
+     * @param nanos the duration of the deserialization in nanoseconds
+     * @param size  the size of the json read
+     */
+    default void onRead(Type type, long nanos, long size) {
+    }
+
+    /**
+     * called after a successful serialization
+     *
+     * @param type  the type of the object written
+     * @param nanos the duration of the serialization in nanoseconds
+     * @param size  the size of the json written
+     */
+    default void onWrite(Type type, long nanos, long size) {
+    }
+
+    /**
+     * called when a (de)serialization fails, before the {@link JsonParseException} is thrown
+     *
+     * @param type  the type of the object read or written
+     * @param write true for a serialization, false for a deserialization
+     * @param error the cause of the failure
+     */
+    default void onError(Type type, boolean write, Exception error) {
+    }
+}
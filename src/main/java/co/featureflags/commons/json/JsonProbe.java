@@ -0,0 +1,101 @@
+package co.featureflags.commons.json;
+
+import java.lang.reflect.Type;
+
+/**
+ * measures a (de)serialization of {@link JsonHelper} for the {@link JsonMetrics} and the slow parse JFR event.
+ * {@link #start(Type, boolean)} returns null when nothing is measured: no metrics hook is installed and
+ * no flight recording is enabled for the event, so that the default cost is a volatile read.
+ * <p>
+ * The JFR api is not part of the java 8 api: the event is recorded by a {@link Recorder} compiled apart for java 11
+ * and loaded by reflection, no event is recorded if it's missing, e.g. the library is built or run on java 8
+ */
+final class JsonProbe {
+
+    private static final String RECORDER_CLASS = "co.featureflags.commons.json.JfrRecorder";
+
+    // null if JFR is not available
+    private static final Recorder RECORDER = loadRecorder();
+
+    private static volatile JsonMetrics metrics = JsonMetrics.NOOP;
+
+    private final JsonMetrics hook;
+
+    private final Type type;
+
+    private final boolean write;
+
+    private final Object event;
+
+    private final long start;
+
+    private JsonProbe(JsonMetrics hook, Type type, boolean write, Object event) {
+        this.hook = hook;
+        this.type = type;
+        this.write = write;
+        this.event = event;
+        this.start = System.nanoTime();
+    }
+
+    static void setMetrics(JsonMetrics m) {
+        metrics = m;
+    }
+
+    static JsonMetrics getMetrics() {
+        return metrics;
+    }
+
+    static JsonProbe start(Type type, boolean write) {
+        JsonMetrics hook = metrics;
+        Object event = !write && RECORDER != null ? RECORDER.begin() : null;
+        if (hook == JsonMetrics.NOOP && event == null) {
+            return null;
+        }
+        return new JsonProbe(hook, type, write, event);
+    }
+
+    void success(long size) {
+        long nanos = System.nanoTime() - start;
+        if (event != null) {
+            RECORDER.end(event, type, size, false);
+        }
+        if (write) {
+            hook.onWrite(type, nanos, size);
+        } else {
+            hook.onRead(type, nanos, size);
+        }
+    }
+
+    void failure(Exception error, long size) {
+        if (event != null) {
+            RECORDER.end(event, type, size, true);
+        }
+        hook.onError(type, write, error);
+    }
+
+    private static Recorder loadRecorder() {
+        try {
+            return (Recorder) Class.forName(RECORDER_CLASS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            // not built with the jfr profile, run on java 8 or JFR disabled
+            return null;
+        }
+    }
+
+    /**
+     * records the slow parse event, implemented with the JFR api by JfrRecorder
+     */
+    interface Recorder {
+        /**
+         * begin an event
+         *
+         * @return the event, or null if no recording enables it
+         */
+        Object begin();
+
+        /**
+         * end an event returned by {@link #begin()}, it's committed if it lasted more than its threshold
+         */
+        void end(Object event, Type type, long size, boolean failed);
+    }
+}
@@ -0,0 +1,21 @@
+package co.featureflags.commons.json;
+
+/**
+ * the json output profiles of ffc objects
+ * <p>
+ * all the profiles read the same json, they only differ when a ffc object is serialized
+ */
+public enum JsonProfile {
+    /**
+     * no indentation and no line break, null values are kept, the default profile for the communication
+     */
+    COMPACT,
+    /**
+     * indented output, null values are kept, useful for debug
+     */
+    PRETTY,
+    /**
+     * no indentation and no line break, null values are omitted
+     */
+    OMIT_NULLS
+}
@@ -0,0 +1,258 @@
+package co.featureflags.commons.json;
+
+import java.util.Arrays;
+
+/**
+ * a structural scanner of json text, which finds the boundaries of json values without decoding them
+ * all the methods take the index of the first char of a token and return the index just after it
+ * this class is only for internal use
+ */
+public final class JsonScanner {
+
+    private JsonScanner() {
+        super();
+    }
+
+    /**
+     * skip the json whitespaces
+     *
+     * @param json json string
+     * @param from start index
+     * @return the index of the first char that is not a whitespace, or the length of the json
+     */
+    public static int skipWhitespace(String json, int from) {
+        int i = from;
+        int length = json.length();
+        while (i < length) {
+            char c = json.charAt(i);
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * check that a given char is at the given index, whitespaces before it are skipped
+     *
+     * @param json     json string
+     * @param from     start index
+     * @param expected the expected char
+     * @return the index after the expected char
+     * @throws JsonParseException if the expected char is not found
+     */
+    public static int expect(String json, int from, char expected) throws JsonParseException {
+        int i = skipWhitespace(json, from);
+        if (i >= json.length() || json.charAt(i) != expected) {
+            throw malformed(i, "'" + expected + "' expected");
+        }
+        return i + 1;
+    }
+
+    /**
+     * return true if the char at the given index, whitespaces before it are skipped, is the given one
+     *
+     * @param json     json string
+     * @param from     start index
+     * @param expected the expected char
+     * @return true if found
+     */
+    public static boolean peek(String json, int from, char expected) {
+        int i = skipWhitespace(json, from);
+        return i < json.length() && json.charAt(i) == expected;
+    }
+
+    /**
+     * skip a json value: object, array, string, number or literal
+     *
+     * @param json json string
+     * @param from index of the first char of the value
+     * @return the index after the value
+     * @throws JsonParseException if the value is malformed
+     */
+    public static int skipValue(String json, int from) throws JsonParseException {
+        if (from >= json.length()) {
+            throw malformed(from, "value expected");
+        }
+        char c = json.charAt(from);
+        switch (c) {
+            case '"':
+                return skipString(json, from);
+            case '{':
+            case '[':
+                return skipContainer(json, from);
+            default:
+                return skipLiteral(json, from);
+        }
+    }
+
+    /**
+     * skip a json string
+     *
+     * @param json json string
+     * @param from index of the opening quote
+     * @return the index after the closing quote
+     * @throws JsonParseException if the string is not terminated
+     */
+    public static int skipString(String json, int from) throws JsonParseException {
+        int length = json.length();
+        for (int i = from + 1; i < length; i++) {
+            char c = json.charAt(i);
+            if (c == '"') {
+                return i + 1;
+            }
+            if (c == '\\') {
+                i++;
+            }
+        }
+        throw malformed(from, "unterminated string");
+    }
+
+    // the brackets, the commas and the colons of the nested values are checked, as a json reader would do
+    private static int skipContainer(String json, int from) throws JsonParseException {
+        // the kind of each open container, true for an object
+        boolean[] objects = new boolean[16];
+        int depth = 0;
+        int i = from;
+        while (true) {
+            // a value starts at i
+            i = skipWhitespace(json, i);
+            char c = i < json.length() ? json.charAt(i) : 0;
+            if (c == '{' || c == '[') {
+                if (depth == objects.length) {
+                    objects = Arrays.copyOf(objects, depth * 2);
+                }
+                objects[depth++] = c == '{';
+                i++;
+                if (!peek(json, i, c == '{' ? '}' : ']')) {
+                    i = c == '{' ? skipName(json, i) : i;
+                    continue;
+                }
+                i = skipWhitespace(json, i) + 1;
+                depth--;
+            } else {
+                i = c == '"' ? skipString(json, i) : skipLiteral(json, i);
+            }
+            // after a value: the next member of its container, or the end of the containers
+            while (true) {
+                if (depth == 0) {
+                    return i;
+                }
+                if (peek(json, i, ',')) {
+                    i = skipWhitespace(json, i) + 1;
+                    i = objects[depth - 1] ? skipName(json, i) : i;
+                    break;
+                }
+                i = expect(json, i, objects[depth - 1] ? '}' : ']');
+                depth--;
+            }
+        }
+    }
+
+    // a member name and its colon
+    private static int skipName(String json, int from) throws JsonParseException {
+        int i = expect(json, from, '"') - 1;
+        return expect(json, skipString(json, i), ':');
+    }
+
+    private static int skipLiteral(String json, int from) throws JsonParseException {
+        int i = from;
+        int length = json.length();
+        while (i < length) {
+            char c = json.charAt(i);
+            // the start of another value ends a literal too, so that the missing separator is detected
+            if (c == ',' || c == '}' || c == ']' || c == ':' || c == ' ' || c == '\n' || c == '\r' || c == '\t'
+                    || c == '{' || c == '[' || c == '"') {
+                break;
+            }
+            i++;
+        }
+        if (i == from) {
+            throw malformed(from, "value expected");
+        }
+        return i;
+    }
+
+    /**
+     * return true if the json string between the given indexes is equal to the given string
+     *
+     * @param json  json string
+     * @param from  index of the opening quote
+     * @param to    index after the closing quote
+     * @param value the expected value
+     * @return true if equal
+     */
+    public static boolean stringEquals(String json, int from, int to, String value) {
+        int length = to - from - 2;
+        if (length == value.length()) {
+            return json.regionMatches(from + 1, value, 0, length);
+        }
+        // an escaped string is longer than its value
+        return length > value.length() && value.equals(readString(json, from, to));
+    }
+
+    /**
+     * decode a json string
+     *
+     * @param json json string
+     * @param from index of the opening quote
+     * @param to   index after the closing quote
+     * @return the decoded string
+     * @throws JsonParseException if the string is malformed
+     */
+    public static String readString(String json, int from, int to) throws JsonParseException {
+        int escape = from + 1;
+        while (escape < to - 1 && json.charAt(escape) != '\\') {
+            escape++;
+        }
+        if (escape == to - 1) {
+            return json.substring(from + 1, to - 1);
+        }
+        StringBuilder sb = new StringBuilder(to - from);
+        sb.append(json, from + 1, escape);
+        for (int i = escape; i < to - 1; i++) {
+            char c = json.charAt(i);
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            char escaped = json.charAt(++i);
+            switch (escaped) {
+                case 'b':
+                    sb.append('\b');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'u':
+                    if (i + 4 >= to) {
+                        throw malformed(i, "unterminated escape sequence");
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(json.substring(i + 1, i + 5), 16));
+                    } catch (NumberFormatException e) {
+                        throw malformed(i, "invalid escape sequence");
+                    }
+                    i += 4;
+                    break;
+                default:
+                    sb.append(escaped);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static JsonParseException malformed(int position, String message) {
+        return new JsonParseException("Malformed json at position " + position + ": " + message);
+    }
+}
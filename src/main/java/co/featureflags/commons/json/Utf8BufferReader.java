@@ -0,0 +1,117 @@
+package co.featureflags.commons.json;
+
+import java.io.Reader;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * a reader decoding UTF-8 bytes of a heap or direct {@link ByteBuffer} straight into the buffer of the caller,
+ * so that the json is never copied into an intermediate char array or string. The bytes of a direct buffer are copied
+ * by blocks of 8 KB to a heap buffer, the JDK decoder being much faster on arrays.
+ * The malformed bytes are replaced by U+FFFD, as {@link String#String(byte[], java.nio.charset.Charset)} does.
+ * The position of the given buffer is not changed.
+ */
+final class Utf8BufferReader extends Reader {
+
+    private static final int STAGING_SIZE = 8192;
+
+    private final ByteBuffer in;
+
+    // null for a heap buffer, decoded in place
+    private final ByteBuffer staging;
+
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    // the low surrogate of a pair which didn't fit in the buffer of the caller
+    private final CharBuffer pending = CharBuffer.allocate(2);
+
+    private boolean flushed;
+
+    Utf8BufferReader(ByteBuffer in) {
+        this.in = in.duplicate();
+        this.staging = in.hasArray() ? null : ByteBuffer.allocate(Math.min(STAGING_SIZE, in.remaining()));
+        if (staging != null) {
+            ((Buffer) staging).flip();
+        }
+        ((Buffer) pending).flip();
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        if (pending.hasRemaining()) {
+            buffer[offset] = pending.get();
+            return 1;
+        }
+        if (flushed) {
+            return -1;
+        }
+        CharBuffer out = CharBuffer.wrap(buffer, offset, length);
+        decode(out);
+        if (out.position() == offset && !flushed) {
+            // a surrogate pair needs 2 chars, only 1 is requested
+            ((Buffer) pending).clear();
+            decode(pending);
+            ((Buffer) pending).flip();
+            if (pending.hasRemaining()) {
+                buffer[offset] = pending.get();
+                return 1;
+            }
+        }
+        int n = out.position() - offset;
+        return n == 0 && flushed ? -1 : n;
+    }
+
+    private void decode(CharBuffer out) {
+        if (staging == null) {
+            CoderResult result = decoder.decode(in, out, true);
+            if (result.isUnderflow() && decoder.flush(out).isUnderflow()) {
+                flushed = true;
+            }
+            return;
+        }
+        while (true) {
+            if (in.hasRemaining() && staging.remaining() < staging.capacity() / 2) {
+                stage();
+            }
+            boolean end = !in.hasRemaining();
+            CoderResult result = decoder.decode(staging, out, end);
+            if (result.isOverflow()) {
+                return;
+            }
+            if (end) {
+                if (decoder.flush(out).isUnderflow()) {
+                    flushed = true;
+                }
+                return;
+            }
+            // an incomplete sequence of bytes is left, it's completed by the next block
+            stage();
+        }
+    }
+
+    // move the remaining bytes of the staging buffer to its start, then fill it from the direct buffer
+    private void stage() {
+        staging.compact();
+        int n = Math.min(staging.remaining(), in.remaining());
+        ByteBuffer block = in.duplicate();
+        ((Buffer) block).limit(in.position() + n);
+        staging.put(block);
+        ((Buffer) in).position(in.position() + n);
+        ((Buffer) staging).flip();
+    }
+
+    @Override
+    public void close() {
+        // nothing to release, the buffer belongs to the caller
+    }
+}
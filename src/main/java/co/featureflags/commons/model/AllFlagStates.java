@@ -1,15 +1,34 @@
 package co.featureflags.commons.model;
 
+import co.featureflags.commons.json.AsyncJsonHelper;
+import co.featureflags.commons.json.Compression;
 import co.featureflags.commons.json.JsonHelper;
 import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.reflect.TypeToken;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 
 /**
@@ -17,26 +36,35 @@ import java.util.function.Function;
  *
  * @param <T> String/Boolean/Numeric Type
  */
+@JsonAdapter(AllFlagStates.AllFlagStatesTypeAdapterFactory.class)
 public class AllFlagStates<T> extends BasicFlagState implements Serializable {
-    private List<EvalDetail<T>> data;
+    // the type decoded by all the fromJson methods: the variations are decoded as Object whatever the given class,
+    // a json boolean as a Boolean, a number as a Double and a string as a String
+    static final Type JSON_TYPE = TypeToken.getParameterized(AllFlagStates.class, Object.class).getType();
 
-    private transient Map<String, EvalDetail<T>> cache;
+    // null in a patched snapshot until the list is needed, then built from the index
+    private volatile List<EvalDetail<T>> data;
+
+    // final fields: the index is safely published with the object and never rebuilt
+    private final transient HashTrie<EvalDetail<T>> cache;
 
 
     protected AllFlagStates(boolean success, String message, List<EvalDetail<T>> data) {
         super(success, success ? "OK" : message);
-        init(data);
-    }
-
-    private void init(List<EvalDetail<T>> data) {
-        ImmutableMap.Builder<String, EvalDetail<T>> builder = ImmutableMap.builder();
+        HashTrie.Builder<EvalDetail<T>> builder = HashTrie.builder();
         this.data = data == null ? ImmutableList.of() : ImmutableList.copyOf(data);
-        for (EvalDetail<T> detail : data) {
+        for (EvalDetail<T> detail : this.data) {
             builder.put(detail.getKeyName(), detail);
         }
         this.cache = builder.build();
     }
 
+    private AllFlagStates(boolean success, String message, List<EvalDetail<T>> data, HashTrie<EvalDetail<T>> cache) {
+        super(success, success ? "OK" : message);
+        this.data = data;
+        this.cache = cache;
+    }
+
     /**
      * build a AllFlagStates without flag value
      *
@@ -69,8 +97,114 @@ public class AllFlagStates<T> extends BasicFlagState implements Serializable {
      * @return a AllFlagStates
      */
     public static <T> AllFlagStates<T> fromJson(String json, Class<T> cls) {
-        return JsonHelper.deserialize(json, new TypeToken<AllFlagStates<T>>() {
-        }.getType());
+        return JsonHelper.deserialize(json, JSON_TYPE);
+    }
+
+    /**
+     * build a AllFlagStates from compressed UTF-8 json, decompressed while it's parsed
+     *
+     * @param in          an input stream, not closed by this method
+     * @param cls
+     * @param compression the compression of the json, e.g. {@link Compression#forContentEncoding(String)}
+     * @param <T>         String/Boolean/Numeric Type
+     * @return a AllFlagStates
+     */
+    public static <T> AllFlagStates<T> fromJson(InputStream in, Class<T> cls, Compression compression) {
+        return JsonHelper.deserialize(in, JSON_TYPE, compression);
+    }
+
+    /**
+     * build a AllFlagStates from the UTF-8 json of a heap or direct buffer, e.g. a http response body,
+     * without decoding the json into a string first
+     *
+     * @param json UTF-8 json between the position and the limit of the buffer, the position is not changed
+     * @param cls
+     * @param <T>  String/Boolean/Numeric Type
+     * @return a AllFlagStates
+     */
+    public static <T> AllFlagStates<T> fromJson(ByteBuffer json, Class<T> cls) {
+        return JsonHelper.deserialize(json, JSON_TYPE);
+    }
+
+    /**
+     * build a AllFlagStates from json, the flags are decoded in parallel on the {@link ForkJoinPool#commonPool()}.
+     * the result is equal to the one of {@link #fromJson(String, Class)}, a json of a few flags is decoded sequentially
+     *
+     * @param json a string json
+     * @param cls
+     * @param <T>  String/Boolean/Numeric Type
+     * @return a AllFlagStates
+     */
+    public static <T> AllFlagStates<T> fromJsonParallel(String json, Class<T> cls) {
+        return ParallelFlagDecoder.decode(json, cls, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * build a AllFlagStates from json, the flags are decoded in parallel on a given pool.
+     * the result is equal to the one of {@link #fromJson(String, Class)}, a json of a few flags is decoded sequentially
+     *
+     * @param json a string json
+     * @param cls
+     * @param pool the pool decoding the flags
+     * @param <T>  String/Boolean/Numeric Type
+     * @return a AllFlagStates
+     */
+    public static <T> AllFlagStates<T> fromJsonParallel(String json, Class<T> cls, ForkJoinPool pool) {
+        Preconditions.checkNotNull(pool, "pool should not be null");
+        return ParallelFlagDecoder.decode(json, cls, pool);
+    }
+
+    /**
+     * build a AllFlagStates from json on the executor of an {@link AsyncJsonHelper},
+     * so that a large payload doesn't block the calling thread
+     *
+     * @param json  a string json
+     * @param cls
+     * @param async the executor and the limit of pending tasks
+     * @param <T>   String/Boolean/Numeric Type
+     * @return a future of the AllFlagStates
+     */
+    public static <T> CompletableFuture<AllFlagStates<T>> fromJsonAsync(String json, Class<T> cls, AsyncJsonHelper async) {
+        return async.deserialize(json, JSON_TYPE);
+    }
+
+    /**
+     * build a AllFlagStates from compressed UTF-8 json on the executor of an {@link AsyncJsonHelper}
+     *
+     * @param in          an input stream, not closed by this method
+     * @param cls
+     * @param compression the compression of the json
+     * @param async       the executor and the limit of pending tasks
+     * @param <T>         String/Boolean/Numeric Type
+     * @return a future of the AllFlagStates
+     */
+    public static <T> CompletableFuture<AllFlagStates<T>> fromJsonAsync(InputStream in, Class<T> cls, Compression compression, AsyncJsonHelper async) {
+        return async.deserialize(in, JSON_TYPE, compression);
+    }
+
+    /**
+     * apply changes of flags to this snapshot, this snapshot is not modified.
+     * the returned snapshot shares all the unchanged flags and most of the index with this one,
+     * so that the cost depends on the number of changes rather than the number of flags.
+     * a flag updated keeps its position in the data, a new flag is added at the end.
+     *
+     * @param updated         the flags added or updated, which replace the ones having the same key name
+     * @param removedKeyNames the key names of the flags removed, they are removed before the updates are applied
+     * @return a new AllFlagStates, or this one if nothing changes
+     */
+    public AllFlagStates<T> patch(Collection<EvalDetail<T>> updated, Collection<String> removedKeyNames) {
+        HashTrie<EvalDetail<T>> patched = cache;
+        if (removedKeyNames != null) {
+            for (String keyName : removedKeyNames) {
+                patched = patched.remove(keyName);
+            }
+        }
+        if (updated != null) {
+            for (EvalDetail<T> detail : updated) {
+                patched = patched.put(detail.getKeyName(), detail);
+            }
+        }
+        return patched == cache ? this : new AllFlagStates<>(success, message, null, patched);
     }
 
     /**
@@ -80,12 +214,21 @@ public class AllFlagStates<T> extends BasicFlagState implements Serializable {
      */
     public final Map<String, Function<String, EvalDetail<T>>> getData() {
         ImmutableMap.Builder<String, Function<String, EvalDetail<T>>> map = ImmutableMap.builder();
-        for (EvalDetail<T> detail : data) {
+        for (EvalDetail<T> detail : details()) {
             map.put(detail.getKeyName(), this::get);
         }
         return map.build();
     }
 
+    /**
+     * return details of all the flags in their order
+     *
+     * @return an immutable list of {@link EvalDetail}
+     */
+    public final List<EvalDetail<T>> getDetails() {
+        return details();
+    }
+
     /**
      * return a detail of a given flag key name
      *
@@ -93,18 +236,34 @@ public class AllFlagStates<T> extends BasicFlagState implements Serializable {
      * @return an {@link EvalDetail}
      */
     public EvalDetail<T> get(String flagKeyName) {
-        if (cache == null || cache.isEmpty()) {
-            init(data);
-        }
         return cache.get(flagKeyName);
     }
 
+    // 2 threads could build the list at the same time, both get an equal list
+    private List<EvalDetail<T>> details() {
+        List<EvalDetail<T>> list = data;
+        if (list == null) {
+            list = cache.values();
+            data = list;
+        }
+        return list;
+    }
+
+    // serialized by a compact proxy, see Ser
+    private Object writeReplace() {
+        return new Ser(Ser.ALL_FLAG_STATES, this);
+    }
+
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("Serialization proxy required");
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this)
                 .add("success", success)
                 .add("message", message)
-                .add("data", data)
+                .add("data", details())
                 .toString();
     }
 
@@ -113,12 +272,87 @@ public class AllFlagStates<T> extends BasicFlagState implements Serializable {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         AllFlagStates<?> that = (AllFlagStates<?>) o;
-        return Objects.equals(data, that.data) && Objects.equals(message, that.message)
+        return Objects.equals(details(), that.details()) && Objects.equals(message, that.message)
                 && Objects.equals(success, that.success);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(success, message, data);
+        return Objects.hash(success, message, details());
+    }
+
+    static final class AllFlagStatesTypeAdapterFactory implements TypeAdapterFactory {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <R> TypeAdapter<R> create(Gson gson, TypeToken<R> typeToken) {
+            TypeAdapter<?> detailAdapter = gson.getAdapter(detailType(typeToken));
+            return (TypeAdapter<R>) new AllFlagStatesTypeAdapter<>((TypeAdapter<EvalDetail<Object>>) detailAdapter);
+        }
+
+        // the type of the elements of the data array, also used by the parallel decoding
+        static TypeToken<?> detailType(TypeToken<?> typeToken) {
+            return TypeToken.getParameterized(EvalDetail.class, JsonAdapters.typeArgument(typeToken));
+        }
+    }
+
+    static final class AllFlagStatesTypeAdapter<T> extends TypeAdapter<AllFlagStates<T>> {
+        private final TypeAdapter<EvalDetail<T>> detailAdapter;
+
+        AllFlagStatesTypeAdapter(TypeAdapter<EvalDetail<T>> detailAdapter) {
+            this.detailAdapter = detailAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, AllFlagStates<T> allFlagStates) throws IOException {
+            out.beginObject();
+            out.name("data").beginArray();
+            for (EvalDetail<T> detail : allFlagStates.details()) {
+                detailAdapter.write(out, detail);
+            }
+            out.endArray();
+            out.name("success").value(allFlagStates.success);
+            out.name("message").value(allFlagStates.message);
+            out.endObject();
+        }
+
+        /**
+         * the key index is filled in the same pass that reads the flags, so that no list is copied
+         * and the object is ready for lookups when it's returned
+         */
+        @Override
+        public AllFlagStates<T> read(JsonReader in) throws IOException {
+            ImmutableList.Builder<EvalDetail<T>> data = ImmutableList.builder();
+            HashTrie.Builder<EvalDetail<T>> cache = HashTrie.builder();
+            boolean success = false;
+            String message = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "data":
+                        if (in.peek() == JsonToken.NULL) {
+                            in.nextNull();
+                            break;
+                        }
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            EvalDetail<T> detail = detailAdapter.read(in);
+                            data.add(detail);
+                            cache.put(detail.getKeyName(), detail);
+                        }
+                        in.endArray();
+                        break;
+                    case "success":
+                        success = JsonAdapters.nextBoolean(in);
+                        break;
+                    case "message":
+                        message = JsonAdapters.nextString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return new AllFlagStates<>(success, message, data.build(), cache.build());
+        }
     }
 }
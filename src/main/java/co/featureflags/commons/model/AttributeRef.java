@@ -0,0 +1,120 @@
+package co.featureflags.commons.model;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * A user attribute resolved once, e.g. when the rules of a flag are loaded, and read by {@link FFCUser#getProperty(AttributeRef)}
+ * without any map lookup:
+ * a built-in attribute is read by a direct accessor, a custom one by its slot in the sorted custom attributes of the user.
+ * <p>
+ * The users having the same custom attribute names share a layout. The slot is resolved once per layout and kept in a small
+ * table indexed by the hash of the layout, computed when the layout is created, so that a read is an array access and a
+ * reference comparison, without allocation. A layout missing from the table, or colliding with another one, costs a
+ * binary search of the names and one small allocation; the table keeps the slots of up to 8 layouts at best.
+ * <pre><code>
+ *     AttributeRef country = AttributeRef.of("Country");
+ *     String value = user.getProperty(country);
+ * </code></pre>
+ * An AttributeRef is thread-safe and can be shared by all the users.
+ */
+public final class AttributeRef {
+
+    private final String name;
+
+    private final Function<FFCUser, String> builtin;
+
+    private static final int TABLE_SIZE = 8;
+
+    // the slots of the custom attribute by layout, a direct-mapped table indexed by the hash of the layout.
+    // the entries are immutable: a stale entry read by another thread is harmless, the layout is always checked
+    private final Resolution[] resolutions = new Resolution[TABLE_SIZE];
+
+    private AttributeRef(String name, Function<FFCUser, String> builtin) {
+        this.name = name;
+        this.builtin = builtin;
+    }
+
+    /**
+     * resolve a user attribute
+     *
+     * @param attribute a built-in attribute(Name, KeyId, Country, Email) or a custom one
+     * @return an AttributeRef
+     */
+    public static AttributeRef of(String attribute) {
+        Preconditions.checkNotNull(attribute, "attribute should not be null");
+        return new AttributeRef(attribute, FFCUser.BUILTINS.get(attribute));
+    }
+
+    /**
+     * return the name of the attribute
+     *
+     * @return a string
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * return true if the attribute is a built-in one
+     *
+     * @return true if built-in
+     */
+    public boolean isBuiltin() {
+        return builtin != null;
+    }
+
+    String get(FFCUser user) {
+        if (builtin != null) {
+            return builtin.apply(user);
+        }
+        int slot = slot(user);
+        return slot < 0 ? null : user.getCustom(slot);
+    }
+
+    // the slot of the custom attribute in the user, negative if absent or built-in
+    int slot(FFCUser user) {
+        if (builtin != null) {
+            return -1;
+        }
+        FFCUser.Layout layout = user.getLayout();
+        int i = layout.hashCode() & (TABLE_SIZE - 1);
+        Resolution r = resolutions[i];
+        if (r == null || r.layout != layout) {
+            r = new Resolution(layout, layout.find(name));
+            resolutions[i] = r;
+        }
+        return r.slot;
+    }
+
+    private static final class Resolution {
+        private final FFCUser.Layout layout;
+        private final int slot;
+
+        Resolution(FFCUser.Layout layout, int slot) {
+            this.layout = layout;
+            this.slot = slot;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AttributeRef that = (AttributeRef) o;
+        return Objects.equals(name, that.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("name", name).add("builtin", isBuiltin()).toString();
+    }
+}
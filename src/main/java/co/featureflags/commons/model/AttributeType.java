@@ -0,0 +1,131 @@
+package co.featureflags.commons.model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.regex.Pattern;
+
+/**
+ * the type of a custom attribute of {@link FFCUser}.
+ * A typed attribute is parsed once when the user is built, then read by the typed getters of {@link FFCUser}
+ * without parsing nor boxing. Its string form is still returned by {@link FFCUser#getCustom()}.
+ */
+public enum AttributeType {
+    /**
+     * a string, the default
+     */
+    STRING("string"),
+    /**
+     * a 64-bit integer
+     */
+    LONG("long"),
+    /**
+     * a double-precision number
+     */
+    DOUBLE("double"),
+    /**
+     * true or false
+     */
+    BOOLEAN("boolean"),
+    /**
+     * a date and time, stored as milliseconds since the epoch, and written as ISO-8601, e.g. 2024-01-31T10:15:30Z.
+     * It's parsed from milliseconds since the epoch or from ISO-8601: a date time with an offset or a zone,
+     * e.g. 2024-01-31T11:15:30+01:00[Europe/Paris], a local date time or a date, both in UTC
+     */
+    DATETIME("datetime");
+
+    private static final AttributeType[] VALUES = values();
+
+    private static final Pattern EPOCH_MILLIS = Pattern.compile("-?\\d+");
+
+    private final String jsonName;
+
+    AttributeType(String jsonName) {
+        this.jsonName = jsonName;
+    }
+
+    /**
+     * return the name of the type in json
+     *
+     * @return a lower case name
+     */
+    public String getJsonName() {
+        return jsonName;
+    }
+
+    /**
+     * return the type of a json name
+     *
+     * @param jsonName a name returned by {@link #getJsonName()}
+     * @return the type, or {@link #STRING} if the name is unknown
+     */
+    public static AttributeType forJsonName(String jsonName) {
+        for (AttributeType type : VALUES) {
+            if (type.jsonName.equalsIgnoreCase(jsonName)) {
+                return type;
+            }
+        }
+        return STRING;
+    }
+
+    static AttributeType of(byte ordinal) {
+        return VALUES[ordinal];
+    }
+
+    // the primitive value of a string form as raw bits, a double as by Double.doubleToRawLongBits,
+    // throws a RuntimeException if the string form is not a value of this type
+    long parse(String value) {
+        switch (this) {
+            case LONG:
+                return Long.parseLong(value);
+            case DOUBLE:
+                return Double.doubleToRawLongBits(Double.parseDouble(value));
+            case BOOLEAN:
+                if ("true".equalsIgnoreCase(value)) {
+                    return 1L;
+                }
+                if ("false".equalsIgnoreCase(value)) {
+                    return 0L;
+                }
+                throw new IllegalArgumentException("Not a boolean: " + value);
+            case DATETIME:
+                return parseDateTime(value);
+            default:
+                throw new IllegalArgumentException("Not a primitive type: " + this);
+        }
+    }
+
+    private static long parseDateTime(String value) {
+        if (EPOCH_MILLIS.matcher(value).matches()) {
+            return Long.parseLong(value);
+        }
+        if (value.indexOf('T') < 0 && value.indexOf('t') < 0) {
+            return LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+        }
+        TemporalAccessor dateTime = DateTimeFormatter.ISO_DATE_TIME.parseBest(value, ZonedDateTime::from, LocalDateTime::from);
+        Instant instant = dateTime instanceof ZonedDateTime
+                ? ((ZonedDateTime) dateTime).toInstant()
+                : ((LocalDateTime) dateTime).toInstant(ZoneOffset.UTC);
+        return instant.toEpochMilli();
+    }
+
+    // the string form of a primitive value
+    String format(long bits) {
+        switch (this) {
+            case LONG:
+                return Long.toString(bits);
+            case DOUBLE:
+                return Double.toString(Double.longBitsToDouble(bits));
+            case BOOLEAN:
+                return bits != 0 ? "true" : "false";
+            case DATETIME:
+                return Instant.ofEpochMilli(bits).toString();
+            default:
+                throw new IllegalArgumentException("Not a primitive type: " + this);
+        }
+    }
+}
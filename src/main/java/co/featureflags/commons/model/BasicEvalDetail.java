@@ -0,0 +1,125 @@
+package co.featureflags.commons.model;
+
+import co.featureflags.commons.json.JsonHelper;
+import co.featureflags.commons.json.JsonProfile;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Serializable;
+
+/**
+ * the abstract class of the primitive specialized {@link EvalDetail}: {@link BooleanEvalDetail}, {@link LongEvalDetail}
+ * and {@link DoubleEvalDetail}, which contains everything but the flag value.
+ * The subclasses hold the flag value as a primitive and have the same json form as {@link EvalDetail}
+ */
+public abstract class BasicEvalDetail implements Serializable {
+
+    protected final int id;
+
+    protected final String reason;
+
+    protected final String name;
+
+    protected final String keyName;
+
+    protected BasicEvalDetail(int id, String reason, String keyName, String name) {
+        this.id = id;
+        this.reason = reason;
+        this.keyName = keyName;
+        this.name = name;
+    }
+
+    /**
+     * The id of the returned value within the flag's list of variations
+     * In fact this value is an index, e.g. 0 for the first variation
+     * this value is only for internal use
+     *
+     * @return a integer value
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * get the reason that evaluate the flag value.
+     *
+     * @return a string
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * name of the flag associated
+     *
+     * @return a string
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * key name of the flag associated
+     *
+     * @return a string
+     */
+    public String getKeyName() {
+        return keyName;
+    }
+
+    /**
+     * Returns true if the flag evaluation returned a good value,
+     * false if the default value returned
+     *
+     * @return Returns true if the flag evaluation returned a good value, false if the default value returned
+     */
+    public boolean isSuccess() {
+        return id >= 0;
+    }
+
+    /**
+     * object converted to json string
+     *
+     * @return a json string
+     */
+    public String jsonfy() {
+        return JsonHelper.serialize(this);
+    }
+
+    /**
+     * object converted to json string with a given json profile
+     *
+     * @param profile json profile
+     * @return a json string
+     */
+    public String jsonfy(JsonProfile profile) {
+        return JsonHelper.serialize(this, profile);
+    }
+
+    /**
+     * object written as json to a writer or a reusable buffer like {@link StringBuilder}
+     *
+     * @param writer a {@link java.io.Writer} or any other {@link Appendable}, not closed by this method
+     */
+    public void jsonfy(Appendable writer) {
+        JsonHelper.serialize(this, writer);
+    }
+
+    /**
+     * object written as UTF-8 json to an output stream
+     *
+     * @param out an output stream, flushed but not closed by this method
+     */
+    public void jsonfy(OutputStream out) {
+        JsonHelper.serialize(this, out);
+    }
+
+    /**
+     * object written as UTF-8 json to a print stream, e.g. {@link System#out}, whatever the charset of the print stream
+     *
+     * @param out a print stream, flushed but not closed by this method
+     */
+    public void jsonfy(PrintStream out) {
+        JsonHelper.serialize(this, out);
+    }
+}
@@ -1,6 +1,13 @@
 package co.featureflags.commons.model;
 
+import co.featureflags.commons.json.AsyncJsonHelper;
+import co.featureflags.commons.json.Compression;
 import co.featureflags.commons.json.JsonHelper;
+import co.featureflags.commons.json.JsonProfile;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * the abstract class of feature flag state, which contains 2 property:
@@ -42,4 +49,73 @@ public abstract class BasicFlagState {
     public String jsonfy() {
         return JsonHelper.serialize(this);
     }
+
+    /**
+     * object converted to json string with a given json profile
+     *
+     * @param profile json profile
+     * @return a json string
+     */
+    public String jsonfy(JsonProfile profile) {
+        return JsonHelper.serialize(this, profile);
+    }
+
+    /**
+     * object written as json to a writer or a reusable buffer like {@link StringBuilder}
+     *
+     * @param writer a {@link java.io.Writer} or any other {@link Appendable}, not closed by this method
+     */
+    public void jsonfy(Appendable writer) {
+        JsonHelper.serialize(this, writer);
+    }
+
+    /**
+     * object written as UTF-8 json to an output stream
+     *
+     * @param out an output stream, flushed but not closed by this method
+     */
+    public void jsonfy(OutputStream out) {
+        JsonHelper.serialize(this, out);
+    }
+
+    /**
+     * object written as UTF-8 json to a print stream, e.g. {@link System#out}, whatever the charset of the print stream
+     *
+     * @param out a print stream, flushed but not closed by this method
+     */
+    public void jsonfy(PrintStream out) {
+        JsonHelper.serialize(this, out);
+    }
+
+    /**
+     * object written as compressed UTF-8 json to an output stream
+     *
+     * @param out         an output stream, flushed but not closed by this method
+     * @param compression the compression of the json
+     */
+    public void jsonfy(OutputStream out, Compression compression) {
+        JsonHelper.serialize(this, out, compression);
+    }
+
+    /**
+     * object converted to json string on the executor of an {@link AsyncJsonHelper}
+     *
+     * @param async the executor and the limit of pending tasks
+     * @return a future of the json string
+     */
+    public CompletableFuture<String> jsonfyAsync(AsyncJsonHelper async) {
+        return async.serialize(this);
+    }
+
+    /**
+     * object written as compressed UTF-8 json to an output stream on the executor of an {@link AsyncJsonHelper}
+     *
+     * @param out         an output stream, flushed but not closed by this method
+     * @param compression the compression of the json
+     * @param async       the executor and the limit of pending tasks
+     * @return a future completed when the json is written
+     */
+    public CompletableFuture<Void> jsonfyAsync(OutputStream out, Compression compression, AsyncJsonHelper async) {
+        return async.serialize(this, out, compression);
+    }
 }
@@ -0,0 +1,186 @@
+package co.featureflags.commons.model;
+
+import co.featureflags.commons.json.JsonArrayReader;
+import co.featureflags.commons.json.JsonArrayWriter;
+import co.featureflags.commons.json.JsonHelper;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Serializable;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.util.Objects;
+
+/**
+ * an entry of a batch response: the flag values of a user, in answer to a {@link BatchVariationParams}.
+ * <p>
+ * A batch is a json array of entries in the order of the request, streamed entry by entry so that its size doesn't matter:
+ * <pre><code>
+ *     try (JsonArrayReader&lt;BatchFlagStates&lt;String&gt;&gt; reader = BatchFlagStates.reader(in, String.class)) {
+ *         while (reader.hasNext()) {
+ *             BatchFlagStates&lt;String&gt; states = reader.next();
+ *             ...
+ *         }
+ *     }
+ * </code></pre>
+ *
+ * @param <T> String/Boolean/Numeric Type
+ */
+@JsonAdapter(BatchFlagStates.BatchFlagStatesTypeAdapterFactory.class)
+public final class BatchFlagStates<T> implements Serializable {
+    private final String userKeyId;
+    private final AllFlagStates<T> data;
+
+    private BatchFlagStates(String userKeyId, AllFlagStates<T> data) {
+        this.userKeyId = userKeyId;
+        this.data = Preconditions.checkNotNull(data, "data should not null");
+    }
+
+    /**
+     * build an entry of a batch response
+     *
+     * @param userKeyId the key of the user
+     * @param data      the flag values of the user
+     * @param <T>       String/Boolean/Numeric Type
+     * @return a BatchFlagStates
+     */
+    public static <T> BatchFlagStates<T> of(String userKeyId, AllFlagStates<T> data) {
+        return new BatchFlagStates<>(userKeyId, data);
+    }
+
+    /**
+     * read a batch from a json array, entry by entry
+     *
+     * @param reader Json Reader, closed by {@link JsonArrayReader#close()}
+     * @param cls    type of the flag values
+     * @param <T>    String/Boolean/Numeric Type
+     * @return an iterator over the entries
+     */
+    public static <T> JsonArrayReader<BatchFlagStates<T>> reader(Reader reader, Class<T> cls) {
+        return JsonHelper.arrayReader(reader, type(cls));
+    }
+
+    /**
+     * write a batch as a json array, entry by entry
+     *
+     * @param writer a writer, flushed but not closed by {@link JsonArrayWriter#close()}
+     * @param cls    type of the flag values
+     * @param <T>    String/Boolean/Numeric Type
+     * @return a writer of the entries
+     */
+    public static <T> JsonArrayWriter<BatchFlagStates<T>> writer(Writer writer, Class<T> cls) {
+        return JsonHelper.arrayWriter(writer, type(cls));
+    }
+
+    /**
+     * write a batch as a UTF-8 json array, entry by entry
+     *
+     * @param out an output stream, flushed but not closed by {@link JsonArrayWriter#close()}
+     * @param cls type of the flag values
+     * @param <T> String/Boolean/Numeric Type
+     * @return a writer of the entries
+     */
+    public static <T> JsonArrayWriter<BatchFlagStates<T>> writer(OutputStream out, Class<T> cls) {
+        return JsonHelper.arrayWriter(out, type(cls));
+    }
+
+    private static Type type(Class<?> cls) {
+        return TypeToken.getParameterized(BatchFlagStates.class, cls).getType();
+    }
+
+    /**
+     * return the key of the user
+     *
+     * @return a string
+     */
+    public String getUserKeyId() {
+        return userKeyId;
+    }
+
+    /**
+     * return the flag values of the user
+     *
+     * @return {@link AllFlagStates}
+     */
+    public AllFlagStates<T> getData() {
+        return data;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BatchFlagStates<?> that = (BatchFlagStates<?>) o;
+        return Objects.equals(userKeyId, that.userKeyId) && Objects.equals(data, that.data);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hashCode(userKeyId) + data.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("userKeyId", userKeyId)
+                .add("data", data)
+                .toString();
+    }
+
+    static final class BatchFlagStatesTypeAdapterFactory implements TypeAdapterFactory {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <R> TypeAdapter<R> create(Gson gson, TypeToken<R> typeToken) {
+            TypeAdapter<?> dataAdapter = gson.getAdapter(TypeToken.getParameterized(AllFlagStates.class, JsonAdapters.typeArgument(typeToken)));
+            return (TypeAdapter<R>) new BatchFlagStatesTypeAdapter<>((TypeAdapter<AllFlagStates<Object>>) dataAdapter);
+        }
+    }
+
+    static final class BatchFlagStatesTypeAdapter<T> extends TypeAdapter<BatchFlagStates<T>> {
+        private final TypeAdapter<AllFlagStates<T>> dataAdapter;
+
+        BatchFlagStatesTypeAdapter(TypeAdapter<AllFlagStates<T>> dataAdapter) {
+            this.dataAdapter = dataAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, BatchFlagStates<T> states) throws IOException {
+            out.beginObject();
+            out.name("userKeyId").value(states.userKeyId);
+            out.name("data");
+            dataAdapter.write(out, states.data);
+            out.endObject();
+        }
+
+        @Override
+        public BatchFlagStates<T> read(JsonReader in) throws IOException {
+            String userKeyId = null;
+            AllFlagStates<T> data = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "userKeyId":
+                        userKeyId = JsonAdapters.nextString(in);
+                        break;
+                    case "data":
+                        data = dataAdapter.read(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return new BatchFlagStates<>(userKeyId, data == null ? AllFlagStates.empty(null) : data);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package co.featureflags.commons.model;
+
+import co.featureflags.commons.json.JsonArrayReader;
+import co.featureflags.commons.json.JsonArrayWriter;
+import co.featureflags.commons.json.JsonHelper;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Serializable;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * an entry of a batch request: a user and the flags to evaluate for this user, all the flags if none is given.
+ * <p>
+ * A batch is a json array of entries, streamed entry by entry so that its size doesn't matter:
+ * <pre><code>
+ *     try (JsonArrayWriter&lt;BatchVariationParams&gt; writer = BatchVariationParams.writer(out)) {
+ *         for (FFCUser user : users) {
+ *             writer.write(BatchVariationParams.of(user, flagKeyNames));
+ *         }
+ *     }
+ * </code></pre>
+ * the results are returned in the same order as {@link BatchFlagStates}
+ */
+@JsonAdapter(BatchVariationParams.BatchVariationParamsTypeAdapter.class)
+public final class BatchVariationParams implements Serializable {
+    private final FFCUser user;
+    private final List<String> featureFlagKeyNames;
+
+    private BatchVariationParams(FFCUser user, List<String> featureFlagKeyNames) {
+        Preconditions.checkNotNull(user, "user should not null");
+        this.user = user;
+        this.featureFlagKeyNames = featureFlagKeyNames;
+    }
+
+    /**
+     * build an entry to evaluate some flags for a user
+     *
+     * @param user                {@link FFCUser}
+     * @param featureFlagKeyNames flag key names, all the flags if null or empty
+     * @return a BatchVariationParams object
+     */
+    public static BatchVariationParams of(FFCUser user, Collection<String> featureFlagKeyNames) {
+        ImmutableList.Builder<String> names = ImmutableList.builder();
+        if (featureFlagKeyNames != null) {
+            for (String name : featureFlagKeyNames) {
+                if (StringUtils.isNotBlank(name)) {
+                    names.add(name);
+                }
+            }
+        }
+        return new BatchVariationParams(user, names.build());
+    }
+
+    /**
+     * build an entry to evaluate all the flags for a user
+     *
+     * @param user {@link FFCUser}
+     * @return a BatchVariationParams object
+     */
+    public static BatchVariationParams of(FFCUser user) {
+        return new BatchVariationParams(user, ImmutableList.of());
+    }
+
+    /**
+     * read a batch from a json array, entry by entry
+     *
+     * @param reader Json Reader, closed by {@link JsonArrayReader#close()}
+     * @return an iterator over the entries
+     */
+    public static JsonArrayReader<BatchVariationParams> reader(Reader reader) {
+        return JsonHelper.arrayReader(reader, BatchVariationParams.class);
+    }
+
+    /**
+     * write a batch as a json array, entry by entry
+     *
+     * @param writer a writer, flushed but not closed by {@link JsonArrayWriter#close()}
+     * @return a writer of the entries
+     */
+    public static JsonArrayWriter<BatchVariationParams> writer(Writer writer) {
+        return JsonHelper.arrayWriter(writer, BatchVariationParams.class);
+    }
+
+    /**
+     * write a batch as a UTF-8 json array, entry by entry
+     *
+     * @param out an output stream, flushed but not closed by {@link JsonArrayWriter#close()}
+     * @return a writer of the entries
+     */
+    public static JsonArrayWriter<BatchVariationParams> writer(OutputStream out) {
+        return JsonHelper.arrayWriter(out, BatchVariationParams.class);
+    }
+
+    /**
+     * return a {@link FFCUser}
+     *
+     * @return a {@link FFCUser}
+     */
+    public FFCUser getUser() {
+        return user;
+    }
+
+    /**
+     * return the flag key names
+     *
+     * @return an immutable list, empty if all the flags are needed
+     */
+    public List<String> getFeatureFlagKeyNames() {
+        return featureFlagKeyNames;
+    }
+
+    /**
+     * if need all flags
+     *
+     * @return true if no flag key name is present
+     */
+    public boolean isNeedAll() {
+        return featureFlagKeyNames.isEmpty();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BatchVariationParams params = (BatchVariationParams) o;
+        return Objects.equals(user, params.user) && Objects.equals(featureFlagKeyNames, params.featureFlagKeyNames);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * user.hashCode() + featureFlagKeyNames.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("user", user)
+                .add("featureFlagKeyNames", featureFlagKeyNames)
+                .toString();
+    }
+
+    /**
+     * an entry is written as a {@link VariationParams}, the user members are the same, with the list of the flag key names
+     */
+    static final class BatchVariationParamsTypeAdapter extends TypeAdapter<BatchVariationParams> {
+        @Override
+        public void write(JsonWriter out, BatchVariationParams params) throws IOException {
+            out.beginObject();
+            out.name("userKeyId").value(params.user.getKey());
+            VariationParams.VariationParamsTypeAdapter.writeUserAttributes(out, params.user);
+            if (!params.featureFlagKeyNames.isEmpty()) {
+                out.name("featureFlagKeyNames").beginArray();
+                for (String name : params.featureFlagKeyNames) {
+                    out.value(name);
+                }
+                out.endArray();
+            }
+            out.endObject();
+        }
+
+        @Override
+        public BatchVariationParams read(JsonReader in) throws IOException {
+            FFCUser.Builder user = new FFCUser.Builder("");
+            ImmutableList.Builder<String> names = ImmutableList.builder();
+            in.beginObject();
+            while (in.hasNext()) {
+                String member = in.nextName();
+                if (member.equals("featureFlagKeyNames")) {
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                        continue;
+                    }
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        String name = JsonAdapters.nextString(in);
+                        if (StringUtils.isNotBlank(name)) {
+                            names.add(name);
+                        }
+                    }
+                    in.endArray();
+                } else if (!VariationParams.VariationParamsTypeAdapter.readUserMember(member, in, user)) {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            try {
+                return new BatchVariationParams(user.build(), names.build());
+            } catch (IllegalArgumentException e) {
+                throw new IOException("invalid user in a batch entry", e);
+            }
+        }
+    }
+}
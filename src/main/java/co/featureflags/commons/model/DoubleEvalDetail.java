@@ -0,0 +1,156 @@
+package co.featureflags.commons.model;
+
+import co.featureflags.commons.json.JsonHelper;
+import com.google.common.base.MoreObjects;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * An {@link EvalDetail} of a number flag, the flag value is kept as a primitive double and is never boxed.
+ * This object has the same json form as {@link EvalDetail}&lt;Double&gt;
+ */
+@JsonAdapter(DoubleEvalDetail.DoubleEvalDetailTypeAdapter.class)
+public final class DoubleEvalDetail extends BasicEvalDetail {
+
+    private final double variation;
+
+    private DoubleEvalDetail(double variation,
+                             int id,
+                             String reason,
+                             String keyName,
+                             String name) {
+        super(id, reason, keyName, name);
+        this.variation = variation;
+    }
+
+    /**
+     * build method, this method is only for internal use
+     *
+     * @param variation
+     * @param id
+     * @param reason
+     * @param keyName
+     * @param name
+     * @return a DoubleEvalDetail
+     */
+    public static DoubleEvalDetail of(double variation,
+                                      int id,
+                                      String reason,
+                                      String keyName,
+                                      String name) {
+        return new DoubleEvalDetail(variation, id, reason, keyName, name);
+    }
+
+    /**
+     * build the object from a json string of {@link EvalDetail}&lt;Double&gt;, this method is only for internal use
+     *
+     * @param json a json string
+     * @return a DoubleEvalDetail
+     */
+    public static DoubleEvalDetail fromJson(String json) {
+        return JsonHelper.deserialize(json, DoubleEvalDetail.class);
+    }
+
+    /**
+     * return a feature flag evaluation value
+     *
+     * @return the flag value
+     */
+    public double getVariation() {
+        return variation;
+    }
+
+    /**
+     * convert to a generic {@link EvalDetail}, the flag value is boxed
+     *
+     * @return an EvalDetail
+     */
+    public EvalDetail<Double> toEvalDetail() {
+        return EvalDetail.of(variation, id, reason, keyName, name);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DoubleEvalDetail that = (DoubleEvalDetail) o;
+        return Double.compare(variation, that.variation) == 0 && id == that.id && Objects.equals(reason, that.reason) && Objects.equals(name, that.name) && Objects.equals(keyName, that.keyName);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Double.hashCode(variation);
+        result = 31 * result + id;
+        result = 31 * result + Objects.hashCode(reason);
+        result = 31 * result + Objects.hashCode(name);
+        result = 31 * result + Objects.hashCode(keyName);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("variation", variation)
+                .add("id", id)
+                .add("reason", reason)
+                .add("name", name)
+                .add("keyName", keyName)
+                .toString();
+    }
+
+    static final class DoubleEvalDetailTypeAdapter extends TypeAdapter<DoubleEvalDetail> {
+        @Override
+        public void write(JsonWriter out, DoubleEvalDetail detail) throws IOException {
+            out.beginObject();
+            out.name("variation").value(detail.variation);
+            out.name("id").value(detail.id);
+            out.name("reason").value(detail.reason);
+            out.name("name").value(detail.name);
+            out.name("keyName").value(detail.keyName);
+            out.endObject();
+        }
+
+        @Override
+        public DoubleEvalDetail read(JsonReader in) throws IOException {
+            double variation = 0D;
+            int id = 0;
+            String reason = null;
+            String name = null;
+            String keyName = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "variation":
+                        if (in.peek() == JsonToken.NULL) {
+                            in.nextNull();
+                        } else {
+                            variation = in.nextDouble();
+                        }
+                        break;
+                    case "id":
+                        id = JsonAdapters.nextInt(in);
+                        break;
+                    case "reason":
+                        reason = Interning.intern(JsonAdapters.nextString(in));
+                        break;
+                    case "name":
+                        name = Interning.intern(JsonAdapters.nextString(in));
+                        break;
+                    case "keyName":
+                        keyName = Interning.intern(JsonAdapters.nextString(in));
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return Interning.intern(new DoubleEvalDetail(variation, id, reason, keyName, name));
+        }
+    }
+}
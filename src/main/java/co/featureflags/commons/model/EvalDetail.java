@@ -1,12 +1,27 @@
 package co.featureflags.commons.model;
 
+import co.featureflags.commons.json.AsyncJsonHelper;
 import co.featureflags.commons.json.JsonHelper;
+import co.featureflags.commons.json.JsonProfile;
 import com.google.common.base.MoreObjects;
-import com.google.common.reflect.TypeToken;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
 import java.io.Serializable;
 import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * An object combines the result of a flag evaluation with an explanation of how it was calculated.
@@ -14,10 +29,15 @@ import java.util.Objects;
  *
  * @param <T> - String/Boolean/Numeric Type
  */
+@JsonAdapter(EvalDetail.EvalDetailTypeAdapterFactory.class)
 public final class EvalDetail<T> implements Serializable {
 
     private static final int NO_VARIATION = -1;
 
+    // the type decoded by all the fromJson methods: the variations are decoded as Object whatever the given class,
+    // a json boolean as a Boolean, a number as a Double and a string as a String
+    static final Type JSON_TYPE = TypeToken.getParameterized(EvalDetail.class, Object.class).getType();
+
     private final T variation;
 
     private final int id;
@@ -68,9 +88,32 @@ public final class EvalDetail<T> implements Serializable {
      * @return an EvalDetail
      */
     public static <T> EvalDetail<T> fromJson(String json, Class<T> cls) {
-        Type type = new TypeToken<EvalDetail<T>>() {
-        }.getType();
-        return JsonHelper.deserialize(json, type);
+        return JsonHelper.deserialize(json, JSON_TYPE);
+    }
+
+    /**
+     * build the method from the UTF-8 json of a heap or direct buffer, this method is only for internal use
+     *
+     * @param json UTF-8 json between the position and the limit of the buffer, the position is not changed
+     * @param cls
+     * @param <T>  String/Boolean/Numeric Type
+     * @return an EvalDetail
+     */
+    public static <T> EvalDetail<T> fromJson(ByteBuffer json, Class<T> cls) {
+        return JsonHelper.deserialize(json, JSON_TYPE);
+    }
+
+    /**
+     * build the method from a json string on the executor of an {@link AsyncJsonHelper}, this method is only for internal use
+     *
+     * @param json  a string json
+     * @param cls
+     * @param async the executor and the limit of pending tasks
+     * @param <T>   String/Boolean/Numeric Type
+     * @return a future of the EvalDetail
+     */
+    public static <T> CompletableFuture<EvalDetail<T>> fromJsonAsync(String json, Class<T> cls, AsyncJsonHelper async) {
+        return async.deserialize(json, JSON_TYPE);
     }
 
     /**
@@ -139,6 +182,62 @@ public final class EvalDetail<T> implements Serializable {
         return JsonHelper.serialize(this);
     }
 
+    /**
+     * object converted to json string with a given json profile
+     *
+     * @param profile json profile
+     * @return a json string
+     */
+    public String jsonfy(JsonProfile profile) {
+        return JsonHelper.serialize(this, profile);
+    }
+
+    /**
+     * object written as json to a writer or a reusable buffer like {@link StringBuilder}
+     *
+     * @param writer a {@link java.io.Writer} or any other {@link Appendable}, not closed by this method
+     */
+    public void jsonfy(Appendable writer) {
+        JsonHelper.serialize(this, writer);
+    }
+
+    /**
+     * object written as UTF-8 json to an output stream
+     *
+     * @param out an output stream, flushed but not closed by this method
+     */
+    public void jsonfy(OutputStream out) {
+        JsonHelper.serialize(this, out);
+    }
+
+    /**
+     * object written as UTF-8 json to a print stream, e.g. {@link System#out}, whatever the charset of the print stream
+     *
+     * @param out a print stream, flushed but not closed by this method
+     */
+    public void jsonfy(PrintStream out) {
+        JsonHelper.serialize(this, out);
+    }
+
+    /**
+     * object converted to json string on the executor of an {@link AsyncJsonHelper}
+     *
+     * @param async the executor and the limit of pending tasks
+     * @return a future of the json string
+     */
+    public CompletableFuture<String> jsonfyAsync(AsyncJsonHelper async) {
+        return async.serialize(this);
+    }
+
+    // serialized by a compact proxy, see Ser
+    private Object writeReplace() {
+        return new Ser(Ser.EVAL_DETAIL, this);
+    }
+
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("Serialization proxy required");
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -149,7 +248,12 @@ public final class EvalDetail<T> implements Serializable {
 
     @Override
     public int hashCode() {
-        return Objects.hash(variation, id, reason, name, keyName);
+        // same value as Objects.hash(variation, id, reason, name, keyName) without the varargs array
+        int result = 31 + Objects.hashCode(variation);
+        result = 31 * result + id;
+        result = 31 * result + Objects.hashCode(reason);
+        result = 31 * result + Objects.hashCode(name);
+        return 31 * result + Objects.hashCode(keyName);
     }
 
     @Override
@@ -167,4 +271,66 @@ public final class EvalDetail<T> implements Serializable {
         return FlagState.of(this);
     }
 
+    static final class EvalDetailTypeAdapterFactory implements TypeAdapterFactory {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <R> TypeAdapter<R> create(Gson gson, TypeToken<R> typeToken) {
+            TypeAdapter<?> variationAdapter = gson.getAdapter(TypeToken.get(JsonAdapters.typeArgument(typeToken)));
+            return (TypeAdapter<R>) new EvalDetailTypeAdapter<>((TypeAdapter<Object>) variationAdapter);
+        }
+    }
+
+    static final class EvalDetailTypeAdapter<T> extends TypeAdapter<EvalDetail<T>> {
+        private final TypeAdapter<T> variationAdapter;
+
+        EvalDetailTypeAdapter(TypeAdapter<T> variationAdapter) {
+            this.variationAdapter = variationAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, EvalDetail<T> detail) throws IOException {
+            out.beginObject();
+            out.name("variation");
+            variationAdapter.write(out, detail.variation);
+            out.name("id").value(detail.id);
+            out.name("reason").value(detail.reason);
+            out.name("name").value(detail.name);
+            out.name("keyName").value(detail.keyName);
+            out.endObject();
+        }
+
+        @Override
+        public EvalDetail<T> read(JsonReader in) throws IOException {
+            T variation = null;
+            int id = 0;
+            String reason = null;
+            String name = null;
+            String keyName = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "variation":
+                        variation = variationAdapter.read(in);
+                        break;
+                    case "id":
+                        id = JsonAdapters.nextInt(in);
+                        break;
+                    case "reason":
+                        reason = Interning.intern(JsonAdapters.nextString(in));
+                        break;
+                    case "name":
+                        name = Interning.intern(JsonAdapters.nextString(in));
+                        break;
+                    case "keyName":
+                        keyName = Interning.intern(JsonAdapters.nextString(in));
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return Interning.intern(new EvalDetail<>(variation, id, reason, keyName, name));
+        }
+    }
+
 }
@@ -2,12 +2,29 @@ package co.featureflags.commons.model;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.StringUtils;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.Function;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -19,7 +36,7 @@ import static com.google.common.base.Preconditions.checkArgument;
  * All other built-in properties are optional, it's strongly recommended to set userName in order to search your user quickly
  * You may also define custom properties with arbitrary names and values.
  */
-
+@JsonAdapter(FFCUser.FFCUserTypeAdapter.class)
 public final class FFCUser implements Serializable {
 
     private final static Function<FFCUser, String> USERNAME = u -> u.userName;
@@ -27,31 +44,49 @@ public final class FFCUser implements Serializable {
     private final static Function<FFCUser, String> KEY = u -> u.key;
     private final static Function<FFCUser, String> COUNTRY = u -> u.country;
 
-    private final static Map<String, Function<FFCUser, String>> BUILTINS = ImmutableMap.of("Name", USERNAME, "KeyId", KEY, "Country", COUNTRY, "Email", EMAIL);
+    private final static byte FINGERPRINT_VERSION = 1;
+
+    final static Map<String, Function<FFCUser, String>> BUILTINS = ImmutableMap.of("Name", USERNAME, "KeyId", KEY, "Country", COUNTRY, "Email", EMAIL);
 
 
     private final String userName;
     private final String email;
     private final String key;
     private final String country;
-    //TODO property for generic type
-    private final Map<String, String> custom;
+    // the custom attributes sorted by name, read by slot with an AttributeRef
+    private final Layout layout;
+    private final String[] customValues;
+    // the AttributeType ordinals and the primitive values of the custom attributes, both null if all are strings
+    private final byte[] customTypes;
+    private final long[] customBits;
+
+    // computed at the first use, 0 if not yet computed: a racy computation gives an equal value
+    private transient int hash;
+    private transient long fingerprint;
+
 
+    /**
+     * @param layout       the sorted names of the custom attributes, without built-in ones
+     * @param customValues the values of the custom attributes in the order of the layout, not null
+     */
+    FFCUser(String key, String userName, String email, String country, Layout layout, String[] customValues) {
+        this(key, userName, email, country, layout, customValues, null, null);
+    }
 
-    private FFCUser(Builder builder) {
-        String key = builder.key;
+    /**
+     * @param customTypes the {@link AttributeType} ordinals of the custom attributes, null if all are strings
+     * @param customBits  the primitive values of the typed custom attributes, null if all are strings
+     */
+    FFCUser(String key, String userName, String email, String country, Layout layout, String[] customValues, byte[] customTypes, long[] customBits) {
         checkArgument(StringUtils.isNotBlank(key), "Key shouldn't be empty");
         this.key = key;
-        this.email = builder.email == null ? "" : builder.email;
-        this.userName = builder.userName == null ? "" : builder.userName;
-        this.country = builder.country == null ? "" : builder.country;
-        ImmutableMap.Builder<String, String> map = ImmutableMap.builder();
-        for (Map.Entry<String, String> entry : builder.custom.entrySet()) {
-            if (!BUILTINS.containsKey(entry.getKey())) {
-                map.put(entry.getKey(), entry.getValue());
-            }
-        }
-        this.custom = map.build();
+        this.email = email == null ? "" : email;
+        this.userName = userName == null ? "" : userName;
+        this.country = country == null ? "" : country;
+        this.layout = layout;
+        this.customValues = customValues;
+        this.customTypes = customTypes;
+        this.customBits = customBits;
     }
 
     /**
@@ -59,6 +94,7 @@ public final class FFCUser implements Serializable {
      *
      * @param tags a list of user tags
      * @return a FFCUser
+     * @see UserTagPlan UserTagPlan, to map the user tags of a fixed configuration without parsing them at each call
      */
     public static FFCUser of(Map<UserTag, String> tags) {
         Builder builder = new Builder("");
@@ -130,12 +166,13 @@ public final class FFCUser implements Serializable {
     }
 
     /**
-     * Returns a map of all custom attributes set for this user
+     * Returns a map of all custom attributes set for this user, sorted by name.
+     * The map is a view of the attributes of the user, nothing is copied
      *
      * @return a map, note that this map is readonly
      */
     public Map<String, String> getCustom() {
-        return custom;
+        return new CustomMap(layout.keys, customValues);
     }
 
     /**
@@ -148,27 +185,513 @@ public final class FFCUser implements Serializable {
     public String getProperty(String attribute) {
         Function<FFCUser, String> f = BUILTINS.get(attribute);
         if (f == null) {
-            return custom.get(attribute);
+            int slot = layout.find(attribute);
+            return slot < 0 ? null : customValues[slot];
         }
         return f.apply(this);
     }
 
+    /**
+     * Gets the value of a user attribute resolved by {@link AttributeRef#of(String)}, if present.
+     * Unlike {@link #getProperty(String)}, no map lookup is done
+     *
+     * @param attribute the attribute to get
+     * @return the attribute value or null
+     */
+    public String getProperty(AttributeRef attribute) {
+        return attribute.get(this);
+    }
+
+    /**
+     * return the type of a custom attribute
+     *
+     * @param name the name of the custom attribute
+     * @return the type, or null if the user doesn't have this attribute
+     */
+    public AttributeType getCustomType(String name) {
+        int slot = layout.find(name);
+        return slot < 0 ? null : typeAt(slot);
+    }
+
+    /**
+     * return the value of a {@link AttributeType#LONG} custom attribute, without parsing nor boxing
+     *
+     * @param name         the name of the custom attribute
+     * @param defaultValue the value returned if the attribute is absent or not a long
+     * @return the value
+     */
+    public long getCustomLong(String name, long defaultValue) {
+        return longAt(layout.find(name), defaultValue);
+    }
+
+    /**
+     * return the value of a {@link AttributeType#LONG} custom attribute resolved by {@link AttributeRef#of(String)}
+     *
+     * @param attribute    the custom attribute
+     * @param defaultValue the value returned if the attribute is absent or not a long
+     * @return the value
+     */
+    public long getCustomLong(AttributeRef attribute, long defaultValue) {
+        return longAt(attribute.slot(this), defaultValue);
+    }
+
+    /**
+     * return the value of a {@link AttributeType#DOUBLE} or {@link AttributeType#LONG} custom attribute,
+     * without parsing nor boxing
+     *
+     * @param name         the name of the custom attribute
+     * @param defaultValue the value returned if the attribute is absent or not a number
+     * @return the value
+     */
+    public double getCustomDouble(String name, double defaultValue) {
+        return doubleAt(layout.find(name), defaultValue);
+    }
+
+    /**
+     * return the value of a {@link AttributeType#DOUBLE} or {@link AttributeType#LONG} custom attribute
+     * resolved by {@link AttributeRef#of(String)}
+     *
+     * @param attribute    the custom attribute
+     * @param defaultValue the value returned if the attribute is absent or not a number
+     * @return the value
+     */
+    public double getCustomDouble(AttributeRef attribute, double defaultValue) {
+        return doubleAt(attribute.slot(this), defaultValue);
+    }
+
+    /**
+     * return the value of a {@link AttributeType#BOOLEAN} custom attribute, without parsing nor boxing
+     *
+     * @param name         the name of the custom attribute
+     * @param defaultValue the value returned if the attribute is absent or not a boolean
+     * @return the value
+     */
+    public boolean getCustomBoolean(String name, boolean defaultValue) {
+        return booleanAt(layout.find(name), defaultValue);
+    }
+
+    /**
+     * return the value of a {@link AttributeType#BOOLEAN} custom attribute resolved by {@link AttributeRef#of(String)}
+     *
+     * @param attribute    the custom attribute
+     * @param defaultValue the value returned if the attribute is absent or not a boolean
+     * @return the value
+     */
+    public boolean getCustomBoolean(AttributeRef attribute, boolean defaultValue) {
+        return booleanAt(attribute.slot(this), defaultValue);
+    }
+
+    /**
+     * return the value of a {@link AttributeType#DATETIME} custom attribute in milliseconds since the epoch,
+     * without parsing nor boxing
+     *
+     * @param name         the name of the custom attribute
+     * @param defaultValue the value returned if the attribute is absent or not a datetime
+     * @return the value
+     */
+    public long getCustomDateTime(String name, long defaultValue) {
+        return dateTimeAt(layout.find(name), defaultValue);
+    }
+
+    /**
+     * return the value of a {@link AttributeType#DATETIME} custom attribute resolved by {@link AttributeRef#of(String)},
+     * in milliseconds since the epoch
+     *
+     * @param attribute    the custom attribute
+     * @param defaultValue the value returned if the attribute is absent or not a datetime
+     * @return the value
+     */
+    public long getCustomDateTime(AttributeRef attribute, long defaultValue) {
+        return dateTimeAt(attribute.slot(this), defaultValue);
+    }
+
+    // a negative slot means absent, see Layout.find
+    AttributeType typeAt(int slot) {
+        return customTypes == null ? AttributeType.STRING : AttributeType.of(customTypes[slot]);
+    }
+
+    private boolean isType(int slot, AttributeType type) {
+        return slot >= 0 && customTypes != null && customTypes[slot] == type.ordinal();
+    }
+
+    private long longAt(int slot, long defaultValue) {
+        return isType(slot, AttributeType.LONG) ? customBits[slot] : defaultValue;
+    }
+
+    private double doubleAt(int slot, double defaultValue) {
+        if (isType(slot, AttributeType.DOUBLE)) {
+            return Double.longBitsToDouble(customBits[slot]);
+        }
+        return isType(slot, AttributeType.LONG) ? customBits[slot] : defaultValue;
+    }
+
+    private boolean booleanAt(int slot, boolean defaultValue) {
+        return isType(slot, AttributeType.BOOLEAN) ? customBits[slot] != 0 : defaultValue;
+    }
+
+    private long dateTimeAt(int slot, long defaultValue) {
+        return isType(slot, AttributeType.DATETIME) ? customBits[slot] : defaultValue;
+    }
+
+    Layout getLayout() {
+        return layout;
+    }
+
+    String getCustom(int slot) {
+        return customValues[slot];
+    }
+
+    // the sorted names of the custom attributes, not copied: never modify it
+    String[] customKeys() {
+        return layout.keys;
+    }
+
+    // the values of the custom attributes in the order of customKeys(), not copied: never modify it
+    String[] customValues() {
+        return customValues;
+    }
+
+    // the AttributeType ordinals of the custom attributes in the order of customKeys(), null if all are strings
+    byte[] customTypes() {
+        return customTypes;
+    }
+
+    /**
+     * rebuild a user from its fields, the names of the custom attributes are checked since they come from a stream
+     *
+     * @param keys   the names of the custom attributes, sorted and without built-in ones
+     * @param values the values of the custom attributes in the order of the names
+     * @param types  the {@link AttributeType} ordinals of the custom attributes, null if all are strings
+     */
+    static FFCUser restore(String key, String userName, String email, String country, String[] keys, String[] values, byte[] types) {
+        for (int i = 0; i < keys.length; i++) {
+            checkArgument(keys[i] != null && values[i] != null && !BUILTINS.containsKey(keys[i]), "Invalid custom attribute");
+            checkArgument(i == 0 || keys[i - 1].compareTo(keys[i]) < 0, "Custom attributes not sorted");
+        }
+        if (types == null) {
+            return new FFCUser(key, userName, email, country, Layout.of(keys), values);
+        }
+        AttributeType[] attributeTypes = new AttributeType[types.length];
+        for (int i = 0; i < types.length; i++) {
+            checkArgument(types[i] >= 0 && types[i] < AttributeType.values().length, "Invalid custom attribute type");
+            attributeTypes[i] = AttributeType.of(types[i]);
+        }
+        return create(key, userName, email, country, keys, values, attributeTypes);
+    }
+
+    /**
+     * build a user, the typed custom attributes are parsed
+     *
+     * @param types the types of the custom attributes, a null type is a string
+     * @throws IllegalArgumentException if the value of a typed custom attribute can't be parsed
+     */
+    static FFCUser create(String key, String userName, String email, String country, String[] keys, String[] values, AttributeType[] types) {
+        byte[] customTypes = null;
+        long[] customBits = null;
+        for (int i = 0; i < keys.length; i++) {
+            AttributeType type = types[i];
+            if (type == null || type == AttributeType.STRING) {
+                continue;
+            }
+            long bits;
+            try {
+                bits = type.parse(values[i]);
+            } catch (RuntimeException e) {
+                // never a typed attribute that the typed getters can't read
+                throw new IllegalArgumentException("Invalid " + type.getJsonName() + " custom attribute " + keys[i] + ": " + values[i], e);
+            }
+            if (customTypes == null) {
+                customTypes = new byte[keys.length];
+                customBits = new long[keys.length];
+            }
+            customTypes[i] = (byte) type.ordinal();
+            customBits[i] = bits;
+        }
+        return new FFCUser(key, userName, email, country, Layout.of(keys), values, customTypes, customBits);
+    }
+
+    // serialized by a compact proxy, see Ser
+    private Object writeReplace() {
+        return new Ser(Ser.FFC_USER, this);
+    }
+
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("Serialization proxy required");
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         FFCUser ffcUser = (FFCUser) o;
-        return Objects.equals(userName, ffcUser.userName) && Objects.equals(email, ffcUser.email) && Objects.equals(key, ffcUser.key) && Objects.equals(country, ffcUser.country) && Objects.equals(custom, ffcUser.custom);
+        return Objects.equals(userName, ffcUser.userName) && Objects.equals(email, ffcUser.email) && Objects.equals(key, ffcUser.key) && Objects.equals(country, ffcUser.country) && layout.equals(ffcUser.layout) && Arrays.equals(customValues, ffcUser.customValues) && Arrays.equals(customTypes, ffcUser.customTypes);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(userName, email, key, country, custom);
+        int h = hash;
+        if (h == 0) {
+            // the same value as Objects.hash(userName, email, key, country, getCustom())
+            int customHash = 0;
+            for (int i = 0; i < customValues.length; i++) {
+                customHash += layout.keys[i].hashCode() ^ customValues[i].hashCode();
+            }
+            h = 31 * (31 * (31 * (31 * (31 + userName.hashCode()) + email.hashCode()) + key.hashCode()) + country.hashCode()) + customHash;
+            hash = h;
+        }
+        return h;
+    }
+
+    /**
+     * Returns a 64-bit fingerprint of all the attributes of the user, which can be used as a key of evaluation caches,
+     * for deduplication or sharding.
+     * Unlike {@link #hashCode()}, the value is stable across processes and JVMs: it's the murmur3 128-bit hash,
+     * truncated to 64 bits, of the UTF-8 attributes in a fixed order, the custom ones being sorted by name and hashed
+     * with their {@link AttributeType}. 2 equal users have the same fingerprint.
+     *
+     * @return a 64-bit fingerprint
+     */
+    public long fingerprint() {
+        long f = fingerprint;
+        if (f == 0) {
+            Hasher hasher = Hashing.murmur3_128().newHasher()
+                    .putByte(FINGERPRINT_VERSION);
+            putString(hasher, key);
+            putString(hasher, userName);
+            putString(hasher, email);
+            putString(hasher, country);
+            hasher.putInt(customValues.length);
+            for (int i = 0; i < customValues.length; i++) {
+                putString(hasher, layout.keys[i]);
+                putString(hasher, customValues[i]);
+                hasher.putByte((byte) typeAt(i).ordinal());
+            }
+            f = hasher.hash().asLong();
+            fingerprint = f;
+        }
+        return f;
+    }
+
+    // the length prefix makes the sequence of strings unambiguous
+    private static void putString(Hasher hasher, String s) {
+        hasher.putInt(s.length()).putString(s, StandardCharsets.UTF_8);
     }
 
     @Override
     public String toString() {
-        return MoreObjects.toStringHelper(this).add("userName", userName).add("email", email).add("key", key).add("country", country).add("custom", custom).toString();
+        return MoreObjects.toStringHelper(this).add("userName", userName).add("email", email).add("key", key).add("country", country).add("custom", getCustom()).toString();
+    }
+
+    /**
+     * a read-only map over the sorted names and the values of the custom attributes of a user: 1 small object instead of
+     * the entries and the hash table of a copy. The lookups are binary searches, fast for the usual 0 to 20 attributes.
+     * equals, hashCode and toString follow the contract of {@link Map}, as the ImmutableMap returned before
+     */
+    private static final class CustomMap extends AbstractMap<String, String> implements Serializable {
+        private final String[] keys;
+        private final String[] values;
+
+        CustomMap(String[] keys, String[] values) {
+            this.keys = keys;
+            this.values = values;
+        }
+
+        @Override
+        public int size() {
+            return keys.length;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return keys.length == 0;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return slot(key) >= 0;
+        }
+
+        @Override
+        public String get(Object key) {
+            int slot = slot(key);
+            return slot < 0 ? null : values[slot];
+        }
+
+        private int slot(Object key) {
+            return key instanceof String ? Arrays.binarySearch(keys, key) : -1;
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            return new AbstractSet<Entry<String, String>>() {
+                @Override
+                public Iterator<Entry<String, String>> iterator() {
+                    return new Iterator<Entry<String, String>>() {
+                        private int i;
+
+                        @Override
+                        public boolean hasNext() {
+                            return i < keys.length;
+                        }
+
+                        @Override
+                        public Entry<String, String> next() {
+                            if (i >= keys.length) {
+                                throw new NoSuchElementException();
+                            }
+                            Entry<String, String> entry = new SimpleImmutableEntry<>(keys[i], values[i]);
+                            i++;
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return keys.length;
+                }
+            };
+        }
+
+        @Override
+        public int hashCode() {
+            int h = 0;
+            for (int i = 0; i < keys.length; i++) {
+                h += keys[i].hashCode() ^ values[i].hashCode();
+            }
+            return h;
+        }
+
+        // serialized as a copy, as the map returned before
+        private Object writeReplace() {
+            return ImmutableMap.copyOf(this);
+        }
+    }
+
+    /**
+     * the sorted names of the custom attributes, shared by the users having the same custom attributes
+     * so that an {@link AttributeRef} resolves a slot once for all of them
+     */
+    static final class Layout implements Serializable {
+        private static final Layout EMPTY = new Layout(new String[0]);
+
+        private static final WeakPool<Layout> POOL = new WeakPool<>(1024);
+
+        private final String[] keys;
+
+        // computed once, read at each AttributeRef resolution
+        private final transient int hash;
+
+        private Layout(String[] keys) {
+            this.keys = keys;
+            this.hash = Arrays.hashCode(keys);
+        }
+
+        static Layout of(String[] keys) {
+            return keys.length == 0 ? EMPTY : POOL.intern(new Layout(keys));
+        }
+
+        private Object readResolve() {
+            return of(keys);
+        }
+
+        // the slot of a custom attribute, or a negative value if absent
+        int find(String name) {
+            return name == null ? -1 : Arrays.binarySearch(keys, name);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            return Arrays.equals(keys, ((Layout) o).keys);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    static final class FFCUserTypeAdapter extends TypeAdapter<FFCUser> {
+        @Override
+        public void write(JsonWriter out, FFCUser user) throws IOException {
+            out.beginObject();
+            out.name("userName").value(user.userName);
+            out.name("email").value(user.email);
+            out.name("key").value(user.key);
+            out.name("country").value(user.country);
+            out.name("custom").beginObject();
+            for (int i = 0; i < user.customValues.length; i++) {
+                out.name(user.layout.keys[i]).value(user.customValues[i]);
+            }
+            out.endObject();
+            // the custom values keep their string form, the types of the typed ones are added aside
+            if (user.customTypes != null) {
+                out.name("customTypes").beginObject();
+                for (int i = 0; i < user.customTypes.length; i++) {
+                    if (user.customTypes[i] != AttributeType.STRING.ordinal()) {
+                        out.name(user.layout.keys[i]).value(AttributeType.of(user.customTypes[i]).getJsonName());
+                    }
+                }
+                out.endObject();
+            }
+            out.endObject();
+        }
+
+        @Override
+        public FFCUser read(JsonReader in) throws IOException {
+            Builder builder = new Builder(null);
+            Map<String, AttributeType> types = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "userName":
+                        builder.userName(JsonAdapters.nextString(in));
+                        break;
+                    case "email":
+                        builder.email(JsonAdapters.nextString(in));
+                        break;
+                    case "key":
+                        builder.key(JsonAdapters.nextString(in));
+                        break;
+                    case "country":
+                        builder.country(JsonAdapters.nextString(in));
+                        break;
+                    case "custom":
+                        if (in.peek() == JsonToken.NULL) {
+                            in.nextNull();
+                            break;
+                        }
+                        in.beginObject();
+                        while (in.hasNext()) {
+                            builder.custom(in.nextName(), JsonAdapters.nextString(in));
+                        }
+                        in.endObject();
+                        break;
+                    case "customTypes":
+                        if (in.peek() == JsonToken.NULL) {
+                            in.nextNull();
+                            break;
+                        }
+                        // applied once all the values are read, whatever the order of the members
+                        types = new HashMap<>();
+                        in.beginObject();
+                        while (in.hasNext()) {
+                            types.put(in.nextName(), AttributeType.forJsonName(JsonAdapters.nextString(in)));
+                        }
+                        in.endObject();
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            if (types != null) {
+                types.forEach(builder::customType);
+            }
+            return builder.build();
+        }
     }
 
     /**
@@ -194,6 +717,9 @@ public final class FFCUser implements Serializable {
 
         private final Map<String, String> custom = new HashMap<>();
 
+        // the types of the typed custom attributes, applied when the user is built
+        private final Map<String, AttributeType> customTypes = new HashMap<>();
+
         /**
          * Creates a builder with the specified key
          *
@@ -258,6 +784,88 @@ public final class FFCUser implements Serializable {
         public FFCUser.Builder custom(String key, String value) {
             if (StringUtils.isNotBlank(key) && value != null) {
                 custom.put(key, value);
+                customTypes.remove(key);
+            }
+            return this;
+        }
+
+        /**
+         * Adds a {@link AttributeType#LONG} custom attribute. When set to one of the built-in user attribute keys
+         * the key/value pair will be ignored.
+         *
+         * @param key   custom attribute name
+         * @param value custom attribute value
+         * @return the builder
+         */
+        public FFCUser.Builder custom(String key, long value) {
+            return typed(key, AttributeType.LONG, value);
+        }
+
+        /**
+         * Adds a {@link AttributeType#DOUBLE} custom attribute. When set to one of the built-in user attribute keys
+         * the key/value pair will be ignored.
+         *
+         * @param key   custom attribute name
+         * @param value custom attribute value
+         * @return the builder
+         */
+        public FFCUser.Builder custom(String key, double value) {
+            return typed(key, AttributeType.DOUBLE, Double.doubleToRawLongBits(value));
+        }
+
+        /**
+         * Adds a {@link AttributeType#BOOLEAN} custom attribute. When set to one of the built-in user attribute keys
+         * the key/value pair will be ignored.
+         *
+         * @param key   custom attribute name
+         * @param value custom attribute value
+         * @return the builder
+         */
+        public FFCUser.Builder custom(String key, boolean value) {
+            return typed(key, AttributeType.BOOLEAN, value ? 1L : 0L);
+        }
+
+        /**
+         * Adds a {@link AttributeType#DATETIME} custom attribute. When set to one of the built-in user attribute keys
+         * the key/value pair will be ignored.
+         *
+         * @param key         custom attribute name
+         * @param epochMillis custom attribute value, in milliseconds since the epoch
+         * @return the builder
+         */
+        public FFCUser.Builder customDateTime(String key, long epochMillis) {
+            return typed(key, AttributeType.DATETIME, epochMillis);
+        }
+
+        /**
+         * Adds a custom attribute of a given type from its string form, e.g. read from a stream. When set to one of the
+         * built-in user attribute keys the key/value pair will be ignored.
+         *
+         * @param key   custom attribute name
+         * @param value the string form of the value, as returned by {@link FFCUser#getCustom()}
+         * @param type  the type of the value, a string if null
+         * @return the builder
+         */
+        public FFCUser.Builder custom(String key, String value, AttributeType type) {
+            custom(key, value);
+            if (type != null && type != AttributeType.STRING && value != null) {
+                customType(key, type);
+            }
+            return this;
+        }
+
+        private FFCUser.Builder typed(String key, AttributeType type, long bits) {
+            if (StringUtils.isNotBlank(key)) {
+                custom.put(key, type.format(bits));
+                customTypes.put(key, type);
+            }
+            return this;
+        }
+
+        // set the type of a custom attribute read from json, after its value
+        FFCUser.Builder customType(String key, AttributeType type) {
+            if (StringUtils.isNotBlank(key)) {
+                customTypes.put(key, type);
             }
             return this;
         }
@@ -265,9 +873,23 @@ public final class FFCUser implements Serializable {
         /**
          * Builds the configured FFCUser object.
          * Returns the FFCUser configured by this builder
+         *
+         * @throws IllegalArgumentException if the string form of a typed custom attribute is not a value of its type
          */
         public FFCUser build() {
-            return new FFCUser(this);
+            String[] keys = custom.keySet().stream().filter(k -> !BUILTINS.containsKey(k)).sorted().toArray(String[]::new);
+            String[] values = new String[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                values[i] = custom.get(keys[i]);
+            }
+            if (customTypes.isEmpty()) {
+                return new FFCUser(key, userName, email, country, Layout.of(keys), values);
+            }
+            AttributeType[] types = new AttributeType[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                types[i] = customTypes.get(keys[i]);
+            }
+            return create(key, userName, email, country, keys, values, types);
         }
     }
 
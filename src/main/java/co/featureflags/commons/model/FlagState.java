@@ -1,18 +1,36 @@
 package co.featureflags.commons.model;
 
+import co.featureflags.commons.json.AsyncJsonHelper;
 import co.featureflags.commons.json.JsonHelper;
 import com.google.common.base.MoreObjects;
-import com.google.common.reflect.TypeToken;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The object provides a standard return responding the request of getting a flag value from a client sdk
  *
  * @param <T> String/Boolean/Numeric Type
  */
+@JsonAdapter(FlagState.FlagStateTypeAdapterFactory.class)
 public final class FlagState<T> extends BasicFlagState implements Serializable {
+    // the type decoded by all the fromJson methods: the variations are decoded as Object whatever the given class,
+    // a json boolean as a Boolean, a number as a Double and a string as a String
+    private static final Type JSON_TYPE = TypeToken.getParameterized(FlagState.class, Object.class).getType();
+
     private final EvalDetail<T> data;
 
     private FlagState(boolean success, String message, EvalDetail<T> data) {
@@ -33,6 +51,19 @@ public final class FlagState<T> extends BasicFlagState implements Serializable {
                 data);
     }
 
+    /**
+     * build a flag state
+     *
+     * @param success true if the last request is successful
+     * @param message the reason
+     * @param data    a flag value with reason, or null
+     * @param <T>     String/Boolean/Numeric Type
+     * @return a FlagState
+     */
+    public static <T> FlagState<T> of(boolean success, String message, EvalDetail<T> data) {
+        return new FlagState<>(success, message, data);
+    }
+
     /**
      * build a flag state without flag value
      *
@@ -52,7 +83,32 @@ public final class FlagState<T> extends BasicFlagState implements Serializable {
      * @return a FlagState
      */
     public static <T> FlagState<T> fromJson(String json, Class<T> cls){
-        return JsonHelper.deserialize(json, new TypeToken<FlagState<T>>(){}.getType());
+        return JsonHelper.deserialize(json, JSON_TYPE);
+    }
+
+    /**
+     * build a flag state from the UTF-8 json of a heap or direct buffer, without decoding the json into a string first
+     *
+     * @param json UTF-8 json between the position and the limit of the buffer, the position is not changed
+     * @param cls
+     * @param <T>  String/Boolean/Numeric Type
+     * @return a FlagState
+     */
+    public static <T> FlagState<T> fromJson(ByteBuffer json, Class<T> cls) {
+        return JsonHelper.deserialize(json, JSON_TYPE);
+    }
+
+    /**
+     * build a flag state from json on the executor of an {@link AsyncJsonHelper}
+     *
+     * @param json  a string json
+     * @param cls
+     * @param async the executor and the limit of pending tasks
+     * @param <T>   String/Boolean/Numeric Type
+     * @return a future of the FlagState
+     */
+    public static <T> CompletableFuture<FlagState<T>> fromJsonAsync(String json, Class<T> cls, AsyncJsonHelper async) {
+        return async.deserialize(json, JSON_TYPE);
     }
 
     /**
@@ -73,6 +129,15 @@ public final class FlagState<T> extends BasicFlagState implements Serializable {
                 .toString();
     }
 
+    // serialized by a compact proxy, see Ser
+    private Object writeReplace() {
+        return new Ser(Ser.FLAG_STATE, this);
+    }
+
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("Serialization proxy required");
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -87,4 +152,56 @@ public final class FlagState<T> extends BasicFlagState implements Serializable {
         return Objects.hash(success, message, data);
     }
 
+    static final class FlagStateTypeAdapterFactory implements TypeAdapterFactory {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <R> TypeAdapter<R> create(Gson gson, TypeToken<R> typeToken) {
+            TypeAdapter<?> dataAdapter = gson.getAdapter(TypeToken.getParameterized(EvalDetail.class, JsonAdapters.typeArgument(typeToken)));
+            return (TypeAdapter<R>) new FlagStateTypeAdapter<>((TypeAdapter<EvalDetail<Object>>) dataAdapter);
+        }
+    }
+
+    static final class FlagStateTypeAdapter<T> extends TypeAdapter<FlagState<T>> {
+        private final TypeAdapter<EvalDetail<T>> dataAdapter;
+
+        FlagStateTypeAdapter(TypeAdapter<EvalDetail<T>> dataAdapter) {
+            this.dataAdapter = dataAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, FlagState<T> flagState) throws IOException {
+            out.beginObject();
+            out.name("data");
+            dataAdapter.write(out, flagState.data);
+            out.name("success").value(flagState.success);
+            out.name("message").value(flagState.message);
+            out.endObject();
+        }
+
+        @Override
+        public FlagState<T> read(JsonReader in) throws IOException {
+            EvalDetail<T> data = null;
+            boolean success = false;
+            String message = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "data":
+                        data = dataAdapter.read(in);
+                        break;
+                    case "success":
+                        success = JsonAdapters.nextBoolean(in);
+                        break;
+                    case "message":
+                        message = JsonAdapters.nextString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return new FlagState<>(success, message, data);
+        }
+    }
+
 }
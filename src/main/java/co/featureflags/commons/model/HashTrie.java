@@ -0,0 +1,383 @@
+package co.featureflags.commons.model;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * a persistent hash array mapped trie of flag key name to value, used as the index of {@link AllFlagStates}
+ * <p>
+ * an update returns a new trie sharing all the nodes but the ones on the path of the updated key,
+ * so that it costs O(log32(n)) time and memory instead of O(n).
+ * the values are kept in insertion order: a new key goes to the end, an updated key keeps its position.
+ * <p>
+ * this class is only for internal use
+ *
+ * @param <V> value type
+ */
+final class HashTrie<V> {
+
+    private static final int BITS = 5;
+
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final Object[] NO_SLOT = new Object[0];
+
+    private static final HashTrie<?> EMPTY = new HashTrie<>(new BitmapNode(0, NO_SLOT), 0, 0);
+
+    private final BitmapNode root;
+
+    private final int size;
+
+    private final long nextSeq;
+
+    private HashTrie(BitmapNode root, int size, long nextSeq) {
+        this.root = root;
+        this.size = size;
+        this.nextSeq = nextSeq;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> HashTrie<V> empty() {
+        return (HashTrie<V>) EMPTY;
+    }
+
+    static <V> Builder<V> builder() {
+        return new Builder<>();
+    }
+
+    int size() {
+        return size;
+    }
+
+    V get(String key) {
+        Entry<V> entry = entry(key);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * return a trie with a given key set to a given value
+     *
+     * @param key   key
+     * @param value value
+     * @return a new trie
+     */
+    HashTrie<V> put(String key, V value) {
+        Entry<V> existing = entry(key);
+        if (existing != null && existing.value == value) {
+            return this;
+        }
+        long seq = existing == null ? nextSeq : existing.seq;
+        BitmapNode newRoot = put(root, 0, new Entry<>(key, hash(key), value, seq));
+        return existing == null
+                ? new HashTrie<>(newRoot, size + 1, nextSeq + 1)
+                : new HashTrie<>(newRoot, size, nextSeq);
+    }
+
+    /**
+     * return a trie without a given key
+     *
+     * @param key key
+     * @return a new trie, or this one if the key is absent
+     */
+    HashTrie<V> remove(String key) {
+        if (entry(key) == null) {
+            return this;
+        }
+        return new HashTrie<>(remove(root, 0, key, hash(key)), size - 1, nextSeq);
+    }
+
+    /**
+     * return all the values in insertion order
+     *
+     * @return an immutable list
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    List<V> values() {
+        Entry<V>[] entries = new Entry[size];
+        collect(root, entries, 0);
+        Arrays.sort(entries, Comparator.comparingLong(e -> e.seq));
+        ImmutableList.Builder<V> values = ImmutableList.builderWithExpectedSize(size);
+        for (Entry<V> entry : entries) {
+            values.add(entry.value);
+        }
+        return values.build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Entry<V> entry(String key) {
+        int hash = hash(key);
+        Object node = root;
+        int shift = 0;
+        while (true) {
+            if (node instanceof BitmapNode) {
+                BitmapNode bitmapNode = (BitmapNode) node;
+                int bit = bit(hash, shift);
+                if ((bitmapNode.bitmap & bit) == 0) {
+                    return null;
+                }
+                node = bitmapNode.slots[index(bitmapNode.bitmap, bit)];
+                shift += BITS;
+            } else if (node instanceof Entry) {
+                Entry<V> entry = (Entry<V>) node;
+                return entry.key.equals(key) ? entry : null;
+            } else {
+                return ((CollisionNode) node).find(key);
+            }
+        }
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private static int index(int bitmap, int bit) {
+        return Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    private static BitmapNode put(BitmapNode node, int shift, Entry<?> entry) {
+        int bit = bit(entry.hash, shift);
+        int idx = index(node.bitmap, bit);
+        if ((node.bitmap & bit) == 0) {
+            return new BitmapNode(node.bitmap | bit, insert(node.slots, idx, entry));
+        }
+        Object[] slots = node.slots.clone();
+        slots[idx] = putChild(slots[idx], shift + BITS, entry);
+        return new BitmapNode(node.bitmap, slots);
+    }
+
+    private static Object putChild(Object child, int shift, Entry<?> entry) {
+        if (child instanceof Entry) {
+            Entry<?> existing = (Entry<?>) child;
+            return existing.key.equals(entry.key) ? entry : merge(existing, entry, shift);
+        }
+        if (child instanceof BitmapNode) {
+            return put((BitmapNode) child, shift, entry);
+        }
+        CollisionNode collision = (CollisionNode) child;
+        if (collision.hash == entry.hash) {
+            return collision.with(entry);
+        }
+        return put(new BitmapNode(bit(collision.hash, shift), new Object[]{collision}), shift, entry);
+    }
+
+    // a node holding 2 entries of different keys
+    private static Object merge(Entry<?> a, Entry<?> b, int shift) {
+        if (a.hash == b.hash) {
+            return new CollisionNode(a.hash, new Entry<?>[]{a, b});
+        }
+        int bitA = bit(a.hash, shift);
+        int bitB = bit(b.hash, shift);
+        if (bitA == bitB) {
+            return new BitmapNode(bitA, new Object[]{merge(a, b, shift + BITS)});
+        }
+        // the slots are ordered by the unsigned value of their bit
+        boolean aFirst = Integer.compareUnsigned(bitA, bitB) < 0;
+        return new BitmapNode(bitA | bitB, aFirst ? new Object[]{a, b} : new Object[]{b, a});
+    }
+
+    private static BitmapNode remove(BitmapNode node, int shift, String key, int hash) {
+        int bit = bit(hash, shift);
+        int idx = index(node.bitmap, bit);
+        Object child = removeChild(node.slots[idx], shift + BITS, key, hash);
+        if (child == null) {
+            return new BitmapNode(node.bitmap & ~bit, delete(node.slots, idx));
+        }
+        Object[] slots = node.slots.clone();
+        slots[idx] = child;
+        return new BitmapNode(node.bitmap, slots);
+    }
+
+    // returns the child without the key, an entry if only one is left, or null if empty
+    private static Object removeChild(Object child, int shift, String key, int hash) {
+        if (child instanceof Entry) {
+            return null;
+        }
+        if (child instanceof BitmapNode) {
+            BitmapNode node = remove((BitmapNode) child, shift, key, hash);
+            if (node.slots.length == 0) {
+                return null;
+            }
+            if (node.slots.length == 1 && node.slots[0] instanceof Entry) {
+                return node.slots[0];
+            }
+            return node;
+        }
+        return ((CollisionNode) child).without(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> int collect(Object node, Entry<V>[] entries, int count) {
+        if (node instanceof Entry) {
+            entries[count++] = (Entry<V>) node;
+        } else if (node instanceof BitmapNode) {
+            for (Object slot : ((BitmapNode) node).slots) {
+                count = collect(slot, entries, count);
+            }
+        } else {
+            for (Entry<?> entry : ((CollisionNode) node).entries) {
+                entries[count++] = (Entry<V>) entry;
+            }
+        }
+        return count;
+    }
+
+    private static Object[] insert(Object[] slots, int idx, Object slot) {
+        Object[] newSlots = new Object[slots.length + 1];
+        System.arraycopy(slots, 0, newSlots, 0, idx);
+        newSlots[idx] = slot;
+        System.arraycopy(slots, idx, newSlots, idx + 1, slots.length - idx);
+        return newSlots;
+    }
+
+    private static Object[] delete(Object[] slots, int idx) {
+        Object[] newSlots = new Object[slots.length - 1];
+        System.arraycopy(slots, 0, newSlots, 0, idx);
+        System.arraycopy(slots, idx + 1, newSlots, idx, slots.length - idx - 1);
+        return newSlots;
+    }
+
+    private static final class Entry<V> {
+        private final String key;
+        private final int hash;
+        private final V value;
+        private final long seq;
+
+        Entry(String key, int hash, V value, long seq) {
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+            this.seq = seq;
+        }
+    }
+
+    /**
+     * fields are only mutated by a {@link Builder} before the trie is published
+     */
+    private static final class BitmapNode {
+        private int bitmap;
+        private Object[] slots;
+
+        BitmapNode(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+    }
+
+    /**
+     * entries of different keys having the same hash
+     */
+    private static final class CollisionNode {
+        private final int hash;
+        private final Entry<?>[] entries;
+
+        CollisionNode(int hash, Entry<?>[] entries) {
+            this.hash = hash;
+            this.entries = entries;
+        }
+
+        @SuppressWarnings("unchecked")
+        <V> Entry<V> find(String key) {
+            for (Entry<?> entry : entries) {
+                if (entry.key.equals(key)) {
+                    return (Entry<V>) entry;
+                }
+            }
+            return null;
+        }
+
+        CollisionNode with(Entry<?> entry) {
+            for (int i = 0; i < entries.length; i++) {
+                if (entries[i].key.equals(entry.key)) {
+                    Entry<?>[] newEntries = entries.clone();
+                    newEntries[i] = entry;
+                    return new CollisionNode(hash, newEntries);
+                }
+            }
+            Entry<?>[] newEntries = Arrays.copyOf(entries, entries.length + 1);
+            newEntries[entries.length] = entry;
+            return new CollisionNode(hash, newEntries);
+        }
+
+        Object without(String key) {
+            int idx = 0;
+            while (!entries[idx].key.equals(key)) {
+                idx++;
+            }
+            if (entries.length == 2) {
+                return entries[1 - idx];
+            }
+            Entry<?>[] newEntries = new Entry<?>[entries.length - 1];
+            System.arraycopy(entries, 0, newEntries, 0, idx);
+            System.arraycopy(entries, idx + 1, newEntries, idx, entries.length - idx - 1);
+            return new CollisionNode(hash, newEntries);
+        }
+    }
+
+    /**
+     * builds a trie from scratch by updating its nodes in place, the keys must be distinct
+     *
+     * @param <V> value type
+     */
+    static final class Builder<V> {
+        private final BitmapNode root = new BitmapNode(0, NO_SLOT);
+
+        private int size;
+
+        private Builder() {
+            super();
+        }
+
+        /**
+         * add a new key
+         *
+         * @param key   key
+         * @param value value
+         * @return this builder
+         * @throws IllegalArgumentException if the key was already added
+         */
+        Builder<V> put(String key, V value) {
+            insert(root, 0, new Entry<>(key, hash(key), value, size));
+            size++;
+            return this;
+        }
+
+        HashTrie<V> build() {
+            return size == 0 ? empty() : new HashTrie<>(root, size, size);
+        }
+
+        private static void insert(BitmapNode node, int shift, Entry<?> entry) {
+            int bit = bit(entry.hash, shift);
+            int idx = index(node.bitmap, bit);
+            if ((node.bitmap & bit) == 0) {
+                node.slots = HashTrie.insert(node.slots, idx, entry);
+                node.bitmap |= bit;
+                return;
+            }
+            Object child = node.slots[idx];
+            if (child instanceof BitmapNode) {
+                insert((BitmapNode) child, shift + BITS, entry);
+                return;
+            }
+            if (child instanceof Entry) {
+                checkDistinct(((Entry<?>) child).key, entry.key);
+            } else if (((CollisionNode) child).find(entry.key) != null) {
+                checkDistinct(entry.key, entry.key);
+            }
+            node.slots[idx] = putChild(child, shift + BITS, entry);
+        }
+
+        private static void checkDistinct(String existing, String key) {
+            if (existing.equals(key)) {
+                throw new IllegalArgumentException("Multiple entries with same key: " + key);
+            }
+        }
+    }
+}
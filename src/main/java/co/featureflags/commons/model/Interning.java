@@ -0,0 +1,97 @@
+package co.featureflags.commons.model;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * an opt-in canonicalization of the decoded flags: when enabled, the deserializers of {@link EvalDetail} and of
+ * the primitive specialized details share one instance of each key name, name and reason, and one instance of each
+ * detail equal to another, which saves a lot of heap when many flag states of many users are kept in memory.
+ * <p>
+ * the pools are bounded and weak: they keep at most a given number of instances and don't prevent them from being
+ * garbage collected, some duplicates can be missed. Interning is disabled by default.
+ * <p>
+ * a shared detail must not be modified, for example a json object returned as the flag value
+ */
+public abstract class Interning {
+
+    private static volatile Pools pools;
+
+    private Interning() {
+        super();
+    }
+
+    /**
+     * enable the interning in the whole application, the previous pools are dropped
+     *
+     * @param maximumSize the maximum number of instances kept by each of the pool of strings and the pool of details
+     */
+    public static void enable(int maximumSize) {
+        Preconditions.checkArgument(maximumSize > 0, "maximumSize should be positive");
+        pools = new Pools(maximumSize);
+    }
+
+    /**
+     * disable the interning, the instances already shared are left as they are
+     */
+    public static void disable() {
+        pools = null;
+    }
+
+    /**
+     * return true if the interning is enabled
+     *
+     * @return true if enabled
+     */
+    public static boolean isEnabled() {
+        return pools != null;
+    }
+
+    /**
+     * return the canonical instance of a string
+     *
+     * @param s a string or null
+     * @return the canonical instance, or the string itself if the interning is disabled
+     */
+    public static String intern(String s) {
+        Pools current = pools;
+        return current == null || s == null ? s : current.strings.intern(s);
+    }
+
+    /**
+     * return the canonical instance of a detail
+     *
+     * @param detail a detail or null
+     * @param <T>    String/Boolean/Numeric Type
+     * @return the canonical instance, or the detail itself if the interning is disabled
+     */
+    public static <T> EvalDetail<T> intern(EvalDetail<T> detail) {
+        return internDetail(detail);
+    }
+
+    /**
+     * return the canonical instance of a primitive specialized detail
+     *
+     * @param detail a detail or null
+     * @param <D>    {@link BooleanEvalDetail}, {@link LongEvalDetail} or {@link DoubleEvalDetail}
+     * @return the canonical instance, or the detail itself if the interning is disabled
+     */
+    public static <D extends BasicEvalDetail> D intern(D detail) {
+        return internDetail(detail);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <D> D internDetail(D detail) {
+        Pools current = pools;
+        return current == null || detail == null ? detail : (D) current.details.intern(detail);
+    }
+
+    private static final class Pools {
+        private final WeakPool<String> strings;
+        private final WeakPool<Object> details;
+
+        Pools(int maximumSize) {
+            this.strings = new WeakPool<>(maximumSize);
+            this.details = new WeakPool<>(maximumSize);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package co.featureflags.commons.model;
+
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+/**
+ * helpers shared by the type adapters of ffc objects
+ * a null json value is read as the default value of the field, like gson does with reflection
+ */
+final class JsonAdapters {
+
+    private JsonAdapters() {
+        super();
+    }
+
+    /**
+     * return the type argument of a generic ffc object, e.g. Boolean for EvalDetail&lt;Boolean&gt;
+     *
+     * @param typeToken type of the ffc object
+     * @return the type argument or Object if the type is raw
+     */
+    static Type typeArgument(TypeToken<?> typeToken) {
+        Type type = typeToken.getType();
+        if (type instanceof ParameterizedType) {
+            return ((ParameterizedType) type).getActualTypeArguments()[0];
+        }
+        return Object.class;
+    }
+
+    static String nextString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    static int nextInt(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return 0;
+        }
+        return in.nextInt();
+    }
+
+    static boolean nextBoolean(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return false;
+        }
+        return in.nextBoolean();
+    }
+}
@@ -0,0 +1,331 @@
+package co.featureflags.commons.model;
+
+import co.featureflags.commons.json.JsonHelper;
+import co.featureflags.commons.json.JsonParseException;
+import co.featureflags.commons.json.JsonScanner;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A read-only view of the json of an {@link AllFlagStates}, which decodes an {@link EvalDetail} only when it's requested.
+ * The json is scanned once to index the position of each flag by its key name, a flag is decoded at the first
+ * {@link #get(String)} and then cached.
+ * It's useful when a payload contains thousands of flags but only a few of them are read.
+ *
+ * @param <T> String/Boolean/Numeric Type
+ */
+@JsonAdapter(LazyAllFlagStates.LazyAllFlagStatesTypeAdapterFactory.class)
+public final class LazyAllFlagStates<T> extends BasicFlagState {
+
+    private final String json;
+
+    // the type of the flags, the same as the ones of AllFlagStates.fromJson(String, Class)
+    private final Type detailType;
+
+    private final Map<String, Slot<T>> index;
+
+    private LazyAllFlagStates(boolean success, String message, String json, Type detailType, Map<String, Slot<T>> index) {
+        super(success, success ? "OK" : message);
+        this.json = json;
+        this.detailType = detailType;
+        this.index = index;
+    }
+
+    /**
+     * build a LazyAllFlagStates from json, only the position of each flag is read
+     *
+     * @param json a string json of {@link AllFlagStates}
+     * @param cls
+     * @param <T>  String/Boolean/Numeric Type
+     * @return a LazyAllFlagStates
+     * @throws JsonParseException if the json is not a valid AllFlagStates
+     */
+    public static <T> LazyAllFlagStates<T> fromJson(String json, Class<T> cls) throws JsonParseException {
+        // the flags are decoded as by AllFlagStates.fromJson, so that toAllFlagStates() is equal to its result
+        return fromJson(json, EvalDetail.JSON_TYPE);
+    }
+
+    private static <T> LazyAllFlagStates<T> fromJson(String json, Type detailType) throws JsonParseException {
+        try {
+            return scan(json, detailType);
+        } catch (JsonParseException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new JsonParseException("Received Data invalid", e);
+        }
+    }
+
+    private static <T> LazyAllFlagStates<T> scan(String json, Type detailType) {
+        boolean success = false;
+        String message = null;
+        Map<String, Slot<T>> index = ImmutableMap.of();
+        int i = JsonScanner.expect(json, 0, '{');
+        boolean empty = JsonScanner.peek(json, i, '}');
+        boolean hasNext = !empty;
+        while (hasNext) {
+            int nameStart = JsonScanner.skipWhitespace(json, i);
+            int nameEnd = JsonScanner.skipString(json, JsonScanner.expect(json, nameStart, '"') - 1);
+            int valueStart = JsonScanner.skipWhitespace(json, JsonScanner.expect(json, nameEnd, ':'));
+            int valueEnd;
+            if (JsonScanner.stringEquals(json, nameStart, nameEnd, "data") && JsonScanner.peek(json, valueStart, '[')) {
+                ImmutableMap.Builder<String, Slot<T>> builder = ImmutableMap.builder();
+                valueEnd = scanData(json, valueStart, builder);
+                index = builder.build();
+            } else {
+                valueEnd = JsonScanner.skipValue(json, valueStart);
+                if (JsonScanner.stringEquals(json, nameStart, nameEnd, "success")) {
+                    success = json.startsWith("true", valueStart);
+                } else if (JsonScanner.stringEquals(json, nameStart, nameEnd, "message") && JsonScanner.peek(json, valueStart, '"')) {
+                    message = JsonScanner.readString(json, valueStart, valueEnd);
+                }
+            }
+            i = valueEnd;
+            hasNext = nextMember(json, i, '}');
+            i = JsonScanner.skipWhitespace(json, i) + 1;
+        }
+        if (empty) {
+            i = JsonScanner.expect(json, i, '}');
+        }
+        if (JsonScanner.skipWhitespace(json, i) != json.length()) {
+            throw new JsonParseException("Malformed json at position " + i + ": end of document expected");
+        }
+        return new LazyAllFlagStates<>(success, message, json, detailType, index);
+    }
+
+    // index the flags of the data array, returns the index after the array
+    private static <T> int scanData(String json, int from, ImmutableMap.Builder<String, Slot<T>> builder) {
+        int i = from + 1;
+        boolean empty = JsonScanner.peek(json, i, ']');
+        boolean hasNext = !empty;
+        while (hasNext) {
+            int start = JsonScanner.skipWhitespace(json, i);
+            String keyName = null;
+            int j = JsonScanner.expect(json, start, '{');
+            boolean emptyObject = JsonScanner.peek(json, j, '}');
+            boolean hasNextMember = !emptyObject;
+            while (hasNextMember) {
+                int nameStart = JsonScanner.skipWhitespace(json, j);
+                int nameEnd = JsonScanner.skipString(json, JsonScanner.expect(json, nameStart, '"') - 1);
+                int valueStart = JsonScanner.skipWhitespace(json, JsonScanner.expect(json, nameEnd, ':'));
+                j = JsonScanner.skipValue(json, valueStart);
+                if (JsonScanner.peek(json, valueStart, '"') && JsonScanner.stringEquals(json, nameStart, nameEnd, "keyName")) {
+                    keyName = JsonScanner.readString(json, valueStart, j);
+                }
+                hasNextMember = nextMember(json, j, '}');
+                j = JsonScanner.skipWhitespace(json, j) + 1;
+            }
+            int end = emptyObject ? JsonScanner.expect(json, j, '}') : j;
+            builder.put(keyName, new Slot<>(start, end));
+            i = end;
+            hasNext = nextMember(json, i, ']');
+            i = JsonScanner.skipWhitespace(json, i) + 1;
+        }
+        return empty ? JsonScanner.expect(json, i, ']') : i;
+    }
+
+    // true if a ',' follows, false if the closing char follows
+    private static boolean nextMember(String json, int from, char closing) {
+        if (JsonScanner.peek(json, from, ',')) {
+            return true;
+        }
+        JsonScanner.expect(json, from, closing);
+        return false;
+    }
+
+    /**
+     * return the key names of all the flags, no flag is decoded
+     *
+     * @return a set of flag key name
+     */
+    public Set<String> keySet() {
+        return index.keySet();
+    }
+
+    /**
+     * return details of all the flags, no flag is decoded until the {@link Function} is applied
+     *
+     * @return a map of flag key name and the {@link Function} to get the its {@link EvalDetail}
+     */
+    public Map<String, Function<String, EvalDetail<T>>> getData() {
+        ImmutableMap.Builder<String, Function<String, EvalDetail<T>>> map = ImmutableMap.builder();
+        for (String keyName : index.keySet()) {
+            map.put(keyName, this::get);
+        }
+        return map.build();
+    }
+
+    /**
+     * return a detail of a given flag key name, the flag is decoded at the first call and then cached
+     *
+     * @param flagKeyName flag key name
+     * @return an {@link EvalDetail} or null
+     * @throws JsonParseException if the flag is not a valid EvalDetail
+     */
+    public EvalDetail<T> get(String flagKeyName) throws JsonParseException {
+        Slot<T> slot = index.get(flagKeyName);
+        return slot == null ? null : decode(slot);
+    }
+
+    // 2 threads could decode the same flag at the same time, both get an equal object
+    private EvalDetail<T> decode(Slot<T> slot) {
+        EvalDetail<T> detail = slot.detail;
+        if (detail == null) {
+            detail = JsonHelper.deserialize(json.substring(slot.start, slot.end), detailType);
+            slot.detail = detail;
+        }
+        return detail;
+    }
+
+    /**
+     * decode all the flags
+     *
+     * @return an {@link AllFlagStates} equal to the one returned by {@link AllFlagStates#fromJson(String, Class)}
+     * @throws JsonParseException if a flag is not a valid EvalDetail
+     */
+    public AllFlagStates<T> toAllFlagStates() throws JsonParseException {
+        ImmutableList.Builder<EvalDetail<T>> data = ImmutableList.builderWithExpectedSize(index.size());
+        for (Slot<T> slot : index.values()) {
+            data.add(decode(slot));
+        }
+        return AllFlagStates.of(success, message, data.build());
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("success", success)
+                .add("message", message)
+                .add("keys", index.keySet())
+                .toString();
+    }
+
+    /**
+     * 2 LazyAllFlagStates are equal if their {@link AllFlagStates} are equal, note that all the flags are decoded
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        LazyAllFlagStates<?> that = (LazyAllFlagStates<?>) o;
+        return toAllFlagStates().equals(that.toAllFlagStates());
+    }
+
+    @Override
+    public int hashCode() {
+        return toAllFlagStates().hashCode();
+    }
+
+    private static final class Slot<T> {
+        private final int start;
+        private final int end;
+        private volatile EvalDetail<T> detail;
+
+        Slot(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    static final class LazyAllFlagStatesTypeAdapterFactory implements TypeAdapterFactory {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <R> TypeAdapter<R> create(Gson gson, TypeToken<R> typeToken) {
+            Type variationType = JsonAdapters.typeArgument(typeToken);
+            TypeAdapter<?> adapter = gson.getAdapter(TypeToken.getParameterized(AllFlagStates.class, variationType));
+            Type detailType = TypeToken.getParameterized(EvalDetail.class, variationType).getType();
+            return (TypeAdapter<R>) new LazyAllFlagStatesTypeAdapter<>((TypeAdapter<AllFlagStates<Object>>) adapter, detailType);
+        }
+    }
+
+    /**
+     * written as an {@link AllFlagStates}, read by scanning the json of the object.
+     * The reader doesn't give access to its source: the tokens of the object are copied as they are read into a buffer,
+     * without building a tree nor decoding the flags, then the buffer is scanned
+     */
+    static final class LazyAllFlagStatesTypeAdapter<T> extends TypeAdapter<LazyAllFlagStates<T>> {
+        private final TypeAdapter<AllFlagStates<T>> allFlagStatesAdapter;
+        private final Type detailType;
+
+        LazyAllFlagStatesTypeAdapter(TypeAdapter<AllFlagStates<T>> allFlagStatesAdapter, Type detailType) {
+            this.allFlagStatesAdapter = allFlagStatesAdapter;
+            this.detailType = detailType;
+        }
+
+        @Override
+        public void write(JsonWriter out, LazyAllFlagStates<T> allFlagStates) throws IOException {
+            allFlagStatesAdapter.write(out, allFlagStates.toAllFlagStates());
+        }
+
+        @Override
+        public LazyAllFlagStates<T> read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            StringWriter buffer = new StringWriter();
+            JsonWriter out = new JsonWriter(buffer);
+            int depth = 0;
+            do {
+                switch (in.peek()) {
+                    case BEGIN_OBJECT:
+                        in.beginObject();
+                        out.beginObject();
+                        depth++;
+                        break;
+                    case END_OBJECT:
+                        in.endObject();
+                        out.endObject();
+                        depth--;
+                        break;
+                    case BEGIN_ARRAY:
+                        in.beginArray();
+                        out.beginArray();
+                        depth++;
+                        break;
+                    case END_ARRAY:
+                        in.endArray();
+                        out.endArray();
+                        depth--;
+                        break;
+                    case NAME:
+                        out.name(in.nextName());
+                        break;
+                    case STRING:
+                        out.value(in.nextString());
+                        break;
+                    case NUMBER:
+                        // the number is copied as written, e.g. 1.0 is not changed to 1
+                        out.jsonValue(in.nextString());
+                        break;
+                    case BOOLEAN:
+                        out.value(in.nextBoolean());
+                        break;
+                    case NULL:
+                        in.nextNull();
+                        out.nullValue();
+                        break;
+                    default:
+                        throw new JsonParseException("Received Data invalid");
+                }
+            } while (depth > 0);
+            out.flush();
+            return LazyAllFlagStates.fromJson(buffer.toString(), detailType);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package co.featureflags.commons.model;
+
+import co.featureflags.commons.json.JsonHelper;
+import com.google.common.base.MoreObjects;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * An {@link EvalDetail} of a integral number flag, the flag value is kept as a primitive long and is never boxed.
+ * This object has the same json form as {@link EvalDetail}&lt;Long&gt;
+ */
+@JsonAdapter(LongEvalDetail.LongEvalDetailTypeAdapter.class)
+public final class LongEvalDetail extends BasicEvalDetail {
+
+    private final long variation;
+
+    private LongEvalDetail(long variation,
+                           int id,
+                           String reason,
+                           String keyName,
+                           String name) {
+        super(id, reason, keyName, name);
+        this.variation = variation;
+    }
+
+    /**
+     * build method, this method is only for internal use
+     *
+     * @param variation
+     * @param id
+     * @param reason
+     * @param keyName
+     * @param name
+     * @return a LongEvalDetail
+     */
+    public static LongEvalDetail of(long variation,
+                                    int id,
+                                    String reason,
+                                    String keyName,
+                                    String name) {
+        return new LongEvalDetail(variation, id, reason, keyName, name);
+    }
+
+    /**
+     * build the object from a json string of {@link EvalDetail}&lt;Long&gt;, this method is only for internal use
+     *
+     * @param json a json string
+     * @return a LongEvalDetail
+     */
+    public static LongEvalDetail fromJson(String json) {
+        return JsonHelper.deserialize(json, LongEvalDetail.class);
+    }
+
+    /**
+     * return a feature flag evaluation value
+     *
+     * @return the flag value
+     */
+    public long getVariation() {
+        return variation;
+    }
+
+    /**
+     * convert to a generic {@link EvalDetail}, the flag value is boxed
+     *
+     * @return an EvalDetail
+     */
+    public EvalDetail<Long> toEvalDetail() {
+        return EvalDetail.of(variation, id, reason, keyName, name);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        LongEvalDetail that = (LongEvalDetail) o;
+        return variation == that.variation && id == that.id && Objects.equals(reason, that.reason) && Objects.equals(name, that.name) && Objects.equals(keyName, that.keyName);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Long.hashCode(variation);
+        result = 31 * result + id;
+        result = 31 * result + Objects.hashCode(reason);
+        result = 31 * result + Objects.hashCode(name);
+        result = 31 * result + Objects.hashCode(keyName);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("variation", variation)
+                .add("id", id)
+                .add("reason", reason)
+                .add("name", name)
+                .add("keyName", keyName)
+                .toString();
+    }
+
+    static final class LongEvalDetailTypeAdapter extends TypeAdapter<LongEvalDetail> {
+        @Override
+        public void write(JsonWriter out, LongEvalDetail detail) throws IOException {
+            out.beginObject();
+            out.name("variation").value(detail.variation);
+            out.name("id").value(detail.id);
+            out.name("reason").value(detail.reason);
+            out.name("name").value(detail.name);
+            out.name("keyName").value(detail.keyName);
+            out.endObject();
+        }
+
+        @Override
+        public LongEvalDetail read(JsonReader in) throws IOException {
+            long variation = 0L;
+            int id = 0;
+            String reason = null;
+            String name = null;
+            String keyName = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "variation":
+                        if (in.peek() == JsonToken.NULL) {
+                            in.nextNull();
+                        } else {
+                            variation = in.nextLong();
+                        }
+                        break;
+                    case "id":
+                        id = JsonAdapters.nextInt(in);
+                        break;
+                    case "reason":
+                        reason = Interning.intern(JsonAdapters.nextString(in));
+                        break;
+                    case "name":
+                        name = Interning.intern(JsonAdapters.nextString(in));
+                        break;
+                    case "keyName":
+                        keyName = Interning.intern(JsonAdapters.nextString(in));
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return Interning.intern(new LongEvalDetail(variation, id, reason, keyName, name));
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package co.featureflags.commons.model;
+
+import co.featureflags.commons.json.JsonArrayReader;
+import co.featureflags.commons.json.JsonHelper;
+import co.featureflags.commons.json.JsonParseException;
+import co.featureflags.commons.json.JsonScanner;
+import com.google.common.collect.ImmutableList;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * decodes the json of a large {@link AllFlagStates} on a {@link ForkJoinPool}.
+ * <p>
+ * The json is scanned once to find the boundaries of the elements of the data array, the elements are then
+ * decoded by chunks in parallel into their slots and merged in their order into the snapshot.
+ * The elements are decoded by the same adapter as {@link AllFlagStates#fromJson(String, Class)}, and if the structural
+ * scan or a chunk fails, the whole json is decoded sequentially, so that the result, or the error, is always the
+ * same as the sequential decoding.
+ */
+final class ParallelFlagDecoder<T> {
+
+    // below this number of flags, the cost of the tasks exceeds the gain
+    static final int MIN_PARALLEL_FLAGS = 2048;
+
+    private static final int MIN_CHUNK_FLAGS = 256;
+
+    private final String json;
+
+    private final Type detailType;
+
+    private boolean success;
+
+    private String message;
+
+    // start and end of each element, in pairs
+    private int[] bounds = new int[64];
+
+    private int count;
+
+    private ParallelFlagDecoder(String json) {
+        this.json = json;
+        // the element type of the sequential decoding by AllFlagStates.fromJson
+        this.detailType = AllFlagStates.AllFlagStatesTypeAdapterFactory.detailType(TypeToken.get(AllFlagStates.JSON_TYPE)).getType();
+    }
+
+    static <T> AllFlagStates<T> decode(String json, Class<T> cls, ForkJoinPool pool) throws JsonParseException {
+        if (json == null || pool.getParallelism() < 2) {
+            return AllFlagStates.fromJson(json, cls);
+        }
+        ParallelFlagDecoder<T> decoder = new ParallelFlagDecoder<>(json);
+        try {
+            decoder.scan();
+        } catch (RuntimeException | IOException e) {
+            // a lenient json, or an invalid one: the sequential decoding accepts it or reports the same error
+            return AllFlagStates.fromJson(json, cls);
+        }
+        if (decoder.count < MIN_PARALLEL_FLAGS) {
+            return AllFlagStates.fromJson(json, cls);
+        }
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        EvalDetail<T>[] details = (EvalDetail<T>[]) new EvalDetail[decoder.count];
+        int chunk = Math.max(MIN_CHUNK_FLAGS, decoder.count / (pool.getParallelism() * 4));
+        try {
+            pool.invoke(decoder.new Chunk(details, 0, decoder.count, chunk));
+            return new AllFlagStates<>(decoder.success, decoder.message, ImmutableList.copyOf(details));
+        } catch (RuntimeException e) {
+            return AllFlagStates.fromJson(json, cls);
+        }
+    }
+
+    // the members are read in the same way as AllFlagStatesTypeAdapter, several data arrays are appended
+    private void scan() throws IOException {
+        int i = JsonScanner.expect(json, 0, '{');
+        boolean empty = JsonScanner.peek(json, i, '}');
+        boolean hasNext = !empty;
+        while (hasNext) {
+            int nameStart = JsonScanner.skipWhitespace(json, i);
+            int nameEnd = JsonScanner.skipString(json, JsonScanner.expect(json, nameStart, '"') - 1);
+            int valueStart = JsonScanner.skipWhitespace(json, JsonScanner.expect(json, nameEnd, ':'));
+            int valueEnd;
+            if (JsonScanner.stringEquals(json, nameStart, nameEnd, "data") && JsonScanner.peek(json, valueStart, '[')) {
+                valueEnd = scanData(valueStart);
+            } else {
+                valueEnd = JsonScanner.skipValue(json, valueStart);
+                if (JsonScanner.stringEquals(json, nameStart, nameEnd, "success")) {
+                    success = JsonAdapters.nextBoolean(valueReader(valueStart, valueEnd));
+                } else if (JsonScanner.stringEquals(json, nameStart, nameEnd, "message")) {
+                    message = JsonAdapters.nextString(valueReader(valueStart, valueEnd));
+                } else if (JsonScanner.stringEquals(json, nameStart, nameEnd, "data")) {
+                    // only null is accepted besides an array
+                    valueReader(valueStart, valueEnd).nextNull();
+                }
+            }
+            i = valueEnd;
+            hasNext = nextMember(i, '}');
+            i = JsonScanner.skipWhitespace(json, i) + 1;
+        }
+        if (empty) {
+            i = JsonScanner.expect(json, i, '}');
+        }
+        if (JsonScanner.skipWhitespace(json, i) != json.length()) {
+            throw new JsonParseException("Malformed json at position " + i + ": end of document expected");
+        }
+    }
+
+    private int scanData(int from) {
+        int i = from + 1;
+        boolean empty = JsonScanner.peek(json, i, ']');
+        boolean hasNext = !empty;
+        while (hasNext) {
+            int start = JsonScanner.skipWhitespace(json, i);
+            int end = JsonScanner.skipValue(json, start);
+            if (count * 2 == bounds.length) {
+                bounds = Arrays.copyOf(bounds, bounds.length * 2);
+            }
+            bounds[count * 2] = start;
+            bounds[count * 2 + 1] = end;
+            count++;
+            i = end;
+            hasNext = nextMember(i, ']');
+            i = JsonScanner.skipWhitespace(json, i) + 1;
+        }
+        return empty ? JsonScanner.expect(json, i, ']') : i;
+    }
+
+    // true if a ',' follows, false if the closing char follows
+    private boolean nextMember(int from, char closing) {
+        if (JsonScanner.peek(json, from, ',')) {
+            return true;
+        }
+        JsonScanner.expect(json, from, closing);
+        return false;
+    }
+
+    private JsonReader valueReader(int from, int to) {
+        JsonReader reader = new JsonReader(new StringReader(json.substring(from, to)));
+        reader.setLenient(true);
+        return reader;
+    }
+
+    /**
+     * decodes the elements from index {@code from} to {@code to}, split in halves until the chunk size is reached
+     */
+    private final class Chunk extends RecursiveAction {
+        private final EvalDetail<T>[] details;
+        private final int from;
+        private final int to;
+        private final int size;
+
+        Chunk(EvalDetail<T>[] details, int from, int to, int size) {
+            this.details = details;
+            this.from = from;
+            this.to = to;
+            this.size = size;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > size) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Chunk(details, from, middle, size), new Chunk(details, middle, to, size));
+                return;
+            }
+            // the elements of the chunk are read as one array, without copying the json
+            Reader reader = new ArrayRegionReader(json, bounds[from * 2], bounds[to * 2 - 1]);
+            JsonArrayReader<EvalDetail<T>> elements = JsonHelper.arrayReader(reader, detailType);
+            for (int i = from; i < to; i++) {
+                details[i] = elements.next();
+            }
+            if (elements.hasNext()) {
+                throw new JsonParseException("Received Data invalid");
+            }
+        }
+    }
+
+    /**
+     * reads a region of a string enclosed in brackets
+     */
+    private static final class ArrayRegionReader extends Reader {
+        private final String json;
+        private final int end;
+        private int position;
+        private boolean opened;
+        private boolean closed;
+
+        ArrayRegionReader(String json, int start, int end) {
+            this.json = json;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            int n = 0;
+            if (!opened) {
+                buffer[offset + n++] = '[';
+                opened = true;
+            }
+            int copied = Math.min(length - n, end - position);
+            json.getChars(position, position + copied, buffer, offset + n);
+            position += copied;
+            n += copied;
+            if (position == end && !closed && n < length) {
+                buffer[offset + n++] = ']';
+                closed = true;
+            }
+            return n == 0 ? -1 : n;
+        }
+
+        @Override
+        public void close() {
+            // nothing to release
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package co.featureflags.commons.model;
+
+import co.featureflags.commons.json.JsonHelper;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * The {@link AllFlagStates} of boolean or numeric flags, which holds {@link BooleanEvalDetail}, {@link LongEvalDetail}
+ * or {@link DoubleEvalDetail} and never boxes the flag values.
+ * This object has the same json form as {@link AllFlagStates}
+ *
+ * @param <D> BooleanEvalDetail/LongEvalDetail/DoubleEvalDetail
+ */
+@JsonAdapter(PrimitiveAllFlagStates.PrimitiveAllFlagStatesTypeAdapterFactory.class)
+public final class PrimitiveAllFlagStates<D extends BasicEvalDetail> extends BasicFlagState implements Serializable {
+    private final List<D> data;
+
+    private final transient Map<String, D> cache;
+
+    private PrimitiveAllFlagStates(boolean success, String message, List<D> data) {
+        super(success, success ? "OK" : message);
+        this.data = data == null ? ImmutableList.of() : ImmutableList.copyOf(data);
+        ImmutableMap.Builder<String, D> builder = ImmutableMap.builder();
+        for (D detail : this.data) {
+            builder.put(detail.getKeyName(), detail);
+        }
+        this.cache = builder.build();
+    }
+
+    private PrimitiveAllFlagStates(boolean success, String message, ImmutableList<D> data, ImmutableMap<String, D> cache) {
+        super(success, success ? "OK" : message);
+        this.data = data;
+        this.cache = cache;
+    }
+
+    /**
+     * build a PrimitiveAllFlagStates without flag value
+     *
+     * @param message the reason without flag value
+     * @param <D>     BooleanEvalDetail/LongEvalDetail/DoubleEvalDetail
+     * @return a PrimitiveAllFlagStates
+     */
+    public static <D extends BasicEvalDetail> PrimitiveAllFlagStates<D> empty(String message) {
+        return new PrimitiveAllFlagStates<>(false, message, null);
+    }
+
+    /**
+     * build a PrimitiveAllFlagStates
+     *
+     * @param success true if the last request is successful
+     * @param message the reason
+     * @param data    all flag values
+     * @param <D>     BooleanEvalDetail/LongEvalDetail/DoubleEvalDetail
+     * @return a PrimitiveAllFlagStates
+     */
+    public static <D extends BasicEvalDetail> PrimitiveAllFlagStates<D> of(boolean success, String message, List<D> data) {
+        return new PrimitiveAllFlagStates<>(success, message, data);
+    }
+
+    /**
+     * build a PrimitiveAllFlagStates from the json of an {@link AllFlagStates}
+     *
+     * @param json a string json
+     * @param cls  BooleanEvalDetail/LongEvalDetail/DoubleEvalDetail class
+     * @param <D>  BooleanEvalDetail/LongEvalDetail/DoubleEvalDetail
+     * @return a PrimitiveAllFlagStates
+     */
+    public static <D extends BasicEvalDetail> PrimitiveAllFlagStates<D> fromJson(String json, Class<D> cls) {
+        return JsonHelper.deserialize(json, TypeToken.getParameterized(PrimitiveAllFlagStates.class, cls).getType());
+    }
+
+    /**
+     * build a PrimitiveAllFlagStates from the UTF-8 json of an {@link AllFlagStates} in a heap or direct buffer,
+     * without decoding the json into a string first
+     *
+     * @param json UTF-8 json between the position and the limit of the buffer, the position is not changed
+     * @param cls  BooleanEvalDetail/LongEvalDetail/DoubleEvalDetail class
+     * @param <D>  BooleanEvalDetail/LongEvalDetail/DoubleEvalDetail
+     * @return a PrimitiveAllFlagStates
+     */
+    public static <D extends BasicEvalDetail> PrimitiveAllFlagStates<D> fromJson(ByteBuffer json, Class<D> cls) {
+        return JsonHelper.deserialize(json, TypeToken.getParameterized(PrimitiveAllFlagStates.class, cls).getType());
+    }
+
+    /**
+     * return details of all the flags
+     *
+     * @return a map of flag key name and the {@link Function} to get the its detail
+     */
+    public Map<String, Function<String, D>> getData() {
+        ImmutableMap.Builder<String, Function<String, D>> map = ImmutableMap.builder();
+        for (D detail : data) {
+            map.put(detail.getKeyName(), this::get);
+        }
+        return map.build();
+    }
+
+    /**
+     * return a detail of a given flag key name
+     *
+     * @param flagKeyName flag key name
+     * @return BooleanEvalDetail/LongEvalDetail/DoubleEvalDetail or null
+     */
+    public D get(String flagKeyName) {
+        return cache.get(flagKeyName);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("success", success)
+                .add("message", message)
+                .add("data", data)
+                .toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PrimitiveAllFlagStates<?> that = (PrimitiveAllFlagStates<?>) o;
+        return Objects.equals(data, that.data) && Objects.equals(message, that.message)
+                && success == that.success;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(success, message, data);
+    }
+
+    static final class PrimitiveAllFlagStatesTypeAdapterFactory implements TypeAdapterFactory {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <R> TypeAdapter<R> create(Gson gson, TypeToken<R> typeToken) {
+            TypeAdapter<?> detailAdapter = gson.getAdapter(TypeToken.get(JsonAdapters.typeArgument(typeToken)));
+            return (TypeAdapter<R>) new PrimitiveAllFlagStatesTypeAdapter<>((TypeAdapter<BasicEvalDetail>) detailAdapter);
+        }
+    }
+
+    static final class PrimitiveAllFlagStatesTypeAdapter<D extends BasicEvalDetail> extends TypeAdapter<PrimitiveAllFlagStates<D>> {
+        private final TypeAdapter<D> detailAdapter;
+
+        PrimitiveAllFlagStatesTypeAdapter(TypeAdapter<D> detailAdapter) {
+            this.detailAdapter = detailAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, PrimitiveAllFlagStates<D> allFlagStates) throws IOException {
+            out.beginObject();
+            out.name("data").beginArray();
+            for (D detail : allFlagStates.data) {
+                detailAdapter.write(out, detail);
+            }
+            out.endArray();
+            out.name("success").value(allFlagStates.success);
+            out.name("message").value(allFlagStates.message);
+            out.endObject();
+        }
+
+        @Override
+        public PrimitiveAllFlagStates<D> read(JsonReader in) throws IOException {
+            ImmutableList.Builder<D> data = ImmutableList.builder();
+            ImmutableMap.Builder<String, D> cache = ImmutableMap.builder();
+            boolean success = false;
+            String message = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "data":
+                        if (in.peek() == JsonToken.NULL) {
+                            in.nextNull();
+                            break;
+                        }
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            D detail = detailAdapter.read(in);
+                            data.add(detail);
+                            cache.put(detail.getKeyName(), detail);
+                        }
+                        in.endArray();
+                        break;
+                    case "success":
+                        success = JsonAdapters.nextBoolean(in);
+                        break;
+                    case "message":
+                        message = JsonAdapters.nextString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return new PrimitiveAllFlagStates<>(success, message, data.build(), cache.build());
+        }
+    }
+}
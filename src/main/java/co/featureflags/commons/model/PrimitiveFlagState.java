@@ -0,0 +1,152 @@
+package co.featureflags.commons.model;
+
+import co.featureflags.commons.json.JsonHelper;
+import com.google.common.base.MoreObjects;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * The {@link FlagState} of a boolean or numeric flag, which holds a {@link BooleanEvalDetail}, a {@link LongEvalDetail}
+ * or a {@link DoubleEvalDetail} and never boxes the flag value.
+ * This object has the same json form as {@link FlagState}
+ *
+ * @param <D> BooleanEvalDetail/LongEvalDetail/DoubleEvalDetail
+ */
+@JsonAdapter(PrimitiveFlagState.PrimitiveFlagStateTypeAdapterFactory.class)
+public final class PrimitiveFlagState<D extends BasicEvalDetail> extends BasicFlagState implements Serializable {
+    private final D data;
+
+    private PrimitiveFlagState(boolean success, String message, D data) {
+        super(success, message);
+        this.data = data;
+    }
+
+    /**
+     * build a good flag state
+     *
+     * @param data a flag value with reason
+     * @param <D>  BooleanEvalDetail/LongEvalDetail/DoubleEvalDetail
+     * @return a PrimitiveFlagState
+     */
+    public static <D extends BasicEvalDetail> PrimitiveFlagState<D> of(D data) {
+        return new PrimitiveFlagState<>(data.isSuccess(),
+                data.isSuccess() ? "OK" : data.getReason(),
+                data);
+    }
+
+    /**
+     * build a flag state without flag value
+     *
+     * @param message message the reason without flag value
+     * @param <D>     BooleanEvalDetail/LongEvalDetail/DoubleEvalDetail
+     * @return a PrimitiveFlagState
+     */
+    public static <D extends BasicEvalDetail> PrimitiveFlagState<D> empty(String message) {
+        return new PrimitiveFlagState<>(false, message, null);
+    }
+
+    /**
+     * build a flag state from the json of a {@link FlagState}
+     *
+     * @param json a string json
+     * @param cls  BooleanEvalDetail/LongEvalDetail/DoubleEvalDetail class
+     * @param <D>  BooleanEvalDetail/LongEvalDetail/DoubleEvalDetail
+     * @return a PrimitiveFlagState
+     */
+    public static <D extends BasicEvalDetail> PrimitiveFlagState<D> fromJson(String json, Class<D> cls) {
+        return JsonHelper.deserialize(json, TypeToken.getParameterized(PrimitiveFlagState.class, cls).getType());
+    }
+
+    /**
+     * return the flag value with all the details
+     *
+     * @return BooleanEvalDetail/LongEvalDetail/DoubleEvalDetail
+     */
+    public D getData() {
+        return data;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("success", success)
+                .add("message", message)
+                .add("data", data)
+                .toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PrimitiveFlagState<?> flagState = (PrimitiveFlagState<?>) o;
+        return success == flagState.success && Objects.equals(message, flagState.message) &&
+                Objects.equals(data, flagState.data);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(success, message, data);
+    }
+
+    static final class PrimitiveFlagStateTypeAdapterFactory implements TypeAdapterFactory {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <R> TypeAdapter<R> create(Gson gson, TypeToken<R> typeToken) {
+            TypeAdapter<?> dataAdapter = gson.getAdapter(TypeToken.get(JsonAdapters.typeArgument(typeToken)));
+            return (TypeAdapter<R>) new PrimitiveFlagStateTypeAdapter<>((TypeAdapter<BasicEvalDetail>) dataAdapter);
+        }
+    }
+
+    static final class PrimitiveFlagStateTypeAdapter<D extends BasicEvalDetail> extends TypeAdapter<PrimitiveFlagState<D>> {
+        private final TypeAdapter<D> dataAdapter;
+
+        PrimitiveFlagStateTypeAdapter(TypeAdapter<D> dataAdapter) {
+            this.dataAdapter = dataAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, PrimitiveFlagState<D> flagState) throws IOException {
+            out.beginObject();
+            out.name("data");
+            dataAdapter.write(out, flagState.data);
+            out.name("success").value(flagState.success);
+            out.name("message").value(flagState.message);
+            out.endObject();
+        }
+
+        @Override
+        public PrimitiveFlagState<D> read(JsonReader in) throws IOException {
+            D data = null;
+            boolean success = false;
+            String message = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "data":
+                        data = dataAdapter.read(in);
+                        break;
+                    case "success":
+                        success = JsonAdapters.nextBoolean(in);
+                        break;
+                    case "message":
+                        message = JsonAdapters.nextString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return new PrimitiveFlagState<>(success, message, data);
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package co.featureflags.commons.model;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * the serialization proxy of the ffc objects, written in their place by the java serialization.
+ * <p>
+ * An object is written as a type byte, a version byte and its fields, the nested objects are written inline,
+ * so that the stream contains a single class descriptor, the one of this class, whatever the object.
+ * The collections are rebuilt by the factories of the objects at the reading, the internal classes
+ * (Guava immutables, index, layout) never appear in the stream.
+ * <p>
+ * The version is incremented when the format of a type changes.
+ */
+final class Ser implements Externalizable {
+
+    private static final long serialVersionUID = 1L;
+
+    static final byte EVAL_DETAIL = 1;
+    static final byte FLAG_STATE = 2;
+    static final byte ALL_FLAG_STATES = 3;
+    static final byte FFC_USER = 4;
+    static final byte USER_TAG = 5;
+    static final byte VARIATION_PARAMS = 6;
+
+    private static final byte VERSION = 1;
+
+    // a corrupted size doesn't allocate more than this before the end of the stream is reached
+    private static final int MAX_INITIAL_CAPACITY = 1024;
+
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_FALSE = 1;
+    private static final byte TAG_TRUE = 2;
+    private static final byte TAG_STRING = 3;
+    private static final byte TAG_INT = 4;
+    private static final byte TAG_LONG = 5;
+    private static final byte TAG_DOUBLE = 6;
+    private static final byte TAG_OBJECT = 7;
+
+    private byte type;
+
+    private Object object;
+
+    /**
+     * for the java serialization only
+     */
+    public Ser() {
+        super();
+    }
+
+    Ser(byte type, Object object) {
+        this.type = type;
+        this.object = object;
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeByte(type);
+        out.writeByte(VERSION);
+        switch (type) {
+            case EVAL_DETAIL:
+                writeDetail((EvalDetail<?>) object, out);
+                break;
+            case FLAG_STATE:
+                FlagState<?> flagState = (FlagState<?>) object;
+                out.writeBoolean(flagState.isSuccess());
+                writeString(flagState.getMessage(), out);
+                out.writeBoolean(flagState.getData() != null);
+                if (flagState.getData() != null) {
+                    writeDetail(flagState.getData(), out);
+                }
+                break;
+            case ALL_FLAG_STATES:
+                AllFlagStates<?> allFlagStates = (AllFlagStates<?>) object;
+                List<? extends EvalDetail<?>> details = allFlagStates.getDetails();
+                out.writeBoolean(allFlagStates.isSuccess());
+                writeString(allFlagStates.getMessage(), out);
+                writeSize(details.size(), out);
+                for (EvalDetail<?> detail : details) {
+                    writeDetail(detail, out);
+                }
+                break;
+            case FFC_USER:
+                writeUser((FFCUser) object, out);
+                break;
+            case USER_TAG:
+                UserTag tag = (UserTag) object;
+                writeString(tag.getRequestProperty(), out);
+                writeString(tag.getSource(), out);
+                writeString(tag.getUserProperty(), out);
+                break;
+            case VARIATION_PARAMS:
+                VariationParams params = (VariationParams) object;
+                writeString(params.getFeatureFlagKeyName(), out);
+                writeUser(params.getUser(), out);
+                break;
+            default:
+                throw new InvalidObjectException("Unknown serialized type: " + type);
+        }
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        type = in.readByte();
+        byte version = in.readByte();
+        if (version != VERSION) {
+            throw new InvalidObjectException("Unsupported serialized version " + version + " of type " + type);
+        }
+        switch (type) {
+            case EVAL_DETAIL:
+                object = readDetail(in);
+                break;
+            case FLAG_STATE:
+                boolean success = in.readBoolean();
+                String message = readString(in);
+                object = FlagState.of(success, message, in.readBoolean() ? readDetail(in) : null);
+                break;
+            case ALL_FLAG_STATES:
+                success = in.readBoolean();
+                message = readString(in);
+                int size = readSize(in);
+                List<EvalDetail<Object>> details = new ArrayList<>(Math.min(size, MAX_INITIAL_CAPACITY));
+                for (int i = 0; i < size; i++) {
+                    details.add(readDetail(in));
+                }
+                object = AllFlagStates.of(success, message, details);
+                break;
+            case FFC_USER:
+                object = readUser(in);
+                break;
+            case USER_TAG:
+                object = UserTag.of(readString(in), readString(in), readString(in));
+                break;
+            case VARIATION_PARAMS:
+                String featureFlagKeyName = readString(in);
+                object = VariationParams.of(featureFlagKeyName, readUser(in));
+                break;
+            default:
+                throw new StreamCorruptedException("Unknown serialized type: " + type);
+        }
+    }
+
+    private Object readResolve() {
+        return object;
+    }
+
+    private static void writeDetail(EvalDetail<?> detail, ObjectOutput out) throws IOException {
+        writeVariation(detail.getVariation(), out);
+        out.writeInt(detail.getId());
+        writeString(detail.getReason(), out);
+        writeString(detail.getKeyName(), out);
+        writeString(detail.getName(), out);
+    }
+
+    private static EvalDetail<Object> readDetail(ObjectInput in) throws IOException, ClassNotFoundException {
+        Object variation = readVariation(in);
+        int id = in.readInt();
+        String reason = readString(in);
+        String keyName = readString(in);
+        return EvalDetail.of(variation, id, reason, keyName, readString(in));
+    }
+
+    // the usual variations are written without class descriptor, the other ones by the java serialization
+    private static void writeVariation(Object variation, ObjectOutput out) throws IOException {
+        if (variation == null) {
+            out.writeByte(TAG_NULL);
+        } else if (variation instanceof Boolean) {
+            out.writeByte((Boolean) variation ? TAG_TRUE : TAG_FALSE);
+        } else if (variation instanceof String) {
+            out.writeByte(TAG_STRING);
+            writeString((String) variation, out);
+        } else if (variation instanceof Integer) {
+            out.writeByte(TAG_INT);
+            out.writeInt((Integer) variation);
+        } else if (variation instanceof Long) {
+            out.writeByte(TAG_LONG);
+            out.writeLong((Long) variation);
+        } else if (variation instanceof Double) {
+            out.writeByte(TAG_DOUBLE);
+            out.writeDouble((Double) variation);
+        } else {
+            out.writeByte(TAG_OBJECT);
+            out.writeObject(variation);
+        }
+    }
+
+    private static Object readVariation(ObjectInput in) throws IOException, ClassNotFoundException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_FALSE:
+                return Boolean.FALSE;
+            case TAG_TRUE:
+                return Boolean.TRUE;
+            case TAG_STRING:
+                return readString(in);
+            case TAG_INT:
+                return in.readInt();
+            case TAG_LONG:
+                return in.readLong();
+            case TAG_DOUBLE:
+                return in.readDouble();
+            case TAG_OBJECT:
+                return in.readObject();
+            default:
+                throw new StreamCorruptedException("Unknown variation tag: " + tag);
+        }
+    }
+
+    private static void writeUser(FFCUser user, ObjectOutput out) throws IOException {
+        writeString(user.getKey(), out);
+        writeString(user.getUserName(), out);
+        writeString(user.getEmail(), out);
+        writeString(user.getCountry(), out);
+        String[] keys = user.customKeys();
+        String[] values = user.customValues();
+        writeSize(keys.length, out);
+        for (int i = 0; i < keys.length; i++) {
+            writeString(keys[i], out);
+            writeString(values[i], out);
+        }
+        byte[] types = user.customTypes();
+        out.writeBoolean(types != null);
+        if (types != null) {
+            out.write(types);
+        }
+    }
+
+    private static FFCUser readUser(ObjectInput in) throws IOException {
+        String key = readString(in);
+        String userName = readString(in);
+        String email = readString(in);
+        String country = readString(in);
+        int size = readSize(in);
+        List<String> keys = new ArrayList<>(Math.min(size, MAX_INITIAL_CAPACITY));
+        List<String> values = new ArrayList<>(Math.min(size, MAX_INITIAL_CAPACITY));
+        for (int i = 0; i < size; i++) {
+            keys.add(readString(in));
+            values.add(readString(in));
+        }
+        byte[] types = null;
+        if (in.readBoolean()) {
+            types = new byte[size];
+            in.readFully(types);
+        }
+        try {
+            return FFCUser.restore(key, userName, email, country, keys.toArray(new String[0]), values.toArray(new String[0]), types);
+        } catch (IllegalArgumentException e) {
+            InvalidObjectException error = new InvalidObjectException(e.getMessage());
+            error.initCause(e);
+            throw error;
+        }
+    }
+
+    // a variable length size, 1 byte below 128
+    private static void writeSize(int size, ObjectOutput out) throws IOException {
+        int value = size;
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readSize(ObjectInput in) throws IOException {
+        int size = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readByte();
+            size |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (size < 0) {
+                    break;
+                }
+                return size;
+            }
+        }
+        throw new StreamCorruptedException("Invalid size");
+    }
+
+    // the UTF-8 length + 1, 0 for null, then the UTF-8 bytes: not limited to 64 KB as writeUTF
+    private static void writeString(String s, ObjectOutput out) throws IOException {
+        if (s == null) {
+            writeSize(0, out);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeSize(bytes.length + 1, out);
+        out.write(bytes);
+    }
+
+    private static String readString(ObjectInput in) throws IOException {
+        int size = readSize(in);
+        if (size == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[size - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -1,13 +1,21 @@
 package co.featureflags.commons.model;
 
 import com.google.common.base.MoreObjects;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.Objects;
 
 /**
  * an object provides the user tags used to instantiate the FFCUser
  */
+@JsonAdapter(UserTag.UserTagTypeAdapter.class)
 public class UserTag implements Serializable {
 
     public static final String HEADER = "header";
@@ -69,6 +77,15 @@ public class UserTag implements Serializable {
         return userProperty;
     }
 
+    // serialized by a compact proxy, see Ser
+    private Object writeReplace() {
+        return new Ser(Ser.USER_TAG, this);
+    }
+
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("Serialization proxy required");
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -90,4 +107,40 @@ public class UserTag implements Serializable {
                 .add("userProperty", userProperty)
                 .toString();
     }
+
+    static final class UserTagTypeAdapter extends TypeAdapter<UserTag> {
+        @Override
+        public void write(JsonWriter out, UserTag userTag) throws IOException {
+            out.beginObject();
+            out.name("requestProperty").value(userTag.requestProperty);
+            out.name("source").value(userTag.source);
+            out.name("userProperty").value(userTag.userProperty);
+            out.endObject();
+        }
+
+        @Override
+        public UserTag read(JsonReader in) throws IOException {
+            String requestProperty = null;
+            String source = null;
+            String userProperty = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "requestProperty":
+                        requestProperty = JsonAdapters.nextString(in);
+                        break;
+                    case "source":
+                        source = JsonAdapters.nextString(in);
+                        break;
+                    case "userProperty":
+                        userProperty = JsonAdapters.nextString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return new UserTag(requestProperty, source, userProperty);
+        }
+    }
 }
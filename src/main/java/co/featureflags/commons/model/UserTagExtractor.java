@@ -0,0 +1,312 @@
+package co.featureflags.commons.model;
+
+import co.featureflags.commons.json.JsonParseException;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * extracts the values of the user tags from the raw data of a http request and builds a {@link FFCUser}.
+ * Only the properties used by the user tags are read:
+ * <ul>
+ *     <li>the cookie header and the query string are scanned in place, only the values of the tags are copied,
+ *     a query string value is url-decoded only if it's used</li>
+ *     <li>the body is streamed as a json object, only its top-level fields used by the tags are read,
+ *     the reading stops as soon as they are all found</li>
+ * </ul>
+ * <pre><code>
+ *     UserTagExtractor extractor = UserTagExtractor.of(userTags);
+ *     // for each request
+ *     FFCUser user = extractor.extract(request::getHeader, request.getQueryString(), request.getReader());
+ * </code></pre>
+ * An extractor is immutable and thread safe.
+ */
+public final class UserTagExtractor {
+
+    private static final String COOKIE_HEADER = "Cookie";
+
+    private static final String DATA_INVALID_ERROR = "Received Data invalid";
+
+    private final UserTagPlan plan;
+
+    // for each source, the indexes of its tags and their request properties
+    private final Source headers;
+    private final Source cookies;
+    private final Source queryString;
+    private final Source body;
+
+    private UserTagExtractor(UserTagPlan plan) {
+        this.plan = plan;
+        List<UserTag> tags = plan.getTags();
+        this.headers = Source.of(tags, UserTag.HEADER);
+        this.cookies = Source.of(tags, UserTag.COOKIE);
+        this.queryString = Source.of(tags, UserTag.QUERY_STRING);
+        this.body = Source.of(tags, UserTag.POST_BODY);
+    }
+
+    /**
+     * build an extractor for the user tags of a configuration
+     *
+     * @param tags user tags
+     * @return a UserTagExtractor
+     */
+    public static UserTagExtractor of(List<UserTag> tags) {
+        return new UserTagExtractor(UserTagPlan.compile(tags));
+    }
+
+    /**
+     * build an extractor for a compiled list of user tags
+     *
+     * @param plan compiled user tags
+     * @return a UserTagExtractor
+     */
+    public static UserTagExtractor of(UserTagPlan plan) {
+        return new UserTagExtractor(Preconditions.checkNotNull(plan, "plan should not be null"));
+    }
+
+    /**
+     * return true if a user tag reads the body, so that a request without body could skip it
+     *
+     * @return true if the body is needed
+     */
+    public boolean needsBody() {
+        return body.size() > 0;
+    }
+
+    /**
+     * extract the user from a http request
+     *
+     * @param header      returns the value of a request header by name, or null if absent. The cookies are read in the Cookie header
+     * @param queryString the raw query string, without '?', or null
+     * @param body        a json body, or null. It's not closed by this method and may not be fully read
+     * @return a FFCUser, or null if the user key is absent
+     * @throws JsonParseException if the body is needed and it's not a valid json object
+     */
+    public FFCUser extract(Function<String, String> header, String queryString, Reader body) throws JsonParseException {
+        String[] values = new String[plan.size()];
+        for (int i = 0; i < headers.size(); i++) {
+            values[headers.indexes[i]] = header.apply(headers.names[i]);
+        }
+        if (cookies.size() > 0) {
+            scanCookies(header.apply(COOKIE_HEADER), values);
+        }
+        if (queryString != null && this.queryString.size() > 0) {
+            scanQueryString(queryString, values);
+        }
+        if (body != null && this.body.size() > 0) {
+            readBody(body, values);
+        }
+        return plan.map(values);
+    }
+
+    // name=value; name2="value2"
+    private void scanCookies(String cookieHeader, String[] values) {
+        if (cookieHeader == null) {
+            return;
+        }
+        int length = cookieHeader.length();
+        int start = 0;
+        while (start < length) {
+            int end = cookieHeader.indexOf(';', start);
+            if (end < 0) {
+                end = length;
+            }
+            int eq = cookieHeader.indexOf('=', start);
+            if (eq > 0 && eq < end) {
+                int nameStart = skipSpaces(cookieHeader, start, eq);
+                int nameEnd = trimSpaces(cookieHeader, nameStart, eq);
+                int valueStart = skipSpaces(cookieHeader, eq + 1, end);
+                int valueEnd = trimSpaces(cookieHeader, valueStart, end);
+                if (valueEnd - valueStart >= 2 && cookieHeader.charAt(valueStart) == '"' && cookieHeader.charAt(valueEnd - 1) == '"') {
+                    valueStart++;
+                    valueEnd--;
+                }
+                cookies.match(cookieHeader, nameStart, nameEnd, valueStart, valueEnd, false, values);
+            }
+            start = end + 1;
+        }
+    }
+
+    // name=value&name2=value%202
+    private void scanQueryString(String query, String[] values) {
+        int length = query.length();
+        int start = 0;
+        while (start < length) {
+            int end = query.indexOf('&', start);
+            if (end < 0) {
+                end = length;
+            }
+            int eq = query.indexOf('=', start);
+            if (eq < 0 || eq > end) {
+                eq = end;
+            }
+            queryString.match(query, start, eq, Math.min(eq + 1, end), end, true, values);
+            start = end + 1;
+        }
+    }
+
+    private void readBody(Reader reader, String[] values) throws JsonParseException {
+        int remaining = body.size();
+        try {
+            JsonReader in = new JsonReader(reader);
+            in.beginObject();
+            while (remaining > 0 && in.hasNext()) {
+                String name = in.nextName();
+                JsonToken token = in.peek();
+                if (!body.contains(name) || token == JsonToken.BEGIN_OBJECT || token == JsonToken.BEGIN_ARRAY || token == JsonToken.NULL) {
+                    in.skipValue();
+                    continue;
+                }
+                String value = token == JsonToken.BOOLEAN ? String.valueOf(in.nextBoolean()) : in.nextString();
+                for (int i = 0; i < body.size(); i++) {
+                    if (body.names[i].equals(name) && values[body.indexes[i]] == null) {
+                        values[body.indexes[i]] = value;
+                        remaining--;
+                    }
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            throw new JsonParseException(DATA_INVALID_ERROR, e);
+        }
+    }
+
+    private static int skipSpaces(String s, int start, int end) {
+        while (start < end && s.charAt(start) == ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimSpaces(String s, int start, int end) {
+        while (end > start && s.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("tags", plan.getTags())
+                .toString();
+    }
+
+    /**
+     * the tags reading a source of the request
+     */
+    private static final class Source {
+        private final int[] indexes;
+        private final String[] names;
+
+        private Source(int[] indexes, String[] names) {
+            this.indexes = indexes;
+            this.names = names;
+        }
+
+        static Source of(List<UserTag> tags, String source) {
+            int count = 0;
+            for (UserTag tag : tags) {
+                if (isSource(tag, source)) {
+                    count++;
+                }
+            }
+            int[] indexes = new int[count];
+            String[] names = new String[count];
+            for (int i = 0, j = 0; i < tags.size(); i++) {
+                UserTag tag = tags.get(i);
+                if (isSource(tag, source)) {
+                    indexes[j] = i;
+                    names[j++] = tag.getRequestProperty();
+                }
+            }
+            return new Source(indexes, names);
+        }
+
+        private static boolean isSource(UserTag tag, String source) {
+            return source.equalsIgnoreCase(tag.getSource()) && tag.getRequestProperty() != null && !tag.getRequestProperty().isEmpty();
+        }
+
+        int size() {
+            return indexes.length;
+        }
+
+        boolean contains(String name) {
+            for (String n : names) {
+                if (n.equals(name)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * set the value of the tags named s[nameStart, nameEnd), the first occurrence of a name wins.
+         * the value is copied only if a tag needs it
+         */
+        void match(String s, int nameStart, int nameEnd, int valueStart, int valueEnd, boolean urlEncoded, String[] values) {
+            int nameLength = nameEnd - nameStart;
+            String value = null;
+            for (int i = 0; i < names.length; i++) {
+                String name = names[i];
+                if (name.length() == nameLength && s.regionMatches(nameStart, name, 0, nameLength) && values[indexes[i]] == null) {
+                    if (value == null) {
+                        value = s.substring(valueStart, valueEnd);
+                        if (urlEncoded) {
+                            value = urlDecode(value);
+                        }
+                    }
+                    values[indexes[i]] = value;
+                }
+            }
+        }
+
+        // decodes '+' and each valid escape, a malformed escape is kept as it is
+        private static String urlDecode(String value) {
+            if (value.indexOf('%') < 0 && value.indexOf('+') < 0) {
+                return value;
+            }
+            int length = value.length();
+            StringBuilder decoded = new StringBuilder(length);
+            byte[] bytes = null;
+            int i = 0;
+            while (i < length) {
+                char c = value.charAt(i);
+                if (c == '+') {
+                    decoded.append(' ');
+                    i++;
+                } else if (isEscape(value, i)) {
+                    // the consecutive escapes are decoded together, they are the UTF-8 bytes of a character
+                    if (bytes == null) {
+                        bytes = new byte[(length - i) / 3];
+                    }
+                    int n = 0;
+                    while (isEscape(value, i)) {
+                        bytes[n++] = (byte) ((hexDigit(value.charAt(i + 1)) << 4) + hexDigit(value.charAt(i + 2)));
+                        i += 3;
+                    }
+                    decoded.append(new String(bytes, 0, n, StandardCharsets.UTF_8));
+                } else {
+                    decoded.append(c);
+                    i++;
+                }
+            }
+            return decoded.toString();
+        }
+
+        private static boolean isEscape(String s, int i) {
+            return i + 2 < s.length() && s.charAt(i) == '%' && hexDigit(s.charAt(i + 1)) >= 0 && hexDigit(s.charAt(i + 2)) >= 0;
+        }
+
+        // only the ASCII hex digits, unlike Character.digit
+        private static int hexDigit(char c) {
+            return c < 128 ? Character.digit(c, 16) : -1;
+        }
+    }
+}
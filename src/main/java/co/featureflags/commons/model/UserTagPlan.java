@@ -0,0 +1,205 @@
+package co.featureflags.commons.model;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * a list of {@link UserTag} compiled once into the property of {@link FFCUser} set by each tag,
+ * so that a user is built from the values of the tags without parsing the tags or using a {@link FFCUser.Builder}.
+ * <p>
+ * The tags are mapped like {@link FFCUser#of(Map)} does: a user property KeyId, Name, Email or Country(ignoring case)
+ * sets the built-in attribute, any other one sets a custom attribute, named by the request property if the user property is blank.
+ * If several tags set the same attribute, the last one wins.
+ * <pre><code>
+ *     UserTagPlan plan = UserTagPlan.compile(tags);
+ *     // for each request
+ *     String[] values = new String[plan.size()];
+ *     values[i] = ...; // the value of the i-th tag, null if absent
+ *     FFCUser user = plan.map(values);
+ * </code></pre>
+ * A plan is immutable and thread safe.
+ */
+public final class UserTagPlan {
+
+    private static final int KEY = -1;
+    private static final int USERNAME = -2;
+    private static final int EMAIL = -3;
+    private static final int COUNTRY = -4;
+    private static final int IGNORED = -5;
+
+    private final List<UserTag> tags;
+
+    // the attribute set by each tag: a built-in one or the slot of a custom one in the layout
+    private final int[] targets;
+
+    private final FFCUser.Layout layout;
+
+    private final String[] customNames;
+
+    private UserTagPlan(List<UserTag> tags, int[] targets, String[] customNames) {
+        this.tags = tags;
+        this.targets = targets;
+        this.customNames = customNames;
+        this.layout = FFCUser.Layout.of(customNames);
+    }
+
+    /**
+     * compile a list of user tags
+     *
+     * @param tags the user tags of a configuration
+     * @return a UserTagPlan
+     */
+    public static UserTagPlan compile(List<UserTag> tags) {
+        Preconditions.checkNotNull(tags, "tags should not be null");
+        ImmutableList<UserTag> list = ImmutableList.copyOf(tags);
+        int[] targets = new int[list.size()];
+        Map<String, Integer> customTags = new TreeMap<>();
+        for (int i = 0; i < list.size(); i++) {
+            UserTag tag = list.get(i);
+            String userProperty = StringUtils.defaultString(tag.getUserProperty());
+            switch (userProperty.toLowerCase()) {
+                case "keyid":
+                    targets[i] = KEY;
+                    break;
+                case "name":
+                    targets[i] = USERNAME;
+                    break;
+                case "email":
+                    targets[i] = EMAIL;
+                    break;
+                case "country":
+                    targets[i] = COUNTRY;
+                    break;
+                default:
+                    String name = StringUtils.isNotBlank(userProperty) ? userProperty : tag.getRequestProperty();
+                    if (StringUtils.isBlank(name) || FFCUser.BUILTINS.containsKey(name)) {
+                        targets[i] = IGNORED;
+                    } else {
+                        customTags.putIfAbsent(name, customTags.size());
+                        targets[i] = customTags.get(name);
+                    }
+            }
+        }
+        // the custom slots are numbered in the order of the tags, renumber them in the order of the names
+        String[] customNames = customTags.keySet().toArray(new String[0]);
+        int[] slots = new int[customNames.length];
+        int slot = 0;
+        for (int index : customTags.values()) {
+            slots[index] = slot++;
+        }
+        for (int i = 0; i < targets.length; i++) {
+            if (targets[i] >= 0) {
+                targets[i] = slots[targets[i]];
+            }
+        }
+        return new UserTagPlan(list, targets, customNames);
+    }
+
+    /**
+     * return the compiled user tags
+     *
+     * @return an immutable list
+     */
+    public List<UserTag> getTags() {
+        return tags;
+    }
+
+    /**
+     * return the number of user tags
+     *
+     * @return the length of the values given to {@link #map(String[])}
+     */
+    public int size() {
+        return targets.length;
+    }
+
+    /**
+     * build a user from the values of the user tags.
+     * when all the custom attributes are present, the user shares the names of its custom attributes with the plan
+     * and only the user and its values are allocated
+     *
+     * @param values the values of the user tags, in the order of the tags, null if absent
+     * @return a FFCUser, or null if the user key is absent
+     */
+    public FFCUser map(String[] values) {
+        Preconditions.checkArgument(values.length == targets.length, "expected %s values", targets.length);
+        String key = null;
+        String userName = null;
+        String email = null;
+        String country = null;
+        String[] customValues = new String[customNames.length];
+        int customCount = 0;
+        for (int i = 0; i < targets.length; i++) {
+            String value = values[i];
+            if (value == null) {
+                continue;
+            }
+            switch (targets[i]) {
+                case KEY:
+                    key = value;
+                    break;
+                case USERNAME:
+                    userName = value;
+                    break;
+                case EMAIL:
+                    email = value;
+                    break;
+                case COUNTRY:
+                    country = value;
+                    break;
+                case IGNORED:
+                    break;
+                default:
+                    if (customValues[targets[i]] == null) {
+                        customCount++;
+                    }
+                    customValues[targets[i]] = value;
+            }
+        }
+        if (StringUtils.isBlank(key)) {
+            return null;
+        }
+        if (customCount == customNames.length) {
+            return new FFCUser(key, userName, email, country, layout, customValues);
+        }
+        // some custom attributes are absent: keep the present ones
+        String[] names = new String[customCount];
+        String[] presentValues = new String[customCount];
+        for (int i = 0, j = 0; i < customValues.length; i++) {
+            if (customValues[i] != null) {
+                names[j] = customNames[i];
+                presentValues[j++] = customValues[i];
+            }
+        }
+        return new FFCUser(key, userName, email, country, FFCUser.Layout.of(names), presentValues);
+    }
+
+    /**
+     * build a user from the values of the user tags
+     *
+     * @param values the values of the user tags, a tag not compiled in this plan is ignored
+     * @return a FFCUser, or null if the user key is absent
+     */
+    public FFCUser map(Map<UserTag, String> values) {
+        String[] array = new String[targets.length];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(tags.get(i));
+        }
+        return map(array);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("tags", tags)
+                .add("customNames", Arrays.toString(customNames))
+                .toString();
+    }
+}
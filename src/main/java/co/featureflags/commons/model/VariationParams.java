@@ -1,6 +1,8 @@
 package co.featureflags.commons.model;
 
+import co.featureflags.commons.json.AsyncJsonHelper;
 import co.featureflags.commons.json.JsonHelper;
+import co.featureflags.commons.json.JsonProfile;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Preconditions;
 import com.google.gson.TypeAdapter;
@@ -10,9 +12,14 @@ import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.StringUtils;
 
 import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
 import java.io.Serializable;
-import java.util.Map;
+import java.nio.ByteBuffer;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * a ffc object is used to pass the FFClient and flag key name to Server SDK Wrapped API
@@ -53,6 +60,33 @@ public class VariationParams implements Serializable {
         return null;
     }
 
+    /**
+     * build a VariationParams object from the UTF-8 json of a heap or direct buffer,
+     * without decoding the json into a string first
+     *
+     * @param json UTF-8 json between the position and the limit of the buffer, the position is not changed
+     * @return a VariationParams object, null if the buffer is empty
+     */
+    public static VariationParams fromJson(ByteBuffer json) {
+        if (json != null && json.hasRemaining()) {
+            return JsonHelper.deserialize(json, VariationParams.class);
+        }
+        return null;
+    }
+
+    /**
+     * build a VariationParams object from json string on the executor of an {@link AsyncJsonHelper}
+     * @param json json string
+     * @param async the executor and the limit of pending tasks
+     * @return a future of the VariationParams object, completed with null if the json is blank
+     */
+    public static CompletableFuture<VariationParams> fromJsonAsync(String json, AsyncJsonHelper async) {
+        if (StringUtils.isNotBlank(json)) {
+            return async.deserialize(json, VariationParams.class);
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
     /**
      * serialize a VariationParams to json string
      * @return a json string
@@ -61,6 +95,48 @@ public class VariationParams implements Serializable {
         return JsonHelper.serialize(this);
     }
 
+    /**
+     * serialize a VariationParams to json string with a given json profile
+     * @param profile json profile
+     * @return a json string
+     */
+    public String jsonfy(JsonProfile profile) {
+        return JsonHelper.serialize(this, profile);
+    }
+
+    /**
+     * write a VariationParams as json to a writer or a reusable buffer like {@link StringBuilder}
+     * @param writer a {@link java.io.Writer} or any other {@link Appendable}, not closed by this method
+     */
+    public void jsonfy(Appendable writer) {
+        JsonHelper.serialize(this, writer);
+    }
+
+    /**
+     * write a VariationParams as UTF-8 json to an output stream
+     * @param out an output stream, flushed but not closed by this method
+     */
+    public void jsonfy(OutputStream out) {
+        JsonHelper.serialize(this, out);
+    }
+
+    /**
+     * write a VariationParams as UTF-8 json to a print stream, e.g. {@link System#out}, whatever its charset
+     * @param out a print stream, flushed but not closed by this method
+     */
+    public void jsonfy(PrintStream out) {
+        JsonHelper.serialize(this, out);
+    }
+
+    /**
+     * serialize a VariationParams to json string on the executor of an {@link AsyncJsonHelper}
+     * @param async the executor and the limit of pending tasks
+     * @return a future of the json string
+     */
+    public CompletableFuture<String> jsonfyAsync(AsyncJsonHelper async) {
+        return async.serialize(this);
+    }
+
     /**
      * return a flag key name
      * @return a string or null
@@ -85,6 +161,15 @@ public class VariationParams implements Serializable {
         return needAll;
     }
 
+    // serialized by a compact proxy, see Ser
+    private Object writeReplace() {
+        return new Ser(Ser.VARIATION_PARAMS, this);
+    }
+
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("Serialization proxy required");
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -115,26 +200,38 @@ public class VariationParams implements Serializable {
             if (StringUtils.isNotBlank(variationParams.getFeatureFlagKeyName())) {
                 out.name("featureFlagKeyName").value(variationParams.getFeatureFlagKeyName());
             }
-            if (StringUtils.isNotBlank(variationParams.user.getUserName())) {
-                out.name("userName").value(variationParams.user.getUserName());
+            writeUserAttributes(out, variationParams.user);
+            out.endObject();
+        }
+
+        // the members of the user but its key, shared with the entries of a batch request
+        static void writeUserAttributes(JsonWriter out, FFCUser user) throws IOException {
+            if (StringUtils.isNotBlank(user.getUserName())) {
+                out.name("userName").value(user.getUserName());
             }
-            if (StringUtils.isNotBlank(variationParams.user.getUserName())) {
-                out.name("email").value(variationParams.user.getEmail());
+            if (StringUtils.isNotBlank(user.getUserName())) {
+                out.name("email").value(user.getEmail());
             }
-            if (StringUtils.isNotBlank(variationParams.user.getUserName())) {
-                out.name("country").value(variationParams.user.getCountry());
+            if (StringUtils.isNotBlank(user.getUserName())) {
+                out.name("country").value(user.getCountry());
             }
-            if (!variationParams.user.getCustom().isEmpty()) {
+            String[] keys = user.customKeys();
+            if (keys.length > 0) {
+                String[] values = user.customValues();
                 out.name("customizedProperties").beginArray();
-                for (Map.Entry<String, String> entry : variationParams.user.getCustom().entrySet()) {
+                for (int i = 0; i < keys.length; i++) {
                     out.beginObject();
-                    out.name("name").value(entry.getKey());
-                    out.name("value").value(entry.getValue());
+                    out.name("name").value(keys[i]);
+                    out.name("value").value(values[i]);
+                    // only the typed attributes have a type, the value keeps its string form
+                    AttributeType type = user.typeAt(i);
+                    if (type != AttributeType.STRING) {
+                        out.name("type").value(type.getJsonName());
+                    }
                     out.endObject();
                 }
                 out.endArray();
             }
-            out.endObject();
         }
 
         @Override
@@ -143,49 +240,65 @@ public class VariationParams implements Serializable {
             FFCUser.Builder builder = new FFCUser.Builder("");
             in.beginObject();
             while (in.hasNext()) {
-                switch (in.nextName()) {
-                    case "featureFlagKeyName":
-                        featureFlagKeyName = in.nextString();
-                        break;
-                    case "userKeyId":
-                        builder.key(in.nextString());
-                        break;
-                    case "userName":
-                        builder.userName(in.nextString());
-                        break;
-                    case "email":
-                        builder.email(in.nextString());
-                        break;
-                    case "country":
-                        builder.country(in.nextString());
-                        break;
-                    case "customizedProperties":
-                        in.beginArray();
-                        while (in.hasNext()) {
-                            String name = null;
-                            String value = null;
-                            in.beginObject();
-                            while (in.hasNext()) {
-                                switch (in.nextName()) {
-                                    case "name":
-                                        name = in.nextString();
-                                        break;
-                                    case "value":
-                                        value = in.nextString();
-                                        break;
-                                }
-                            }
-                            in.endObject();
-                            builder.custom(name, value);
-                        }
-                        in.endArray();
-                        break;
+                String name = in.nextName();
+                if (name.equals("featureFlagKeyName")) {
+                    featureFlagKeyName = in.nextString();
+                } else if (!readUserMember(name, in, builder)) {
+                    in.skipValue();
                 }
             }
             in.endObject();
             FFCUser user = builder.build();
             return VariationParams.of(featureFlagKeyName, user);
         }
+
+        // read a member of the user, shared with the entries of a batch request, return false if it's not a user member
+        static boolean readUserMember(String member, JsonReader in, FFCUser.Builder builder) throws IOException {
+            switch (member) {
+                case "userKeyId":
+                    builder.key(in.nextString());
+                    break;
+                case "userName":
+                    builder.userName(in.nextString());
+                    break;
+                case "email":
+                    builder.email(in.nextString());
+                    break;
+                case "country":
+                    builder.country(in.nextString());
+                    break;
+                case "customizedProperties":
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        String name = null;
+                        String value = null;
+                        AttributeType type = null;
+                        in.beginObject();
+                        while (in.hasNext()) {
+                            switch (in.nextName()) {
+                                case "name":
+                                    name = in.nextString();
+                                    break;
+                                case "value":
+                                    value = in.nextString();
+                                    break;
+                                case "type":
+                                    type = AttributeType.forJsonName(in.nextString());
+                                    break;
+                                default:
+                                    in.skipValue();
+                            }
+                        }
+                        in.endObject();
+                        builder.custom(name, value, type);
+                    }
+                    in.endArray();
+                    break;
+                default:
+                    return false;
+            }
+            return true;
+        }
     }
 
 }
@@ -0,0 +1,54 @@
+package co.featureflags.commons.model;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * a bounded pool of canonical instances, which doesn't prevent them from being garbage collected
+ * <p>
+ * the pool is a fixed table of weak references indexed by hash, a value is looked up in 2 adjacent slots.
+ * if both are taken by other live values, one of them is replaced: the pool never grows and never blocks,
+ * at the cost of missing some duplicates when it's too small.
+ *
+ * @param <T> an immutable type with equals and hashCode
+ */
+final class WeakPool<T> {
+
+    private final AtomicReferenceArray<WeakReference<T>> slots;
+
+    private final int mask;
+
+    WeakPool(int maximumSize) {
+        int capacity = Integer.highestOneBit(Math.max(maximumSize - 1, 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * return the canonical instance equal to a given value, the value itself becomes canonical if none is found
+     *
+     * @param value a value, not null
+     * @return the canonical instance
+     */
+    T intern(T value) {
+        int h = value.hashCode();
+        int first = (h ^ (h >>> 16)) & mask;
+        int second = first ^ 1;
+        WeakReference<T> ref = slots.get(first);
+        T existing = ref == null ? null : ref.get();
+        if (existing == null) {
+            slots.lazySet(first, new WeakReference<>(value));
+            return value;
+        }
+        if (existing.equals(value)) {
+            return existing;
+        }
+        ref = slots.get(second);
+        existing = ref == null ? null : ref.get();
+        if (existing != null && existing.equals(value)) {
+            return existing;
+        }
+        slots.lazySet(existing == null ? second : first, new WeakReference<>(value));
+        return value;
+    }
+}
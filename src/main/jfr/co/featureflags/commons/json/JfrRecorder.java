@@ -0,0 +1,47 @@
+package co.featureflags.commons.json;
+
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+
+import java.lang.reflect.Type;
+
+/**
+ * records the {@link SlowParseEvent}, the only class using the JFR api with the event.
+ * <p>
+ * It's compiled for java 11 from src/main/jfr by the jfr profile of the build, apart from the java 8 sources,
+ * and loaded by reflection by {@link JsonProbe}: if the class is missing, can't be loaded or JFR is not available,
+ * no event is recorded
+ */
+final class JfrRecorder implements JsonProbe.Recorder {
+
+    private final EventType slowParse = EventType.getEventType(SlowParseEvent.class);
+
+    JfrRecorder() {
+        if (!FlightRecorder.isAvailable()) {
+            throw new IllegalStateException("JFR is not available");
+        }
+    }
+
+    @Override
+    public Object begin() {
+        // false unless a recording enables the event
+        if (!slowParse.isEnabled()) {
+            return null;
+        }
+        SlowParseEvent event = new SlowParseEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void end(Object o, Type type, long size, boolean failed) {
+        SlowParseEvent event = (SlowParseEvent) o;
+        event.end();
+        if (event.shouldCommit()) {
+            event.type = type.getTypeName();
+            event.size = size;
+            event.failed = failed;
+            event.commit();
+        }
+    }
+}
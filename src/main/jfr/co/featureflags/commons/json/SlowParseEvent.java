@@ -0,0 +1,37 @@
+package co.featureflags.commons.json;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * the JDK Flight Recorder event of a deserialization slower than the threshold of the event, 10 ms by default.
+ * the threshold can be changed in the settings of the recording, e.g. {@code co.featureflags.SlowParse#threshold=1 ms}
+ * <p>
+ * this class is compiled for java 11 apart from the java 8 sources and only loaded if JFR is available,
+ * see {@link JfrRecorder}
+ */
+@Name("co.featureflags.SlowParse")
+@Label("Slow Json Parse")
+@Description("A ffc object deserialized by JsonHelper slower than the threshold")
+@Category({"Feature Flags", "Json"})
+@StackTrace
+@Threshold("10 ms")
+final class SlowParseEvent extends Event {
+
+    @Label("Type")
+    String type;
+
+    @Label("Payload Size")
+    @Description("chars for a string, bytes for a stream, -1 if unknown")
+    @DataAmount
+    long size;
+
+    @Label("Failed")
+    boolean failed;
+}
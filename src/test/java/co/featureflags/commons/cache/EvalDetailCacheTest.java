@@ -0,0 +1,36 @@
+package co.featureflags.commons.cache;
+
+import co.featureflags.commons.model.EvalDetail;
+import co.featureflags.commons.model.FFCUser;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+public class EvalDetailCacheTest {
+
+    @Test
+    public void resultsAreKeptPerUser() {
+        EvalDetailCache<Boolean> cache = new EvalDetailCache.Builder().build();
+        FFCUser user = new FFCUser.Builder("k").userName("name").build();
+        FFCUser other = new FFCUser.Builder("other").userName("name").build();
+        EvalDetail<Boolean> detail = EvalDetail.of(true, 1, "r", "ff", "n");
+        cache.put("ff", user, detail);
+        assertEquals(detail, cache.get("ff", new FFCUser.Builder("k").userName("name").build()));
+        assertNull(cache.get("ff", other));
+        assertNull(cache.get("ff", new FFCUser.Builder("k").userName("another").build()));
+        assertNull(cache.get("ff2", user));
+        cache.invalidate("ff");
+        assertNull(cache.get("ff", user));
+    }
+
+    @Test
+    public void sameFingerprintOfAnotherUserKeyIsAnotherKey() {
+        long fingerprint = new FFCUser.Builder("k").build().fingerprint();
+        EvalDetailCache.Key key = new EvalDetailCache.Key("ff", "k", fingerprint);
+        assertEquals(key, new EvalDetailCache.Key("ff", "k", fingerprint));
+        assertNotEquals(key, new EvalDetailCache.Key("ff", "other", fingerprint));
+        assertNotEquals(key, new EvalDetailCache.Key("ff2", "k", fingerprint));
+    }
+}
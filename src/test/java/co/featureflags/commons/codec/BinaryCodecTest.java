@@ -0,0 +1,74 @@
+package co.featureflags.commons.codec;
+
+import co.featureflags.commons.json.JsonParseException;
+import co.featureflags.commons.model.AttributeType;
+import co.featureflags.commons.model.EvalDetail;
+import co.featureflags.commons.model.FFCUser;
+import co.featureflags.commons.model.VariationParams;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.Assert.assertEquals;
+
+public class BinaryCodecTest {
+
+    @Test
+    public void roundTrip() {
+        EvalDetail<Boolean> detail = EvalDetail.of(true, 1, "target match", "ff", "flag");
+        assertEquals(detail, Codecs.BINARY.decode(Codecs.BINARY.encode(detail), EvalDetail.class));
+    }
+
+    @Test
+    public void typedAttributesRoundTrip() {
+        FFCUser user = new FFCUser.Builder("key")
+                .userName("name")
+                .custom("plan", "gold")
+                .custom("age", 42L)
+                .custom("score", 0.5)
+                .custom("vip", true)
+                .customDateTime("since", 1706696130000L)
+                .build();
+        VariationParams params = VariationParams.of("ff", user);
+        VariationParams decoded = Codecs.BINARY.decode(Codecs.BINARY.encode(params), VariationParams.class);
+        assertEquals(params, decoded);
+        assertEquals(VariationParams.fromJson(params.jsonfy()), decoded);
+        assertEquals(user.fingerprint(), decoded.getUser().fingerprint());
+        assertEquals(AttributeType.LONG, decoded.getUser().getCustomType("age"));
+        assertEquals(42L, decoded.getUser().getCustomLong("age", 0L));
+        assertEquals(1706696130000L, decoded.getUser().getCustomDateTime("since", 0L));
+        assertEquals(AttributeType.STRING, decoded.getUser().getCustomType("plan"));
+    }
+
+    @Test
+    public void userIsDecodedAsFromJson() {
+        FFCUser[] users = {
+                new FFCUser.Builder("k").email("e@x").country("FR").build(),
+                new FFCUser.Builder("k").userName(" ").email("e@x").country("FR").custom("plan", "gold").build(),
+                new FFCUser.Builder("k").userName("name").email("e@x").country("FR").build()
+        };
+        for (FFCUser user : users) {
+            VariationParams params = VariationParams.of("ff", user);
+            VariationParams binary = Codecs.BINARY.decode(Codecs.BINARY.encode(params), VariationParams.class);
+            assertEquals(VariationParams.fromJson(params.jsonfy()), binary);
+        }
+    }
+
+    @Test(expected = JsonParseException.class)
+    public void unknownAttributeTypeIsRejected() {
+        byte[] data = Codecs.BINARY.encode(VariationParams.of("ff", new FFCUser.Builder("key").custom("age", 42L).build()));
+        // the type of the only attribute is the last byte
+        data[data.length - 1] = 100;
+        Codecs.BINARY.decode(data, VariationParams.class);
+    }
+
+    @Test(expected = JsonParseException.class)
+    public void unsupportedTypeIsRejected() {
+        Codecs.BINARY.encode(new FFCUser.Builder("key").build());
+    }
+
+    @Test(expected = JsonParseException.class)
+    public void unsupportedTypeIsRejectedByStream() {
+        Codecs.BINARY.encode(new FFCUser.Builder("key").build(), new ByteArrayOutputStream());
+    }
+}
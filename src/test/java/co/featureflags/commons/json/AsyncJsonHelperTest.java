@@ -0,0 +1,102 @@
+package co.featureflags.commons.json;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AsyncJsonHelperTest {
+
+    @Test
+    public void defaultExecutorIsAlwaysAvailable() {
+        assertNotNull(AsyncJsonHelper.defaultExecutor());
+        if (!AsyncJsonHelper.isVirtualThreadSupported()) {
+            try {
+                AsyncJsonHelper.newVirtualThreadExecutor();
+                fail("virtual threads are not supported");
+            } catch (UnsupportedOperationException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void permitIsReleasedWhenTheExecutorFails() {
+        Executor failing = task -> {
+            throw new IllegalStateException("shut down");
+        };
+        AsyncJsonHelper async = new AsyncJsonHelper.Builder().executor(failing).maxConcurrentTasks(2).build();
+        for (int i = 0; i < 5; i++) {
+            CompletableFuture<String> future = async.serialize("value");
+            assertFailedWith(future, IllegalStateException.class);
+            assertEquals(0, async.getPendingTasks());
+        }
+    }
+
+    @Test
+    public void permitIsReleasedOnceWhenTheExecutorFailsAfterRunningTheTask() {
+        Executor failingAfterRun = task -> {
+            task.run();
+            throw new IllegalStateException("failed after run");
+        };
+        AsyncJsonHelper async = new AsyncJsonHelper.Builder().executor(failingAfterRun).maxConcurrentTasks(2).build();
+        for (int i = 0; i < 5; i++) {
+            assertEquals("\"value\"", async.serialize("value").join());
+            assertEquals(0, async.getPendingTasks());
+        }
+        async.deserialize("{", Object.class).handle((r, e) -> null).join();
+        assertEquals(0, async.getPendingTasks());
+        assertEquals(2, async.getMaxConcurrentTasks());
+    }
+
+    @Test
+    public void errorFailsTheFutureAndIsRethrown() {
+        // a cyclic list overflows the stack of the serialization
+        List<Object> cyclic = new ArrayList<>();
+        cyclic.add(cyclic);
+        List<Throwable> thrown = new ArrayList<>();
+        Executor inline = task -> {
+            try {
+                task.run();
+            } catch (Throwable e) {
+                thrown.add(e);
+            }
+        };
+        AsyncJsonHelper async = new AsyncJsonHelper.Builder().executor(inline).build();
+        CompletableFuture<String> future = async.serialize(cyclic);
+        assertFailedWith(future, StackOverflowError.class);
+        assertEquals(1, thrown.size());
+        assertTrue(thrown.get(0) instanceof StackOverflowError);
+        assertEquals(0, async.getPendingTasks());
+
+        Executor failing = task -> {
+            throw new AssertionError("executor error");
+        };
+        AsyncJsonHelper failingAsync = new AsyncJsonHelper.Builder().executor(failing).build();
+        try {
+            failingAsync.serialize("value");
+            fail("the error should be rethrown");
+        } catch (AssertionError e) {
+            assertEquals("executor error", e.getMessage());
+        }
+        assertEquals(0, failingAsync.getPendingTasks());
+    }
+
+    private static void assertFailedWith(CompletableFuture<?> future, Class<? extends Throwable> type) {
+        try {
+            future.get();
+            fail("the future should fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause().toString(), type.isInstance(e.getCause()));
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
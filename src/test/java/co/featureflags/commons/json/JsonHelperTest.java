@@ -0,0 +1,25 @@
+package co.featureflags.commons.json;
+
+import co.featureflags.commons.model.EvalDetail;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+public class JsonHelperTest {
+
+    @Test
+    public void printStreamIsWrittenAsUtf8() throws Exception {
+        EvalDetail<String> detail = EvalDetail.of("é中😀", 1, "r", "k", "n");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        // a charset other than UTF-8, ignored
+        PrintStream out = new PrintStream(bytes, false, "ISO-8859-1");
+        JsonHelper.serialize(detail, out);
+        detail.jsonfy(out);
+        String json = detail.jsonfy();
+        assertEquals(json + json, new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,91 @@
+package co.featureflags.commons.json;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class Utf8BufferReaderTest {
+
+    // valid sequences of 1 to 4 bytes, and malformed ones: a lone continuation byte, a truncated sequence,
+    // an overlong encoding, an encoded surrogate, a code point above U+10FFFF and invalid bytes
+    private static final byte[][] SEQUENCES = {
+            {'a'}, {'{'}, {'"'}, {'\\'},
+            {(byte) 0xc3, (byte) 0xa9},
+            {(byte) 0xe4, (byte) 0xb8, (byte) 0xad},
+            {(byte) 0xf0, (byte) 0x9f, (byte) 0x98, (byte) 0x80},
+            {(byte) 0x80},
+            {(byte) 0xe4, (byte) 0xb8},
+            {(byte) 0xf0, (byte) 0x9f, (byte) 0x98},
+            {(byte) 0xc0, (byte) 0xaf},
+            {(byte) 0xed, (byte) 0xa0, (byte) 0x80},
+            {(byte) 0xf4, (byte) 0x90, (byte) 0x80, (byte) 0x80},
+            {(byte) 0xff}, {(byte) 0xfe}
+    };
+
+    @Test
+    public void decodesAsString() {
+        Random random = new Random(22);
+        for (int i = 0; i < 3000; i++) {
+            // up to 3 blocks of the staging buffer of a direct buffer
+            byte[] bytes = randomBytes(random, i % 10 == 0 ? random.nextInt(25_000) : random.nextInt(200));
+            String expected = new String(bytes, StandardCharsets.UTF_8);
+            int maxRead = random.nextBoolean() ? 1 : 1 + random.nextInt(9000);
+            assertEquals(expected, read(heap(bytes, random.nextInt(4)), maxRead, random));
+            assertEquals(expected, read(direct(bytes), maxRead, random));
+        }
+    }
+
+    @Test
+    public void positionOfTheBufferIsNotChanged() {
+        byte[] bytes = "{\"a\":\"中😀\"}".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = direct(bytes);
+        assertEquals("{\"a\":\"中😀\"}", read(buffer, 16, new Random(0)));
+        assertEquals(0, buffer.position());
+        assertEquals(bytes.length, buffer.remaining());
+    }
+
+    private static byte[] randomBytes(Random random, int size) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size + 4);
+        while (out.size() < size) {
+            // mostly valid sequences, as in a real json
+            byte[] sequence = SEQUENCES[random.nextInt(4) > 0 ? random.nextInt(7) : random.nextInt(SEQUENCES.length)];
+            out.write(sequence, 0, sequence.length);
+        }
+        return out.toByteArray();
+    }
+
+    // a heap buffer whose bytes start at an offset of its array: a position, or the array offset of a slice
+    private static ByteBuffer heap(byte[] bytes, int offset) {
+        byte[] array = new byte[offset + bytes.length + 3];
+        System.arraycopy(bytes, 0, array, offset, bytes.length);
+        ByteBuffer buffer = ByteBuffer.wrap(array, offset, bytes.length);
+        return offset % 2 == 1 ? buffer.slice() : buffer;
+    }
+
+    private static ByteBuffer direct(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes);
+        buffer.flip();
+        return buffer;
+    }
+
+    // read by calls of random lengths, up to maxRead chars
+    private static String read(ByteBuffer buffer, int maxRead, Random random) {
+        Utf8BufferReader reader = new Utf8BufferReader(buffer);
+        StringBuilder text = new StringBuilder();
+        char[] chars = new char[maxRead + 2];
+        while (true) {
+            int length = 1 + random.nextInt(maxRead);
+            int n = reader.read(chars, 1, length);
+            if (n < 0) {
+                return text.toString();
+            }
+            text.append(chars, 1, n);
+        }
+    }
+}
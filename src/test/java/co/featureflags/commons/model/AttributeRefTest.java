@@ -0,0 +1,35 @@
+package co.featureflags.commons.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class AttributeRefTest {
+
+    @Test
+    public void readsUsersOfManyLayouts() {
+        // more layouts than the table of resolutions, the attribute is at a different slot in each one
+        List<FFCUser> users = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            FFCUser.Builder builder = new FFCUser.Builder("user-" + i).country("FR").custom("plan", "plan-" + i);
+            for (int j = 0; j < i % 20; j++) {
+                builder.custom("a" + i + "-" + j, "v");
+            }
+            users.add(builder.build());
+        }
+        users.add(new FFCUser.Builder("no-plan").custom("other", "x").build());
+        AttributeRef plan = AttributeRef.of("plan");
+        AttributeRef country = AttributeRef.of("Country");
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 40; i++) {
+                assertEquals("plan-" + i, users.get(i).getProperty(plan));
+                assertEquals("FR", users.get(i).getProperty(country));
+            }
+            assertNull(users.get(40).getProperty(plan));
+        }
+    }
+}
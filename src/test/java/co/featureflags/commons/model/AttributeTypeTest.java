@@ -0,0 +1,60 @@
+package co.featureflags.commons.model;
+
+import co.featureflags.commons.json.JsonHelper;
+import co.featureflags.commons.json.JsonParseException;
+import org.junit.Test;
+
+import java.time.Instant;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class AttributeTypeTest {
+
+    private static final long INSTANT = Instant.parse("2024-01-31T10:15:30Z").toEpochMilli();
+
+    @Test
+    public void parsesIso8601DateTimes() {
+        assertEquals(INSTANT, AttributeType.DATETIME.parse("2024-01-31T10:15:30Z"));
+        assertEquals(INSTANT, AttributeType.DATETIME.parse("2024-01-31T11:15:30+01:00"));
+        assertEquals(INSTANT, AttributeType.DATETIME.parse("2024-01-31T11:15:30+01:00[Europe/Paris]"));
+        assertEquals(INSTANT, AttributeType.DATETIME.parse("2024-01-31T10:15:30"));
+        assertEquals(INSTANT + 123, AttributeType.DATETIME.parse("2024-01-31T10:15:30.123Z"));
+        assertEquals(Instant.parse("2024-01-31T00:00:00Z").toEpochMilli(), AttributeType.DATETIME.parse("2024-01-31"));
+        assertEquals(INSTANT, AttributeType.DATETIME.parse(Long.toString(INSTANT)));
+        assertEquals(-1L, AttributeType.DATETIME.parse("-1"));
+        assertEquals(INSTANT, AttributeType.DATETIME.parse(AttributeType.DATETIME.format(INSTANT)));
+    }
+
+    @Test
+    public void rejectsInvalidDateTimes() {
+        String[] invalids = {"", "yesterday", "2024-13-01", "2024-01-31T25:00:00Z", "31/01/2024", "2024-01-31 10:15:30", "1e3"};
+        for (String invalid : invalids) {
+            try {
+                AttributeType.DATETIME.parse(invalid);
+                fail("accepted " + invalid);
+            } catch (RuntimeException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void userWithAnInvalidTypedAttributeIsRejected() {
+        String valid = JsonHelper.serialize(new FFCUser.Builder("k").customDateTime("since", INSTANT).custom("age", 42L).build());
+        FFCUser user = JsonHelper.deserialize(valid, FFCUser.class);
+        assertEquals(INSTANT, user.getCustomDateTime("since", 0L));
+        assertEquals(42L, user.getCustomLong("age", 0L));
+
+        String[] invalids = {
+                valid.replace(AttributeType.DATETIME.format(INSTANT), "next monday"),
+                valid.replace("\"42\"", "\"42.5\"")
+        };
+        for (String invalid : invalids) {
+            try {
+                JsonHelper.deserialize(invalid, FFCUser.class);
+                fail("accepted " + invalid);
+            } catch (JsonParseException expected) {
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package co.featureflags.commons.model;
+
+import co.featureflags.commons.json.JsonArrayReader;
+import co.featureflags.commons.json.JsonArrayWriter;
+import co.featureflags.commons.json.JsonHelper;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class BatchVariationParamsTest {
+
+    private static final FFCUser USER = new FFCUser.Builder("user-1")
+            .userName("name")
+            .email("user@featureflags.co")
+            .country("FR")
+            .custom("plan", "gold")
+            .custom("age", 42L)
+            .build();
+
+    @Test
+    public void entryHasTheUserMembersOfASingleRequest() {
+        JsonObject single = JsonParser.parseString(VariationParams.of("ff-1", USER).jsonfy()).getAsJsonObject();
+        JsonObject entry = JsonParser.parseString(JsonHelper.serialize(BatchVariationParams.of(USER, Arrays.asList("ff-1", "ff-2")))).getAsJsonObject();
+        single.remove("featureFlagKeyName");
+        assertEquals(2, entry.remove("featureFlagKeyNames").getAsJsonArray().size());
+        assertEquals(single, entry);
+        assertFalse(entry.has("user"));
+    }
+
+    @Test
+    public void roundTrip() throws Exception {
+        BatchVariationParams some = BatchVariationParams.of(USER, Arrays.asList("ff-1", "ff-2"));
+        BatchVariationParams all = BatchVariationParams.of(new FFCUser.Builder("user-2").build());
+        StringWriter json = new StringWriter();
+        try (JsonArrayWriter<BatchVariationParams> writer = BatchVariationParams.writer(json)) {
+            writer.write(some);
+            writer.write(all);
+        }
+        try (JsonArrayReader<BatchVariationParams> reader = BatchVariationParams.reader(new StringReader(json.toString()))) {
+            assertEquals(some, reader.next());
+            assertEquals(all, reader.next());
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test
+    public void unknownMembersAreSkipped() {
+        String json = "{\"userKeyId\":\"u\",\"extra\":{\"a\":[1]},\"featureFlagKeyNames\":[\"ff\"]}";
+        BatchVariationParams entry = JsonHelper.deserialize(json, BatchVariationParams.class);
+        assertEquals("u", entry.getUser().getKey());
+        assertEquals(Arrays.asList("ff"), entry.getFeatureFlagKeyNames());
+    }
+}
@@ -0,0 +1,34 @@
+package co.featureflags.commons.model;
+
+import co.featureflags.commons.json.JsonHelper;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class FFCUserTest {
+
+    @Test
+    public void fingerprintDependsOnTheTypes() {
+        FFCUser string = new FFCUser.Builder("k").custom("n", "1").build();
+        FFCUser typed = new FFCUser.Builder("k").custom("n", 1L).build();
+        assertEquals(string.getCustom(), typed.getCustom());
+        assertNotEquals(string, typed);
+        assertNotEquals(string.fingerprint(), typed.fingerprint());
+        assertNotEquals(typed.fingerprint(), new FFCUser.Builder("k").custom("n", 1.0).build().fingerprint());
+    }
+
+    @Test
+    public void equalUsersHaveTheSameFingerprint() {
+        FFCUser user = new FFCUser.Builder("k").userName("name").custom("plan", "gold").custom("age", 42L).custom("vip", true).build();
+        FFCUser same = new FFCUser.Builder("k").custom("vip", true).custom("age", 42L).custom("plan", "gold").userName("name").build();
+        FFCUser decoded = JsonHelper.deserialize(JsonHelper.serialize(user), FFCUser.class);
+        assertEquals(user, same);
+        assertEquals(user.fingerprint(), same.fingerprint());
+        assertEquals(user, decoded);
+        assertEquals(user.fingerprint(), decoded.fingerprint());
+        // a typed attribute set back to a string is a string
+        assertEquals(new FFCUser.Builder("k").custom("n", "1").build().fingerprint(),
+                new FFCUser.Builder("k").custom("n", 1L).custom("n", "1").build().fingerprint());
+    }
+}
@@ -0,0 +1,74 @@
+package co.featureflags.commons.model;
+
+import co.featureflags.commons.json.AsyncJsonHelper;
+import co.featureflags.commons.json.Compression;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * all the fromJson methods decode the variations as fromJson(String, Class) always did, whatever the source of the json:
+ * as their json types, the given class is not used to convert them
+ */
+public class FromJsonTypeTest {
+
+    private static final String ALL_FLAG_STATES = "{\"success\":true,\"message\":\"OK\",\"data\":["
+            + "{\"id\":1,\"variation\":\"true\",\"reason\":\"target match\",\"keyName\":\"ff-1\",\"name\":\"flag 1\"},"
+            + "{\"id\":0,\"variation\":false,\"reason\":\"fall through\",\"keyName\":\"ff-2\",\"name\":\"flag 2\"},"
+            + "{\"id\":2,\"variation\":42,\"reason\":\"rule match\",\"keyName\":\"ff-3\",\"name\":\"flag 3\"}]}";
+
+    private static final String EVAL_DETAIL = "{\"id\":1,\"variation\":42,\"reason\":\"r\",\"keyName\":\"k\",\"name\":\"n\"}";
+
+    private static final String FLAG_STATE = "{\"success\":true,\"message\":\"OK\",\"data\":" + EVAL_DETAIL + "}";
+
+    @Test
+    public void allFlagStatesFromEverySource() throws Exception {
+        AllFlagStates<Object> expected = AllFlagStates.of(true, "OK", Arrays.asList(
+                EvalDetail.of("true", 1, "target match", "ff-1", "flag 1"),
+                EvalDetail.of(false, 0, "fall through", "ff-2", "flag 2"),
+                EvalDetail.of(42.0, 2, "rule match", "ff-3", "flag 3")));
+        byte[] bytes = ALL_FLAG_STATES.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length).put(bytes);
+        direct.flip();
+        AsyncJsonHelper async = new AsyncJsonHelper.Builder().build();
+
+        List<AllFlagStates<Boolean>> decoded = Arrays.asList(
+                AllFlagStates.fromJson(ALL_FLAG_STATES, Boolean.class),
+                AllFlagStates.fromJson(ByteBuffer.wrap(bytes), Boolean.class),
+                AllFlagStates.fromJson(direct, Boolean.class),
+                AllFlagStates.fromJson(new ByteArrayInputStream(bytes), Boolean.class, Compression.NONE),
+                AllFlagStates.fromJsonAsync(ALL_FLAG_STATES, Boolean.class, async).get(),
+                AllFlagStates.fromJsonAsync(new ByteArrayInputStream(bytes), Boolean.class, Compression.NONE, async).get(),
+                AllFlagStates.fromJsonParallel(ALL_FLAG_STATES, Boolean.class, new ForkJoinPool(2)),
+                LazyAllFlagStates.fromJson(ALL_FLAG_STATES, Boolean.class).toAllFlagStates());
+        for (int i = 0; i < decoded.size(); i++) {
+            assertEquals("source " + i, expected, decoded.get(i));
+            Object variation = decoded.get(i).get("ff-1").getVariation();
+            assertEquals("source " + i, String.class, variation.getClass());
+        }
+    }
+
+    @Test
+    public void evalDetailAndFlagStateFromEverySource() throws Exception {
+        ByteBuffer detail = ByteBuffer.wrap(EVAL_DETAIL.getBytes(StandardCharsets.UTF_8));
+        ByteBuffer flagState = ByteBuffer.wrap(FLAG_STATE.getBytes(StandardCharsets.UTF_8));
+        AsyncJsonHelper async = new AsyncJsonHelper.Builder().build();
+        List<Object> variations = Arrays.asList(
+                EvalDetail.fromJson(EVAL_DETAIL, Integer.class).getVariation(),
+                EvalDetail.fromJson(detail, Integer.class).getVariation(),
+                EvalDetail.fromJsonAsync(EVAL_DETAIL, Integer.class, async).get().getVariation(),
+                FlagState.fromJson(FLAG_STATE, Integer.class).getData().getVariation(),
+                FlagState.fromJson(flagState, Integer.class).getData().getVariation(),
+                FlagState.fromJsonAsync(FLAG_STATE, Integer.class, async).get().getData().getVariation());
+        for (int i = 0; i < variations.size(); i++) {
+            assertEquals("source " + i, 42.0, variations.get(i));
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package co.featureflags.commons.model;
+
+import java.util.Random;
+
+/**
+ * generates valid json of {@link AllFlagStates} in the corner cases of the hand-written scanners:
+ * escaped and non-ASCII strings, surrogate pairs, random whitespaces, unknown members with nested values
+ * and members in any order. The variations are booleans, written as literals or as strings
+ */
+final class JsonFixtures {
+
+    private static final String[] CHARS = {"a", "Z", "0", " ", "\"", "\\", "/", "\n", "\t", "\u0001", "é", "中", " ", "😀", "{", "]", ","};
+
+    private static final String[] WHITESPACES = {"", "", "", " ", "\n", "\t", "\r\n  "};
+
+    private final Random random;
+
+    JsonFixtures(long seed) {
+        this.random = new Random(seed);
+    }
+
+    String allFlagStates(int flags) {
+        StringBuilder json = new StringBuilder();
+        json.append(ws()).append('{');
+        String[] members = {"success", "message", "data", "extra"};
+        shuffle(members);
+        boolean first = true;
+        for (String member : members) {
+            if (member.equals("extra") && random.nextBoolean()) {
+                continue;
+            }
+            if (!first) {
+                json.append(ws()).append(',');
+            }
+            first = false;
+            json.append(ws()).append('"').append(member).append('"').append(ws()).append(':').append(ws());
+            switch (member) {
+                case "success":
+                    json.append(random.nextInt(4) > 0);
+                    break;
+                case "message":
+                    json.append(random.nextBoolean() ? string(random.nextInt(8)) : "null");
+                    break;
+                case "data":
+                    json.append('[');
+                    for (int i = 0; i < flags; i++) {
+                        if (i > 0) {
+                            json.append(ws()).append(',');
+                        }
+                        json.append(ws()).append(flag(i));
+                    }
+                    json.append(ws()).append(']');
+                    break;
+                default:
+                    json.append(value(3));
+            }
+        }
+        return json.append(ws()).append('}').append(ws()).toString();
+    }
+
+    private String flag(int index) {
+        String[] members = {"id", "variation", "reason", "keyName", "name", "extra"};
+        shuffle(members);
+        StringBuilder json = new StringBuilder("{");
+        boolean first = true;
+        for (String member : members) {
+            if (member.equals("extra") && random.nextInt(3) > 0) {
+                continue;
+            }
+            if (!first) {
+                json.append(ws()).append(',');
+            }
+            first = false;
+            json.append(ws()).append('"').append(member).append('"').append(ws()).append(':').append(ws());
+            switch (member) {
+                case "id":
+                    json.append(random.nextInt(3));
+                    break;
+                case "variation":
+                    boolean on = random.nextBoolean();
+                    json.append(random.nextBoolean() ? String.valueOf(on) : "\"" + on + "\"");
+                    break;
+                case "keyName":
+                    // unique whatever the random part
+                    json.append(string(random.nextInt(6), "ff-" + index + "-"));
+                    break;
+                case "reason":
+                case "name":
+                    json.append(random.nextInt(5) == 0 ? "null" : string(random.nextInt(12)));
+                    break;
+                default:
+                    json.append(value(3));
+            }
+        }
+        return json.append(ws()).append('}').toString();
+    }
+
+    // any json value, nested up to a given depth
+    private String value(int depth) {
+        int kind = random.nextInt(depth > 0 ? 7 : 5);
+        switch (kind) {
+            case 0:
+                return "null";
+            case 1:
+                return String.valueOf(random.nextBoolean());
+            case 2:
+                return random.nextBoolean() ? String.valueOf(random.nextInt()) : "-1.5e3";
+            case 3:
+            case 4:
+                return string(random.nextInt(6));
+            case 5:
+                StringBuilder array = new StringBuilder("[");
+                int n = random.nextInt(3);
+                for (int i = 0; i < n; i++) {
+                    array.append(i > 0 ? "," : "").append(ws()).append(value(depth - 1));
+                }
+                return array.append(ws()).append(']').toString();
+            default:
+                StringBuilder object = new StringBuilder("{");
+                n = random.nextInt(3);
+                for (int i = 0; i < n; i++) {
+                    object.append(i > 0 ? "," : "").append(ws()).append(string(2, "m" + i)).append(':').append(value(depth - 1));
+                }
+                return object.append(ws()).append('}').toString();
+        }
+    }
+
+    private String string(int length) {
+        return string(length, "");
+    }
+
+    // a json string of a prefix followed by random chars, escaped in various ways
+    private String string(int length, String prefix) {
+        StringBuilder json = new StringBuilder("\"").append(prefix);
+        for (int i = 0; i < length; i++) {
+            String s = CHARS[random.nextInt(CHARS.length)];
+            for (int j = 0; j < s.length(); j++) {
+                json.append(escape(s.charAt(j)));
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    private String escape(char c) {
+        boolean unicode = random.nextInt(4) == 0;
+        if (unicode || c < 0x20) {
+            return String.format("\\u%04x", (int) c);
+        }
+        switch (c) {
+            case '"':
+                return "\\\"";
+            case '\\':
+                return "\\\\";
+            case '/':
+                return random.nextBoolean() ? "\\/" : "/";
+            default:
+                return String.valueOf(c);
+        }
+    }
+
+    private String ws() {
+        return WHITESPACES[random.nextInt(WHITESPACES.length)];
+    }
+
+    private void shuffle(String[] values) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            String value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package co.featureflags.commons.model;
+
+import co.featureflags.commons.json.JsonHelper;
+import co.featureflags.commons.json.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class LazyAllFlagStatesTest {
+
+    private static final Type LAZY_TYPE = TypeToken.getParameterized(LazyAllFlagStates.class, Boolean.class).getType();
+
+    private static final Type EAGER_TYPE = TypeToken.getParameterized(AllFlagStates.class, Boolean.class).getType();
+
+    @Test
+    public void sameAsEagerDecoding() {
+        JsonFixtures fixtures = new JsonFixtures(7);
+        for (int i = 0; i < 500; i++) {
+            String json = fixtures.allFlagStates(i % 20);
+            AllFlagStates<Boolean> expected = AllFlagStates.fromJson(json, Boolean.class);
+            LazyAllFlagStates<Boolean> lazy = LazyAllFlagStates.fromJson(json, Boolean.class);
+            assertEquals(json, expected, lazy.toAllFlagStates());
+            assertEquals(json, expected.getData().keySet(), lazy.keySet());
+            for (String keyName : lazy.keySet()) {
+                assertEquals(json, expected.get(keyName), lazy.get(keyName));
+            }
+        }
+    }
+
+    @Test
+    public void sameAsEagerDecodingThroughTheAdapter() {
+        JsonFixtures fixtures = new JsonFixtures(11);
+        for (int i = 0; i < 200; i++) {
+            String json = fixtures.allFlagStates(i % 10);
+            LazyAllFlagStates<Boolean> lazy = JsonHelper.deserialize(json, LAZY_TYPE);
+            assertEquals(json, JsonHelper.deserialize(json, EAGER_TYPE), lazy.toAllFlagStates());
+        }
+        assertNull(JsonHelper.deserialize("null", LAZY_TYPE));
+    }
+
+    @Test
+    public void variationsDecodedAsByEagerDecoding() {
+        String json = "{\"success\":true,\"data\":[{\"id\":1,\"variation\":\"true\",\"keyName\":\"ff\"}]}";
+        // fromJson decodes the json types, as AllFlagStates.fromJson
+        Object variation = LazyAllFlagStates.fromJson(json, Boolean.class).get("ff").getVariation();
+        assertEquals("true", variation);
+        Object number = LazyAllFlagStates.fromJson(json.replace("\"true\"", "7"), Integer.class).get("ff").getVariation();
+        assertEquals(7.0, number);
+        // the adapter decodes the variations as the type argument, as the adapter of AllFlagStates
+        LazyAllFlagStates<Boolean> lazy = JsonHelper.deserialize(json, LAZY_TYPE);
+        assertEquals(Boolean.TRUE, lazy.get("ff").getVariation());
+    }
+
+    @Test
+    public void truncatedJsonIsRejected() {
+        JsonFixtures fixtures = new JsonFixtures(13);
+        for (int i = 0; i < 100; i++) {
+            String json = fixtures.allFlagStates(3).trim();
+            for (int end : Arrays.asList(1, json.length() / 2, json.length() - 1)) {
+                try {
+                    LazyAllFlagStates.fromJson(json.substring(0, end), Boolean.class).toAllFlagStates();
+                    fail(json.substring(0, end));
+                } catch (JsonParseException expected) {
+                    // expected
+                }
+            }
+        }
+    }
+
+    @Test
+    public void malformedIgnoredMembersAreRejected() {
+        String[] invalids = {
+                "{\"success\":true,\"extra\":{\"a\":1],\"data\":[]}",
+                "{\"success\":true,\"extra\":[{\"a\":1}{\"b\":2}],\"data\":[]}",
+                "{\"success\":true,\"data\":[{\"keyName\":\"ff\",\"extra\":{\"a\" 1}}]}",
+                "{\"success\":true,\"data\":[{\"keyName\":\"ff\",\"extra\":[1,2}}]}"
+        };
+        for (String invalid : invalids) {
+            try {
+                LazyAllFlagStates.fromJson(invalid, Boolean.class);
+                fail(invalid);
+            } catch (JsonParseException expected) {
+                // expected
+            }
+        }
+    }
+}
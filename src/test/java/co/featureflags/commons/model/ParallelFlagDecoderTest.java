@@ -0,0 +1,120 @@
+package co.featureflags.commons.model;
+
+import co.featureflags.commons.json.JsonParseException;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ParallelFlagDecoderTest {
+
+    private static final Class<?>[] VARIATION_TYPES = {Boolean.class, String.class, Object.class};
+
+    @Test
+    public void sameStatesAsSequentialDecoding() {
+        JsonFixtures fixtures = new JsonFixtures(21);
+        for (int i = 0; i < 6; i++) {
+            String json = fixtures.allFlagStates(ParallelFlagDecoder.MIN_PARALLEL_FLAGS + 1000 * i);
+            for (Class<?> cls : VARIATION_TYPES) {
+                ForkJoinPool pool = new ForkJoinPool(4);
+                try {
+                    assertSameStates(json, cls, pool);
+                    // the pool starts its workers only if the chunks are decoded on it
+                    assertTrue("decoded in parallel", pool.getPoolSize() > 0);
+                } finally {
+                    pool.shutdown();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void smallPayloadsAreDecodedSequentially() {
+        JsonFixtures fixtures = new JsonFixtures(22);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int i = 0; i < 200; i++) {
+                String json = fixtures.allFlagStates(i % 40);
+                for (Class<?> cls : VARIATION_TYPES) {
+                    assertSameStates(json, cls, pool);
+                }
+            }
+            assertEquals(0, pool.getPoolSize());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void sameErrorAsSequentialDecoding() {
+        String json = new JsonFixtures(23).allFlagStates(ParallelFlagDecoder.MIN_PARALLEL_FLAGS + 100);
+        String[] invalids = {
+                json.substring(0, json.length() / 2),
+                json.substring(0, json.lastIndexOf('}')),
+                json.replaceFirst("\"keyName\"", "\"keyName\" \"x\""),
+                json + "]",
+                // malformed members ignored by the decoding
+                json.replaceFirst("\"message\"", "\"extra\":{\"a\":1],\"message\""),
+                json.replaceFirst("\"message\"", "\"extra\":{\"a\" 1},\"message\""),
+                json.replaceFirst("\"message\"", "\"extra\":[{\"a\":1}{\"b\":2}],\"message\""),
+                json.replaceFirst("\"message\"", "\"extra\":{\"a\":[1,2}},\"message\""),
+                json.replaceFirst("\"keyName\"", "\"extra\":{\"a\":1],\"keyName\"")
+        };
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (String invalid : invalids) {
+                String expected = error(() -> AllFlagStates.fromJson(invalid, Boolean.class));
+                assertEquals(expected, error(() -> AllFlagStates.fromJsonParallel(invalid, Boolean.class, pool)));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void lenientMembersAreDecodedSequentially() {
+        String json = new JsonFixtures(24).allFlagStates(ParallelFlagDecoder.MIN_PARALLEL_FLAGS + 100);
+        // accepted by the lenient sequential decoding, not by the scan
+        String[] lenients = {
+                json.replaceFirst("\"message\"", "\"extra\":[1,,2],\"message\""),
+                json.replaceFirst("\"message\"", "\"extra\":[true\"x\"],\"message\"")
+        };
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (String lenient : lenients) {
+                assertSameStates(lenient, Boolean.class, pool);
+            }
+            assertEquals(0, pool.getPoolSize());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void assertSameStates(String json, Class<?> cls, ForkJoinPool pool) {
+        AllFlagStates<?> sequential = AllFlagStates.fromJson(json, cls);
+        AllFlagStates<?> parallel = AllFlagStates.fromJsonParallel(json, cls, pool);
+        assertEquals(sequential, parallel);
+        assertEquals(sequential.getDetails().size(), parallel.getDetails().size());
+        for (int i = 0; i < sequential.getDetails().size(); i++) {
+            EvalDetail<?> expected = sequential.getDetails().get(i);
+            EvalDetail<?> actual = parallel.getDetails().get(i);
+            assertEquals(expected, actual);
+            if (expected.getVariation() != null) {
+                assertEquals(expected.getVariation().getClass(), actual.getVariation().getClass());
+            }
+        }
+    }
+
+    private static String error(Runnable decoding) {
+        try {
+            decoding.run();
+        } catch (JsonParseException e) {
+            return e.getClass().getName() + ": " + e.getMessage();
+        }
+        fail("invalid json accepted");
+        return null;
+    }
+}
@@ -0,0 +1,94 @@
+package co.featureflags.commons.model;
+
+import co.featureflags.commons.json.JsonParseException;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class UserTagExtractorTest {
+
+    @Test
+    public void cookiesAreScanned() {
+        UserTagExtractor extractor = UserTagExtractor.of(ImmutableList.of(
+                UserTag.of("uid", UserTag.COOKIE, "KeyId"),
+                UserTag.of("plan", UserTag.COOKIE, "plan"),
+                UserTag.of("lang", UserTag.COOKIE, "lang"),
+                UserTag.of("secure", UserTag.COOKIE, "secure")));
+        Map<String, String> headers = ImmutableMap.of("Cookie", "secure; uid = u1 ;plan=\"gold plan\"; lang=\"; uid=u2; plan=silver");
+        FFCUser user = extractor.extract(headers::get, null, null);
+        assertEquals("u1", user.getKey());
+        // the quotes of a value are removed, a name without '=' is ignored and the first occurrence of a name wins
+        assertEquals(ImmutableMap.of("plan", "gold plan", "lang", "\""), user.getCustom());
+        assertNull(extractor.extract(name -> null, null, null));
+    }
+
+    @Test
+    public void queryStringIsScanned() {
+        UserTagExtractor extractor = UserTagExtractor.of(ImmutableList.of(
+                UserTag.of("id", UserTag.QUERY_STRING, "KeyId"),
+                UserTag.of("n", UserTag.QUERY_STRING, "Name"),
+                UserTag.of("flag", UserTag.QUERY_STRING, "flag"),
+                UserTag.of("tag", UserTag.QUERY_STRING, "tag")));
+        FFCUser user = extractor.extract(name -> null, "flag&id=u%201&n=J%C3%A9r+%ZZ&tag=a&tag=b&id=u2&n=x", null);
+        assertEquals("u 1", user.getKey());
+        // a malformed escape is kept, the other ones are decoded
+        assertEquals("Jér %ZZ", user.getUserName());
+        // a name without '=' has an empty value, the first occurrence of a name wins
+        assertEquals(ImmutableMap.of("flag", "", "tag", "a"), user.getCustom());
+    }
+
+    @Test
+    public void malformedEscapesAreKept() {
+        UserTagExtractor extractor = UserTagExtractor.of(ImmutableList.of(UserTag.of("id", UserTag.QUERY_STRING, "KeyId")));
+        String[][] cases = {
+                {"a+b", "a b"},
+                {"%", "%"},
+                {"a%2", "a%2"},
+                {"%4g%41", "%4gA"},
+                {"%e4%b8%ad%zz%2B", "中%zz+"},
+                {"100%", "100%"},
+                {"%%41", "%A"}
+        };
+        for (String[] c : cases) {
+            assertEquals(c[0], c[1], extractor.extract(name -> null, "id=" + c[0], null).getKey());
+        }
+    }
+
+    @Test
+    public void bodyIsRead() {
+        UserTagExtractor extractor = UserTagExtractor.of(ImmutableList.of(
+                UserTag.of("id", UserTag.POST_BODY, "KeyId"),
+                UserTag.of("vip", UserTag.POST_BODY, "vip"),
+                UserTag.of("age", UserTag.POST_BODY, "age"),
+                UserTag.of("profile", UserTag.POST_BODY, "profile")));
+        String body = "{\"profile\":{\"id\":\"nested\",\"tags\":[1,{\"vip\":false}]},\"other\":[\"id\"],\"age\":42,"
+                + "\"vip\":true,\"id\":\"u1\",\"age\":7}";
+        FFCUser user = extractor.extract(name -> null, null, new StringReader(body));
+        // the nested members are skipped, a member that's an object is not a value
+        assertEquals("u1", user.getKey());
+        assertEquals(ImmutableMap.of("vip", "true", "age", "42"), user.getCustom());
+    }
+
+    @Test
+    public void bodyIsReadUntilAllTheTagsAreFound() {
+        UserTagExtractor extractor = UserTagExtractor.of(ImmutableList.of(
+                UserTag.of("id", UserTag.POST_BODY, "KeyId"),
+                UserTag.of("plan", UserTag.POST_BODY, "plan")));
+        // the rest of the body is not read
+        FFCUser user = extractor.extract(name -> null, null, new StringReader("{\"plan\":\"gold\",\"id\":\"u1\", not json"));
+        assertEquals("u1", user.getKey());
+        assertEquals("gold", user.getCustom().get("plan"));
+        try {
+            extractor.extract(name -> null, null, new StringReader("{\"plan\":\"gold\", not json"));
+            fail("invalid body accepted");
+        } catch (JsonParseException expected) {
+        }
+    }
+}